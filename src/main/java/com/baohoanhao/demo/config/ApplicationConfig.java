@@ -1,23 +1,25 @@
 package com.baohoanhao.demo.config;
 
+import com.baohoanhao.demo.security.TimedPasswordEncoder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.filter.ForwardedHeaderFilter;
 
 @Configuration
 public class ApplicationConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(ObservationRegistry observationRegistry) {
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), observationRegistry);
     }
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public MeterFilter passwordMeterFilter() {
+        return TimedPasswordEncoder.meterFilter();
     }
 
     @Bean
@@ -0,0 +1,31 @@
+package com.baohoanhao.demo.config;
+
+import com.baohoanhao.demo.validation.BreachedPasswordChecker;
+import com.baohoanhao.demo.validation.MappedPwnedPasswordChecker;
+import com.baohoanhao.demo.validation.RangeFileBreachedPasswordChecker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+/**
+ * Chọn nguồn dữ liệu breached password cho @StrongPassword
+ * - index-file: index SHA-1 memory-mapped, binary search không cấp phát (MappedPwnedPasswordChecker)
+ * - range-directory: đọc file {prefix}.txt mỗi lần kiểm tra (RangeFileBreachedPasswordChecker)
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.password.breached", name = "enabled", havingValue = "true")
+public class BreachedPasswordConfig {
+
+    @Bean
+    public BreachedPasswordChecker breachedPasswordChecker(PasswordPolicyProperties properties,
+                                                           MeterRegistry meterRegistry) throws IOException {
+        PasswordPolicyProperties.Breached breached = properties.getBreached();
+        if (breached.getIndexFile() != null) {
+            return new MappedPwnedPasswordChecker(breached.getIndexFile(), meterRegistry);
+        }
+        return new RangeFileBreachedPasswordChecker(properties);
+    }
+}
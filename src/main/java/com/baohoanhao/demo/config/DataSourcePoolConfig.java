@@ -0,0 +1,57 @@
+package com.baohoanhao.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Connection pool sizing cho HikariCP
+ *
+ * Khi bật app.datasource.pool.auto-size (profile prod), maximum-pool-size được tính từ:
+ * - số core: baseline (cores * 2) theo khuyến nghị của HikariCP
+ * - bcrypt concurrency: AuthService.login giữ connection trong lúc verify bcrypt (CPU-bound),
+ *   nên burst login cần thêm tối đa ~cores connection để không chặn các request khác
+ *
+ * spring.datasource.hikari.maximum-pool-size set tường minh luôn được ưu tiên.
+ */
+@Configuration
+@Slf4j
+public class DataSourcePoolConfig {
+
+    private static final String MAX_POOL_SIZE_PROPERTY = "spring.datasource.hikari.maximum-pool-size";
+
+    @Bean
+    static BeanPostProcessor hikariPoolSizer(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource
+                        && environment.getProperty("app.datasource.pool.auto-size", Boolean.class, false)
+                        && !environment.containsProperty(MAX_POOL_SIZE_PROPERTY)) {
+                    int cores = Runtime.getRuntime().availableProcessors();
+                    int bcryptConcurrency = environment.getProperty(
+                            "app.datasource.pool.bcrypt-concurrency", Integer.class, 0);
+                    int size = recommendedPoolSize(cores, bcryptConcurrency);
+
+                    // Pool cố định kích thước (min-idle = max) tránh trễ tạo connection lúc burst
+                    dataSource.setMaximumPoolSize(size);
+                    dataSource.setMinimumIdle(size);
+                    log.info("Hikari pool '{}' sized to {} (cores={}, bcryptConcurrency={})",
+                            dataSource.getPoolName(), size, cores, bcryptConcurrency > 0 ? bcryptConcurrency : cores);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * @param bcryptConcurrency số login đồng thời dự kiến, <= 0 nghĩa là mặc định bằng số core
+     */
+    public static int recommendedPoolSize(int cores, int bcryptConcurrency) {
+        int effectiveBcrypt = bcryptConcurrency > 0 ? bcryptConcurrency : cores;
+        return Math.max(4, cores * 2 + effectiveBcrypt);
+    }
+}
@@ -0,0 +1,20 @@
+package com.baohoanhao.demo.config;
+
+import com.baohoanhao.demo.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Chế độ stack trace của BusinessException (cờ static vì exception được tạo bằng new ở mọi nơi)
+ */
+@Configuration
+@Slf4j
+public class ExceptionConfig {
+
+    public ExceptionConfig(@Value("${app.exceptions.business-stack-trace:false}") boolean businessStackTrace) {
+        BusinessException.setStackTraceEnabled(businessStackTrace);
+        log.info("BusinessException stack traces {}", businessStackTrace
+                ? "enabled" : "disabled (captured only when GlobalExceptionHandler logs at DEBUG)");
+    }
+}
@@ -0,0 +1,22 @@
+package com.baohoanhao.demo.config;
+
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson cho HTTP message converter
+ * Module bean được Spring Boot tự đăng ký vào ObjectMapper
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Blackbird: getter/setter/constructor của DTO (ApiResponse, AuthResponse, ...) gọi qua lambda
+     * sinh bằng LambdaMetafactory thay cho Method.invoke
+     */
+    @Bean
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -1,10 +1,16 @@
 package com.baohoanhao.demo.config;
 
+import com.baohoanhao.demo.security.AccessTokenFormat;
+import com.baohoanhao.demo.security.JwtAlgorithm;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * JWT Configuration Properties
  * Đọc từ application.yaml prefix "jwt"
@@ -18,4 +24,41 @@ public class JwtProperties {
     private String secretKey;
     private long accessTokenExpiration;
     private long refreshTokenExpiration;
+
+    // Thuật toán ký token mới: HS256 (secret-key) | ES256 | EdDSA (signing-keys)
+    private JwtAlgorithm algorithm = JwtAlgorithm.HS256;
+
+    // STANDARD | COMPACT (claim ngắn, không có email)
+    private AccessTokenFormat accessTokenFormat = AccessTokenFormat.STANDARD;
+
+    // Opt-in: verify cả access token STANDARD HS256 qua FastAccessTokenVerifier (COMPACT luôn đi đường này)
+    private boolean fastPathEnabled;
+
+    // Key bất đối xứng, key đầu tiên dùng để ký, các key sau chỉ dùng để verify (rotation)
+    private List<SigningKeyProperties> signingKeys = new ArrayList<>();
+
+    // File JSON {"keys": [...]} (mounted secret), được đọc lại khi thay đổi - rotate không cần restart
+    // Chu kỳ poll: jwt.key-file-poll-interval, đọc trực tiếp bởi @Scheduled của SigningKeyFileWatcher
+    private String keyFile;
+
+    // Chỉ dev / test: thuật toán bất đối xứng mà không có signing-keys / key-file thì sinh key tạm
+    // (mỗi instance một key, mất sau restart); mặc định false → không khởi động được
+    private boolean allowEphemeralKeys;
+
+    // Thời gian key đã retire vẫn được dùng để verify, mặc định = refresh-token-expiration
+    private Duration keyGracePeriod;
+
+    public Duration getEffectiveKeyGracePeriod() {
+        return keyGracePeriod != null ? keyGracePeriod : Duration.ofMillis(refreshTokenExpiration);
+    }
+
+    @Getter
+    @Setter
+    public static class SigningKeyProperties {
+        private String kid;
+        private JwtAlgorithm algorithm;  // mặc định = jwt.algorithm
+        private String privateKey;       // PEM PKCS#8, để trống nếu key chỉ dùng để verify
+        private String publicKey;        // PEM X.509 SubjectPublicKeyInfo
+        private String secret;           // HS256
+    }
 }
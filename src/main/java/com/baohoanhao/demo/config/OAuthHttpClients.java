@@ -0,0 +1,200 @@
+package com.baohoanhao.demo.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RestTemplate gọi OAuth provider, một instance cho mỗi registration
+ *
+ * - JDK HttpClient (HTTP/2 nếu provider hỗ trợ, pool keep-alive), connect/read timeout theo provider
+ * - Giới hạn số request đồng thời tới một provider: provider chậm không giữ hết Tomcat threads
+ * - Retry có backoff cho request idempotent (GET userinfo) khi lỗi I/O hoặc 429/502/503/504;
+ *   token exchange (POST, code dùng một lần) không retry
+ * - Metric oauth.http.client (latency theo provider / method / outcome), oauth.http.client.retries
+ * - Observation http.client.requests: một span cho mỗi lời gọi (bao cả các lần retry), propagate traceparent
+ */
+@Component
+@Slf4j
+public class OAuthHttpClients implements DisposableBean {
+
+    private static final Set<HttpMethod> IDEMPOTENT = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+    private static final Set<Integer> RETRYABLE_STATUS = Set.of(429, 502, 503, 504);
+
+    private final OAuthProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+    private final Map<String, Client> clients = new ConcurrentHashMap<>();
+
+    public OAuthHttpClients(OAuthProperties properties, MeterRegistry meterRegistry,
+                            ObservationRegistry observationRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+    }
+
+    public RestTemplate forProvider(String registrationId) {
+        return clients.computeIfAbsent(registrationId, this::create).restTemplate();
+    }
+
+    @Override
+    public void destroy() {
+        clients.values().forEach(client -> client.httpClient().close());
+        clients.clear();
+    }
+
+    private Client create(String registrationId) {
+        OAuthProperties.Http http = properties.httpFor(registrationId);
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(http.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(http.getReadTimeout());
+
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.setObservationRegistry(observationRegistry);
+        // Retry phải là interceptor cuối: mỗi lần execute lại tạo request mới tới provider
+        restTemplate.setInterceptors(List.of(
+                metrics(registrationId),
+                bulkhead(registrationId, http),
+                retry(registrationId, http)
+        ));
+
+        log.info("OAuth HTTP client for '{}' (connectTimeout={}, readTimeout={}, maxConcurrent={})",
+                registrationId, http.getConnectTimeout(), http.getReadTimeout(), http.getMaxConcurrentRequests());
+        return new Client(httpClient, restTemplate);
+    }
+
+    private ClientHttpRequestInterceptor metrics(String registrationId) {
+        return (request, body, execution) -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String outcome = "IO_ERROR";
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                outcome = outcome(response.getStatusCode());
+                return response;
+            } finally {
+                sample.stop(Timer.builder("oauth.http.client")
+                        .description("Latency request tới OAuth provider")
+                        .tag("provider", registrationId)
+                        .tag("method", request.getMethod().name())
+                        .tag("outcome", outcome)
+                        .register(meterRegistry));
+            }
+        };
+    }
+
+    private static ClientHttpRequestInterceptor bulkhead(String registrationId, OAuthProperties.Http http) {
+        Semaphore permits = new Semaphore(http.getMaxConcurrentRequests());
+        long acquireTimeoutMillis = http.getAcquireTimeout().toMillis();
+        return (request, body, execution) -> {
+            try {
+                if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new IOException("Quá nhiều request đồng thời tới " + registrationId);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Bị ngắt khi chờ gọi " + registrationId);
+            }
+            try {
+                return execution.execute(request, body);
+            } finally {
+                permits.release();
+            }
+        };
+    }
+
+    private ClientHttpRequestInterceptor retry(String registrationId, OAuthProperties.Http http) {
+        Counter retries = Counter.builder("oauth.http.client.retries")
+                .description("Số lần retry request tới OAuth provider")
+                .tag("provider", registrationId)
+                .register(meterRegistry);
+        return (request, body, execution) -> {
+            int maxAttempts = IDEMPOTENT.contains(request.getMethod()) ? Math.max(1, http.getMaxAttempts()) : 1;
+            long backoff = http.getRetryBackoff().toMillis();
+            for (int attempt = 1; ; attempt++) {
+                boolean last = attempt >= maxAttempts;
+                try {
+                    ClientHttpResponse response = executeWithTimeout(execution, request, body);
+                    if (last || !RETRYABLE_STATUS.contains(response.getStatusCode().value())) {
+                        return response;
+                    }
+                    response.close();
+                    log.debug("Retrying {} {} after status {}", request.getMethod(), request.getURI().getHost(),
+                            response.getStatusCode().value());
+                } catch (IOException e) {
+                    if (last) {
+                        throw e;
+                    }
+                    log.debug("Retrying {} {} after {}", request.getMethod(), request.getURI().getHost(),
+                            e.toString());
+                }
+                retries.increment();
+                sleep(backoff);
+                backoff *= 2;
+            }
+        };
+    }
+
+    /**
+     * Read timeout của JdkClientHttpRequest huỷ future response; tuỳ thời điểm, CancellationException
+     * có thể lọt ra ngoài thay vì HttpTimeoutException -> đổi lại thành IOException để RestTemplate
+     * bọc thành ResourceAccessException và retry xử lý như lỗi I/O
+     */
+    private static ClientHttpResponse executeWithTimeout(ClientHttpRequestExecution execution, HttpRequest request,
+                                                         byte[] body) throws IOException {
+        try {
+            return execution.execute(request, body);
+        } catch (CancellationException e) {
+            HttpTimeoutException timeout = new HttpTimeoutException("Request tới " + request.getURI().getHost() + " bị timeout");
+            timeout.initCause(e);
+            throw timeout;
+        }
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Bị ngắt khi chờ retry");
+        }
+    }
+
+    private static String outcome(HttpStatusCode status) {
+        if (status.is2xxSuccessful()) {
+            return "SUCCESS";
+        }
+        return status.is4xxClientError() ? "CLIENT_ERROR" : "SERVER_ERROR";
+    }
+
+    private record Client(HttpClient httpClient, RestTemplate restTemplate) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.baohoanhao.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * OAuth2 Login Configuration Properties
+ * Đọc từ application.yaml prefix "app.oauth"
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.oauth")
+public class OAuthProperties {
+
+    private boolean enabled;
+
+    // OIDC issuer theo registration id (discovery tại {issuer}/.well-known/openid-configuration)
+    private Map<String, String> issuerUri = new HashMap<>(Map.of("google", "https://accounts.google.com"));
+
+    private Jwks jwks = new Jwks();
+
+    private UserInfo userInfo = new UserInfo();
+
+    // TTL cache Redis (provider, subject) → user id, xem OAuthIdentityService
+    private Duration identityCacheTtl = Duration.ofHours(1);
+
+    // Số callback xử lý đồng thời tối đa (mỗi callback một virtual thread); vượt quá trả 503 ngay
+    private int maxConcurrentCallbacks = 200;
+
+    // HTTP client gọi provider (token exchange, userinfo); provider-http.{registrationId} thay thế toàn bộ
+    private Http http = new Http();
+    private Map<String, Http> providerHttp = new HashMap<>();
+
+    public Http httpFor(String registrationId) {
+        return providerHttp.getOrDefault(registrationId, http);
+    }
+
+    @Getter
+    @Setter
+    public static class Jwks {
+
+        // Thời gian giữ JWK set trong cache
+        private Duration cacheTtl = Duration.ofMinutes(15);
+
+        // Refresh nền trước khi cache hết hạn, login không phải chờ fetch
+        private Duration refreshAhead = Duration.ofMinutes(1);
+
+        // Thời gian tối đa chờ một lần refresh đang chạy
+        private Duration refreshTimeout = Duration.ofSeconds(15);
+
+        // Khoảng cách tối thiểu giữa hai lần fetch khi gặp kid lạ
+        private Duration rateLimitMinInterval = Duration.ofSeconds(30);
+
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration readTimeout = Duration.ofSeconds(2);
+    }
+
+    @Getter
+    @Setter
+    public static class UserInfo {
+
+        // Cache response userinfo theo (provider, hash access token), callback retry không gọi lại provider
+        private Duration cacheTtl = Duration.ofMinutes(2);
+        private int cacheMaxEntries = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Http {
+
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration readTimeout = Duration.ofSeconds(5);
+
+        // Số request đồng thời tối đa tới một provider; vượt quá thì chờ tối đa acquire-timeout rồi fail
+        private int maxConcurrentRequests = 20;
+        private Duration acquireTimeout = Duration.ofMillis(500);
+
+        // Retry chỉ áp dụng cho request idempotent (GET), backoff nhân đôi sau mỗi lần
+        private int maxAttempts = 3;
+        private Duration retryBackoff = Duration.ofMillis(200);
+    }
+}
@@ -0,0 +1,52 @@
+package com.baohoanhao.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Chính sách mật khẩu cho @StrongPassword
+ * Đọc từ application.yaml prefix "app.password"
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.password")
+public class PasswordPolicyProperties {
+
+    private int minLength = 8;
+
+    // Tính theo byte UTF-8: bcrypt chỉ dùng 72 byte đầu (BCryptPasswordEncoder từ chối dài hơn),
+    // đồng thời chặn input lớn trước khi scan
+    private int maxBytes = 72;
+
+    private boolean requireUppercase = true;
+    private boolean requireLowercase = true;
+    private boolean requireDigit = true;
+    private boolean requireSpecial = true;
+
+    // Ký tự đặc biệt hợp lệ (ASCII)
+    private String specialCharacters = "!@#$%^&*";
+
+    private Breached breached = new Breached();
+
+    @Getter
+    @Setter
+    public static class Breached {
+
+        // Kiểm tra mật khẩu đã bị lộ qua file range SHA-1 local (k-anonymity, không gọi API bên ngoài)
+        private boolean enabled;
+
+        // Thư mục chứa {5 ký tự hex đầu của SHA-1}.txt, mỗi dòng "{35 ký tự hex còn lại}:{số lần xuất hiện}"
+        private Path rangeDirectory;
+
+        // Index SHA-1 memory-mapped build từ range-directory (PwnedPasswordIndex); có thì ưu tiên hơn range-directory
+        private Path indexFile;
+
+        // Số lần xuất hiện tối thiểu để coi là đã bị lộ
+        private int minOccurrences = 1;
+    }
+}
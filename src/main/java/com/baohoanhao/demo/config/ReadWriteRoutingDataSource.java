@@ -0,0 +1,54 @@
+package com.baohoanhao.demo.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Route connection theo loại transaction
+ *
+ * - @Transactional(readOnly = true) → replica
+ * - còn lại (ghi, không transaction) → primary
+ * - replica trễ / lỗi hoặc user vừa ghi (read-your-writes) → primary
+ *
+ * Phải được bọc trong LazyConnectionDataSourceProxy: transaction manager lấy connection
+ * trước khi đánh dấu read-only, proxy hoãn việc chọn DataSource tới statement đầu tiên.
+ */
+public final class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    public ReadWriteRoutingDataSource(DataSource primary,
+                                      DataSource replica,
+                                      ReplicaLagMonitor lagMonitor,
+                                      ReadYourWritesTracker readYourWritesTracker) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWritesTracker = readYourWritesTracker;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || !lagMonitor.isReplicaUsable()
+                || readYourWritesTracker.isSticky(currentUserId())) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+
+    private static String currentUserId() {
+        // Principal = AuthenticatedUser, getName() = userId (xem JwtAuthenticationFilter)
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+}
@@ -0,0 +1,76 @@
+package com.baohoanhao.demo.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-your-writes stickiness cho replica routing
+ *
+ * Sau khi user ghi dữ liệu, các read-only transaction của user đó được route về primary
+ * trong read-your-writes-window để không đọc phải bản cũ từ replica đang trễ.
+ * Marker lưu trong Redis với TTL = window: request kế tiếp có thể tới instance khác.
+ * Redis lỗi thì coi như sticky (đọc primary), không bao giờ đọc bản cũ.
+ */
+@Component
+@Slf4j
+public class ReadYourWritesTracker {
+
+    private static final String STICKY_PREFIX = "ryw:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final boolean enabled;
+    private final long windowMillis;
+
+    public ReadYourWritesTracker(RedisTemplate<String, Object> redisTemplate, ReplicaDataSourceProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = properties.isEnabled();
+        this.windowMillis = properties.getReadYourWritesWindow().toMillis();
+    }
+
+    /**
+     * Đánh dấu user vừa ghi. Trong transaction thì window bắt đầu sau khi commit.
+     * Không có replica thì mọi transaction đã đi primary, không ghi Redis.
+     */
+    public void markWrite(String userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stick(userId);
+                }
+            });
+        } else {
+            stick(userId);
+        }
+    }
+
+    public boolean isSticky(String userId) {
+        if (!enabled || userId == null) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(STICKY_PREFIX + userId));
+        } catch (DataAccessException e) {
+            log.warn("Không đọc được read-your-writes marker, đọc từ primary: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    private void stick(String userId) {
+        try {
+            redisTemplate.opsForValue().set(STICKY_PREFIX + userId, "1", windowMillis, TimeUnit.MILLISECONDS);
+        } catch (DataAccessException e) {
+            // Ghi đã commit; mất marker chỉ làm lần đọc kế tiếp có thể thấy bản cũ trong window
+            log.warn("Không ghi được read-your-writes marker cho user {}: {}", userId, e.getMessage());
+        }
+    }
+}
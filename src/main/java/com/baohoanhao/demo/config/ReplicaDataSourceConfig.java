@@ -0,0 +1,68 @@
+package com.baohoanhao.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Read/write splitting: primary cho ghi, replica cho read-only transaction
+ *
+ * Bật bằng app.datasource.replica.enabled=true. Khi tắt, Spring Boot tự tạo DataSource
+ * duy nhất từ spring.datasource như cũ.
+ * - Primary pool: spring.datasource.* + spring.datasource.hikari.*
+ * - Replica pool: app.datasource.replica.{url,username,password} + app.datasource.replica.hikari.*
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties primaryProperties,
+                                              ReplicaDataSourceProperties replicaProperties) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(primaryProperties.determineDriverClassName())
+                .url(replicaProperties.getUrl())
+                .username(replicaProperties.getUsername())
+                .password(replicaProperties.getPassword())
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               ReplicaDataSourceProperties properties) {
+        return new ReplicaLagMonitor(replicaDataSource, properties);
+    }
+
+    /**
+     * DataSource dùng bởi JPA, JdbcTemplate, Flyway (Flyway không có transaction → primary)
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 ReadYourWritesTracker readYourWritesTracker) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(
+                primaryDataSource, replicaDataSource, replicaLagMonitor, readYourWritesTracker));
+    }
+}
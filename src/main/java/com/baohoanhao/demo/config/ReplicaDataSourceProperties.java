@@ -0,0 +1,32 @@
+package com.baohoanhao.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Replica DataSource Configuration Properties
+ * Đọc từ application.yaml prefix "app.datasource.replica"
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public class ReplicaDataSourceProperties {
+
+    private boolean enabled;
+    private String url;
+    private String username;
+    private String password;
+
+    // Replica trễ hơn ngưỡng này (giây) thì đọc từ primary
+    private int maxLagSeconds = 5;
+    private boolean lagCheckEnabled = true;
+    private Duration lagCheckInterval = Duration.ofSeconds(5);
+
+    // Sau khi user ghi, các read-only transaction của user đó đi primary trong khoảng này
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+}
@@ -0,0 +1,67 @@
+package com.baohoanhao.demo.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Theo dõi độ trễ replication (SHOW REPLICA STATUS → Seconds_Behind_Source)
+ *
+ * Replica không dùng được khi:
+ * - không phải replica / replication dừng (status rỗng hoặc Seconds_Behind_Source = NULL)
+ * - trễ hơn max-lag-seconds
+ * - không kết nối được
+ * Khi đó ReadWriteRoutingDataSource đọc từ primary.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final DataSource replicaDataSource;
+    private final ReplicaDataSourceProperties properties;
+
+    // Mặc định không dùng replica cho tới lần kiểm tra đầu tiên
+    private volatile boolean replicaUsable;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, ReplicaDataSourceProperties properties) {
+        this.replicaDataSource = replicaDataSource;
+        this.properties = properties;
+        this.replicaUsable = !properties.isLagCheckEnabled();
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval:5000}")
+    public void checkLag() {
+        if (!properties.isLagCheckEnabled()) {
+            return;
+        }
+        boolean usable = false;
+        try (Connection connection = replicaDataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (rs.next()) {
+                long lag = rs.getLong("Seconds_Behind_Source");
+                usable = !rs.wasNull() && lag <= properties.getMaxLagSeconds();
+                if (!usable) {
+                    log.warn("Replica lag {}s exceeds {}s, routing reads to primary",
+                            rs.wasNull() ? "unknown" : lag, properties.getMaxLagSeconds());
+                }
+            } else {
+                log.warn("Replica status is empty, routing reads to primary");
+            }
+        } catch (SQLException e) {
+            log.warn("Replica lag check failed, routing reads to primary: {}", e.getMessage());
+        }
+        if (usable != replicaUsable) {
+            log.info("Replica usable: {}", usable);
+        }
+        replicaUsable = usable;
+    }
+}
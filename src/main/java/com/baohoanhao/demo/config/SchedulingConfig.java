@@ -0,0 +1,15 @@
+package com.baohoanhao.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Bật @Scheduled (replica lag check, theo dõi signing key file) và @Async
+ * Khi spring.threads.virtual.enabled=true, Spring Boot chạy cả hai trên virtual thread
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -3,6 +3,7 @@ package com.baohoanhao.demo.config;
 import com.baohoanhao.demo.security.CustomAuthenticationEntryPoint;
 import com.baohoanhao.demo.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -13,6 +14,7 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -44,6 +46,7 @@ public class SecurityConfig {
             "/api/auth/oauth2/**",
             "/api/public/**",
             "/actuator/health",
+            "/.well-known/jwks.json",
             "/swagger-ui/**",
             "/v3/api-docs/**",
             "/favicon.ico",
@@ -53,8 +56,15 @@ public class SecurityConfig {
             "/images/**"
     };
 
+    private static final String PROMETHEUS_PATH = "/actuator/prometheus";
+    private static final String ACTUATOR_ENDPOINTS = "/actuator/**";
+
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(
+            HttpSecurity http,
+            @Value("${server.port:8080}") int serverPort,
+            @Value("${management.server.port:-1}") int managementPort
+    ) throws Exception {
         http
                 // 1. Tắt CSRF - Không cần vì dùng JWT (stateless)
                 .csrf(AbstractHttpConfigurer::disable)
@@ -73,6 +83,13 @@ public class SecurityConfig {
                         
                         // Public endpoints
                         .requestMatchers(PUBLIC_ENDPOINTS).permitAll()
+
+                        // Prometheus scrape không có token: chỉ mở trên management port riêng (prod, không qua ingress)
+                        .requestMatchers(prometheusOnManagementPort(serverPort, managementPort)).permitAll()
+
+                        // Actuator còn lại (metrics, prometheus trên port ứng dụng, pinning...) chỉ cho ADMIN,
+                        // user tự đăng ký không được đọc metrics
+                        .requestMatchers(ACTUATOR_ENDPOINTS).hasRole("ADMIN")
                         
                         // Tất cả request khác cần authentication
                         .anyRequest().authenticated()
@@ -88,6 +105,13 @@ public class SecurityConfig {
         return http.build();
     }
 
+    static RequestMatcher prometheusOnManagementPort(int serverPort, int managementPort) {
+        return request -> managementPort > 0
+                && managementPort != serverPort
+                && request.getLocalPort() == managementPort
+                && PROMETHEUS_PATH.equals(request.getRequestURI());
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration config = new CorsConfiguration();
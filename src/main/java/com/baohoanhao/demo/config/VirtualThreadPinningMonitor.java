@@ -0,0 +1,154 @@
+package com.baohoanhao.demo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phát hiện virtual thread bị pin vào carrier thread (JFR event jdk.VirtualThreadPinned)
+ *
+ * Java 21: virtual thread block trong synchronized (hoặc native frame) không nhả được carrier,
+ * số request song song thực tế rơi về số carrier (= số core). Mỗi lần pin lâu hơn threshold:
+ * - gom theo site = frame đầu tiên ngoài JDK (thư viện hoặc code của mình), kèm origin = frame đầu tiên trong app
+ * - metric threads.virtual.pinned (timer, tag site / origin)
+ * - log WARN kèm stack mẫu ở lần đầu gặp mỗi site
+ * - actuator endpoint /actuator/pinning liệt kê các site, nhiều thời gian pin nhất trước
+ */
+@Component
+@Endpoint(id = "pinning")
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(prefix = "app.threads.pinning", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class VirtualThreadPinningMonitor implements DisposableBean {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final String APP_PACKAGE = "com.baohoanhao.";
+    private static final String OTHER_SITE = "other";
+    private static final String NO_FRAME = "-";
+
+    private final VirtualThreadProperties.Pinning properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Site> sites = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(VirtualThreadProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties.getPinning();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(properties.getThreshold()).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::record);
+        stream.startAsync();
+        log.info("Virtual thread pinning monitor started (threshold={})", properties.getThreshold());
+    }
+
+    @Override
+    public void destroy() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    @ReadOperation
+    public List<PinnedSite> report() {
+        return sites.values().stream()
+                .map(Site::snapshot)
+                .sorted(Comparator.comparingDouble(PinnedSite::totalMillis).reversed())
+                .toList();
+    }
+
+    void record(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+        String key = siteOf(frames);
+        Site site = sites.get(key);
+        if (site == null) {
+            if (sites.size() >= properties.getMaxSites()) {
+                key = OTHER_SITE;
+            }
+            site = sites.computeIfAbsent(key, k -> newSite(k, frames, event));
+        }
+        site.timer().record(event.getDuration());
+    }
+
+    private Site newSite(String key, List<RecordedFrame> frames, RecordedEvent event) {
+        String origin = originOf(frames);
+        List<String> stack = frames.stream()
+                .limit(properties.getStackDepth())
+                .map(VirtualThreadPinningMonitor::format)
+                .toList();
+        log.warn("Virtual thread pinned for {} ms at {} (origin {}):\n\tat {}",
+                event.getDuration().toMillis(), key, origin, String.join("\n\tat ", stack));
+        Timer timer = Timer.builder("threads.virtual.pinned")
+                .description("Thời gian virtual thread bị pin vào carrier thread")
+                .tag("site", key)
+                .tag("origin", origin)
+                .register(meterRegistry);
+        return new Site(key, origin, stack, timer);
+    }
+
+    /**
+     * Frame đầu tiên ngoài JDK: nơi (thư viện / code của mình) block trong lúc đang pin
+     */
+    private static String siteOf(List<RecordedFrame> frames) {
+        return frames.stream()
+                .filter(frame -> frame.isJavaFrame() && !isJdk(frame))
+                .findFirst()
+                .map(VirtualThreadPinningMonitor::format)
+                .orElse(NO_FRAME);
+    }
+
+    /**
+     * Frame đầu tiên trong code của app: code path nào dẫn tới site
+     */
+    private static String originOf(List<RecordedFrame> frames) {
+        return frames.stream()
+                .filter(frame -> frame.getMethod().getType().getName().startsWith(APP_PACKAGE))
+                .findFirst()
+                .map(VirtualThreadPinningMonitor::format)
+                .orElse(NO_FRAME);
+    }
+
+    private static boolean isJdk(RecordedFrame frame) {
+        String type = frame.getMethod().getType().getName();
+        return type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.");
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    public record PinnedSite(String site, String origin, long count, double totalMillis, double maxMillis,
+                             List<String> stack) {
+    }
+
+    private record Site(String site, String origin, List<String> stack, Timer timer) {
+
+        PinnedSite snapshot() {
+            return new PinnedSite(site, origin, timer.count(), timer.totalTime(TimeUnit.MILLISECONDS),
+                    timer.max(TimeUnit.MILLISECONDS), stack);
+        }
+    }
+}
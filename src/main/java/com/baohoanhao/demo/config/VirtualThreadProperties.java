@@ -0,0 +1,38 @@
+package com.baohoanhao.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Chẩn đoán virtual thread (chỉ có tác dụng khi spring.threads.virtual.enabled=true)
+ * Đọc từ application.yaml prefix "app.threads"
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.threads")
+public class VirtualThreadProperties {
+
+    private Pinning pinning = new Pinning();
+
+    @Getter
+    @Setter
+    public static class Pinning {
+
+        // Theo dõi event JFR jdk.VirtualThreadPinned
+        private boolean enabled = true;
+
+        // Chỉ ghi nhận lần pin giữ carrier thread lâu hơn ngưỡng này
+        private Duration threshold = Duration.ofMillis(20);
+
+        // Số vị trí (site) được theo dõi riêng, vượt quá gộp vào "other" để giới hạn cardinality metric
+        private int maxSites = 50;
+
+        // Số frame giữ lại làm stack mẫu cho mỗi site
+        private int stackDepth = 12;
+    }
+}
@@ -0,0 +1,70 @@
+package com.baohoanhao.demo.controller;
+
+import com.baohoanhao.demo.dto.response.ApiResponse;
+import com.baohoanhao.demo.dto.response.SigningKeyResponse;
+import com.baohoanhao.demo.exception.BadRequestException;
+import com.baohoanhao.demo.security.SigningKey;
+import com.baohoanhao.demo.security.SigningKeyFileWatcher;
+import com.baohoanhao.demo.security.SigningKeyRing;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Admin Controller - Quản lý signing key cho JWT
+ *
+ * REST API Endpoints:
+ * - GET  /api/admin/keys        - Danh sách key còn verify được
+ * - POST /api/admin/keys/reload - Đọc lại jwt.key-file ngay, không chờ lần poll kế tiếp
+ *
+ * Rotate = thêm key mới lên đầu jwt.key-file; không sinh key trong bộ nhớ của một instance
+ * vì replica khác (và chính instance này sau restart) sẽ không verify được token ký bằng key đó.
+ */
+@RestController
+@RequestMapping("/api/admin/keys")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Admin", description = "Quản trị người dùng")
+public class AdminKeyController {
+
+    private final SigningKeyRing signingKeyRing;
+    private final ObjectProvider<SigningKeyFileWatcher> signingKeyFileWatcher;
+
+    @GetMapping
+    @Operation(summary = "Danh sách signing key")
+    public ResponseEntity<ApiResponse<List<SigningKeyResponse>>> listKeys() {
+        return ResponseEntity.ok(ApiResponse.success(keys()));
+    }
+
+    @PostMapping("/reload")
+    @Operation(summary = "Đọc lại signing key file")
+    public ResponseEntity<ApiResponse<List<SigningKeyResponse>>> reload() {
+        SigningKeyFileWatcher watcher = signingKeyFileWatcher.getIfAvailable();
+        if (watcher == null) {
+            throw new BadRequestException("jwt.key-file chưa được cấu hình");
+        }
+        watcher.reload();
+        return ResponseEntity.ok(ApiResponse.success("Đã nạp lại signing key", keys()));
+    }
+
+    private List<SigningKeyResponse> keys() {
+        SigningKey active = signingKeyRing.activeKey();
+        return signingKeyRing.keys().stream()
+                .map(key -> SigningKeyResponse.builder()
+                        .kid(key.kid())
+                        .algorithm(key.algorithm().name())
+                        .active(key == active)
+                        .verifyUntil(key.verifyUntil())
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,43 @@
+package com.baohoanhao.demo.controller;
+
+import com.baohoanhao.demo.service.UserExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Admin Controller - Quản trị users
+ *
+ * REST API Endpoints:
+ * - GET /api/admin/users/export - Export toàn bộ users dạng NDJSON (stream)
+ */
+@RestController
+@RequestMapping("/api/admin/users")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Admin", description = "Quản trị người dùng")
+public class AdminUserController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final UserExportService userExportService;
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    @Operation(summary = "Export toàn bộ users (NDJSON, keyset pagination)")
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\"");
+
+        // Ghi thẳng ra output stream, không build list trong bộ nhớ
+        userExportService.exportTo(response.getOutputStream());
+    }
+}
@@ -5,14 +5,16 @@ import com.baohoanhao.demo.dto.request.RefreshTokenRequest;
 import com.baohoanhao.demo.dto.request.RegisterRequest;
 import com.baohoanhao.demo.dto.response.ApiResponse;
 import com.baohoanhao.demo.dto.response.AuthResponse;
+import com.baohoanhao.demo.dto.response.PreEncodedApiResponse;
 import com.baohoanhao.demo.exception.UnauthorizedException;
+import com.baohoanhao.demo.security.AuthenticatedUser;
 import com.baohoanhao.demo.service.AuthService;
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -29,6 +31,12 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class AuthController {
 
+    // Response cố định: encode JSON một lần
+    private static final PreEncodedApiResponse.Template LOGOUT_SUCCESS =
+            ApiResponse.preEncoded(true, "Đăng xuất thành công");
+    private static final PreEncodedApiResponse.Template LOGOUT_ALL_SUCCESS =
+            ApiResponse.preEncoded(true, "Đã đăng xuất khỏi tất cả thiết bị");
+
     private final AuthService authService;
 
     /**
@@ -86,24 +94,16 @@ public class AuthController {
      */
     @PostMapping("/logout")
     public ResponseEntity<ApiResponse<Void>> logout(
-            HttpServletRequest request,
+            @AuthenticationPrincipal AuthenticatedUser user,
             Authentication authentication) {
-        
-        // Lấy token từ header
-        String authHeader = request.getHeader("Authorization");
-        String accessToken = null;
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            accessToken = authHeader.substring(7);
-        }
-
-        // Lấy userId từ authentication (được set bởi JwtAuthenticationFilter)
-        String userId = authentication != null ? authentication.getName() : null;
 
-        if (userId != null) {
-            authService.logout(accessToken, userId);
+        // Principal + access token được JwtAuthenticationFilter set sẵn, không đọc lại header
+        if (user != null) {
+            String accessToken = authentication.getCredentials() instanceof String token ? token : null;
+            authService.logout(user, accessToken);
         }
 
-        return ResponseEntity.ok(ApiResponse.success("Đăng xuất thành công"));
+        return ResponseEntity.ok(LOGOUT_SUCCESS.response());
     }
 
     /**
@@ -113,11 +113,10 @@ public class AuthController {
      * Header: Authorization: Bearer {accessToken}
      */
     @PostMapping("/logout-all")
-    public ResponseEntity<ApiResponse<Void>> logoutAll(Authentication authentication) {
-        String userId = authentication.getName();
-        authService.logoutAll(userId);
+    public ResponseEntity<ApiResponse<Void>> logoutAll(@AuthenticationPrincipal AuthenticatedUser user) {
+        authService.logoutAll(user.id());
         
-        return ResponseEntity.ok(ApiResponse.success("Đã đăng xuất khỏi tất cả thiết bị"));
+        return ResponseEntity.ok(LOGOUT_ALL_SUCCESS.response());
     }
 
     /**
@@ -127,13 +126,12 @@ public class AuthController {
      */
     @GetMapping("/me")
     public ResponseEntity<ApiResponse<Object>> getCurrentUser(Authentication authentication) {
-        if (authentication == null) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
             throw new UnauthorizedException("Vui lòng đăng nhập để thực hiện thao tác này");
         }
-        String userId = authentication.getName();
         return ResponseEntity.ok(ApiResponse.success(
             "User info",
-            authService.getCurrentUserProfile(userId, authentication.getAuthorities())
+            authService.getCurrentUserProfile(user.id(), authentication.getAuthorities())
         ));
     }
 }
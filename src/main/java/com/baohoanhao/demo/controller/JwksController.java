@@ -0,0 +1,38 @@
+package com.baohoanhao.demo.controller;
+
+import com.baohoanhao.demo.security.SigningKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JWKS Controller - Công bố public key để service khác verify access token offline
+ *
+ * REST API Endpoints:
+ * - GET /.well-known/jwks.json - JSON Web Key Set (RFC 7517), không bọc ApiResponse
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final SigningKeyRing signingKeyRing;
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = "application/jwk-set+json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        List<Map<String, Object>> keys = signingKeyRing.publicJwks().stream()
+                .<Map<String, Object>>map(LinkedHashMap::new)
+                .toList();
+
+        // Cache ngắn để downstream thấy key mới sau rotation
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(Map.of("keys", keys));
+    }
+}
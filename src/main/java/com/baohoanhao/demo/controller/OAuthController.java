@@ -24,6 +24,7 @@ import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * OAuth2 callback controller (stateless, trả JWT nội bộ).
@@ -40,16 +41,23 @@ public class OAuthController {
     @Value("${app.frontend-url}")
     private String frontendUrl;
 
+    /**
+     * Callback xử lý bất đồng bộ: Tomcat thread được trả về ngay, pipeline chạy trên virtual thread
+     */
     @GetMapping("/callback/{provider}")
-    public ResponseEntity<ApiResponse<AuthResponse>> handleCallback(
+    public CompletableFuture<ResponseEntity<ApiResponse<AuthResponse>>> handleCallback(
             @PathVariable String provider,
             @RequestParam String code,
             @RequestParam(required = false) String state,
             HttpServletRequest request
     ) {
+        // Đọc request trên Tomcat thread, trước khi chuyển sang async
         String redirectUri = request.getRequestURL().toString();
-        AuthResponse authResponse = oauth2LoginService.handleCallback(provider, code, redirectUri);
+        return oauth2LoginService.handleCallbackAsync(provider, code, redirectUri)
+                .thenApply(authResponse -> redirectToFrontend(authResponse, state));
+    }
 
+    private ResponseEntity<ApiResponse<AuthResponse>> redirectToFrontend(AuthResponse authResponse, String state) {
         // Build redirect to FE with tokens and basic user info
         UriComponentsBuilder targetBuilder = resolveRedirectUrl(state)
                 .map(UriComponentsBuilder::fromUriString)
@@ -4,13 +4,14 @@ import com.baohoanhao.demo.dto.request.DeleteAccountRequest;
 import com.baohoanhao.demo.dto.request.UpdateProfileRequest;
 import com.baohoanhao.demo.dto.response.ApiResponse;
 import com.baohoanhao.demo.dto.response.UserProfileResponse;
+import com.baohoanhao.demo.security.AuthenticatedUser;
 import com.baohoanhao.demo.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -25,10 +26,9 @@ public class UserController {
     @Operation(summary = "Cập nhật thông tin cá nhân")
     public ResponseEntity<ApiResponse<UserProfileResponse>> updateProfile(
             @Valid @RequestBody UpdateProfileRequest request,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
 
-        String userId = authentication.getName();
-        UserProfileResponse response = userService.updateProfile(userId, request);
+        UserProfileResponse response = userService.updateProfile(user.id(), request);
 
         return ResponseEntity.ok(ApiResponse.success("Cập nhật thông tin thành công", response));
     }
@@ -37,10 +37,9 @@ public class UserController {
     @Operation(summary = "Xóa tài khoản")
     public ResponseEntity<ApiResponse<Void>> deleteAccount(
             @Valid @RequestBody DeleteAccountRequest request,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
 
-        String userId = authentication.getName();
-        userService.deleteAccount(userId, request);
+        userService.deleteAccount(user.id(), request);
 
         return ResponseEntity.ok(ApiResponse.success("Tài khoản đã được xóa thành công", null));
     }
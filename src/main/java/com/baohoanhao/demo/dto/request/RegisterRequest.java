@@ -20,6 +20,6 @@ public class RegisterRequest {
     // @Pattern(regexp = "(84|0[3|5|7|8|9])+([0-9]{8})", message = "Số điện thoại không hợp lệ")
     private String phone;
 
-    @StrongPassword // Sử dụng Annotation xịn sò vừa viết
+    @StrongPassword // Chính sách cấu hình qua app.password
     private String password;
 }
\ No newline at end of file
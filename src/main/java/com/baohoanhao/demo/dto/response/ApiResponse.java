@@ -1,6 +1,8 @@
 package com.baohoanhao.demo.dto.response;
 
+import com.baohoanhao.demo.util.CoarseClock;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -27,8 +29,10 @@ public class ApiResponse<T> {
     private String message;
     private T data;
     
+    // Độ phân giải millisecond, chuỗi ISO cache theo CoarseClock
     @Builder.Default
-    private LocalDateTime timestamp = LocalDateTime.now();
+    @JsonSerialize(using = CoarseClock.TimestampSerializer.class)
+    private LocalDateTime timestamp = CoarseClock.now();
     
     private String path;
     private Object errors;
@@ -58,6 +62,13 @@ public class ApiResponse<T> {
                 .build();
     }
 
+    /**
+     * Response chỉ có success + message cố định: JSON trước timestamp được encode một lần (xem PreEncodedApiResponse)
+     */
+    public static PreEncodedApiResponse.Template preEncoded(boolean success, String message) {
+        return new PreEncodedApiResponse.Template(success, message);
+    }
+
     public static <T> ApiResponse<T> error(String message) {
         return ApiResponse.<T>builder()
                 .success(false)
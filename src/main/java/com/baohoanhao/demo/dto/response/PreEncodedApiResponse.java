@@ -0,0 +1,81 @@
+package com.baohoanhao.demo.dto.response;
+
+import com.baohoanhao.demo.util.CoarseClock;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * ApiResponse cho message cố định (đăng xuất, ...)
+ *
+ * Template giữ sẵn bytes UTF-8 của {"success":..,"message":"..","timestamp":" (encode + escape một lần);
+ * mỗi response chỉ ghi thêm chuỗi timestamp đã cache theo CoarseClock.
+ * Jackson ưu tiên JsonSerializable hơn bean serializer; nếu response bị sửa sau khi tạo
+ * (data, path, errors, ...) thì quay lại serializer thường của ApiResponse.
+ */
+public final class PreEncodedApiResponse<T> extends ApiResponse<T> implements JsonSerializable {
+
+    private final transient Template template;
+
+    private PreEncodedApiResponse(Template template) {
+        super(template.success, template.message, null, CoarseClock.now(), null, null);
+        this.template = template;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (!matchesTemplate()) {
+            provider.findValueSerializer(ApiResponse.class).serialize(this, gen, provider);
+            return;
+        }
+        gen.writeRawValue(template.prefix);
+        gen.writeRaw(CoarseClock.format(getTimestamp()));
+        gen.writeRaw("\"}");
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider provider, TypeSerializer typeSer)
+            throws IOException {
+        provider.findValueSerializer(ApiResponse.class).serializeWithType(this, gen, provider, typeSer);
+    }
+
+    private boolean matchesTemplate() {
+        return isSuccess() == template.success
+                && Objects.equals(getMessage(), template.message)
+                && getData() == null
+                && getTimestamp() != null
+                && getPath() == null
+                && getErrors() == null;
+    }
+
+    /**
+     * Tạo một lần (static final), mỗi request gọi response()
+     */
+    public static final class Template {
+
+        private final boolean success;
+        private final String message;
+        private final SerializedString prefix;
+
+        Template(boolean success, String message) {
+            this.success = success;
+            this.message = Objects.requireNonNull(message, "message");
+            StringBuilder json = new StringBuilder(64 + message.length())
+                    .append("{\"success\":").append(success)
+                    .append(",\"message\":\"");
+            // Escape theo JSON một lần, SerializedString cache bytes UTF-8
+            json.append(new SerializedString(message).asQuotedChars());
+            json.append("\",\"timestamp\":\"");
+            this.prefix = new SerializedString(json.toString());
+        }
+
+        public <T> ApiResponse<T> response() {
+            return new PreEncodedApiResponse<>(this);
+        }
+    }
+}
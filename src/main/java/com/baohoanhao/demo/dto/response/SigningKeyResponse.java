@@ -0,0 +1,15 @@
+package com.baohoanhao.demo.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class SigningKeyResponse {
+    private String kid;
+    private String algorithm;
+    private boolean active;
+    private Instant verifyUntil;
+}
@@ -3,8 +3,11 @@ package com.baohoanhao.demo.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.UuidGenerator;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -15,6 +18,11 @@ import java.util.UUID;
         @Index(name = "idx_user_email", columnList = "email"),
         @Index(name = "idx_user_phone", columnList = "phone")
 })
+// Second-level cache (chỉ có hiệu lực khi bật hibernate.cache.use_second_level_cache).
+// READ_WRITE: update/deactivate qua Hibernate sẽ lock + cập nhật entry sau commit
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
+// UPDATE chỉ gồm các cột thay đổi (+ updated_at), không ghi lại password_hash / email / phone khi chỉ đổi tên
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -22,6 +30,9 @@ import java.util.UUID;
 @Builder
 public class User {
 
+    public static final String CACHE_REGION = "users";
+    public static final String CONTACT_QUERY_CACHE_REGION = "users-by-contact";
+
     @Id
     @UuidGenerator
     @Column(updatable = false, nullable = false)
@@ -49,6 +60,7 @@ public class User {
 
     // Auditing (Senior luôn cần biết bản ghi được tạo lúc nào)
     @CreationTimestamp
+    @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @UpdateTimestamp
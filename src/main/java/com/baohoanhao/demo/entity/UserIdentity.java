@@ -0,0 +1,55 @@
+package com.baohoanhao.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Tài khoản OAuth đã liên kết với User (xem V4__Create_User_Identities_Table.sql)
+ */
+@Entity
+@Table(name = "user_identities",
+        uniqueConstraints = @UniqueConstraint(name = "uk_user_identities_provider_subject",
+                columnNames = {"provider", "provider_user_id"}),
+        indexes = @Index(name = "idx_user_identities_user_id", columnList = "user_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserIdentity {
+
+    @Id
+    @UuidGenerator
+    @Column(updatable = false, nullable = false)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false, updatable = false)
+    private User user;
+
+    @Column(nullable = false, updatable = false, length = 50)
+    private String provider;
+
+    @Column(name = "provider_user_id", nullable = false, updatable = false)
+    private String providerUserId;
+
+    private String email;
+
+    @Column(length = 100)
+    private String displayName;
+
+    @Column(length = 1024)
+    private String pictureUrl;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
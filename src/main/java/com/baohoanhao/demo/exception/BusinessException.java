@@ -1,18 +1,33 @@
 package com.baohoanhao.demo.exception;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 
 /**
  * Base Business Exception
  * Tất cả custom exception kế thừa từ đây
+ *
+ * Lỗi nghiệp vụ dự kiến (sai mật khẩu, refresh token hết hạn, trùng email...) được GlobalExceptionHandler
+ * map thẳng sang response, stack trace không dùng tới. Mặc định không chụp stack trace (fillInStackTrace
+ * tốn CPU theo độ sâu call stack, đáng kể khi bị credential stuffing); bật lại bằng
+ * app.exceptions.business-stack-trace hoặc khi logger GlobalExceptionHandler ở mức DEBUG.
  */
 public abstract class BusinessException extends RuntimeException {
-    
+
+    private static final Logger HANDLER_LOG = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    private static volatile boolean stackTraceEnabled = true;
+
     private final HttpStatus status;
     private final String errorCode;
 
     protected BusinessException(String message, HttpStatus status, String errorCode) {
-        super(message);
+        this(message, status, errorCode, captureStackTrace());
+    }
+
+    private BusinessException(String message, HttpStatus status, String errorCode, boolean captureStackTrace) {
+        super(message, null, captureStackTrace, captureStackTrace);
         this.status = status;
         this.errorCode = errorCode;
     }
@@ -24,4 +39,15 @@ public abstract class BusinessException extends RuntimeException {
     public String getErrorCode() {
         return errorCode;
     }
+
+    /**
+     * Được set lúc khởi động từ app.exceptions.business-stack-trace (xem ExceptionConfig)
+     */
+    public static void setStackTraceEnabled(boolean enabled) {
+        stackTraceEnabled = enabled;
+    }
+
+    static boolean captureStackTrace() {
+        return stackTraceEnabled || HANDLER_LOG.isDebugEnabled();
+    }
 }
@@ -30,6 +30,8 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ApiResponse<Void>> handleBusinessException(
             BusinessException ex, HttpServletRequest request) {
         log.warn("Business exception: {} - Path: {}", ex.getMessage(), request.getRequestURI());
+        // Stack trace chỉ có khi bật app.exceptions.business-stack-trace hoặc logger này ở DEBUG
+        log.debug("Business exception stack trace", ex);
         
         ApiResponse<Void> response = ApiResponse.<Void>builder()
                 .success(false)
@@ -0,0 +1,13 @@
+package com.baohoanhao.demo.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Service Unavailable Exception (503) - Dùng khi hệ thống quá tải, client nên thử lại sau
+ */
+public class ServiceUnavailableException extends BusinessException {
+
+    public ServiceUnavailableException(String message) {
+        super(message, HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_UNAVAILABLE");
+    }
+}
@@ -1,17 +0,0 @@
-
-package com.baohoanhao.demo.exception;
-
-import com.baohoanhao.demo.validation.StrongPasswordValidator;
-import jakarta.validation.Constraint;
-import jakarta.validation.Payload;
-import java.lang.annotation.*;
-
-@Documented
-@Constraint(validatedBy = StrongPasswordValidator.class)
-@Target({ElementType.FIELD, ElementType.METHOD})
-@Retention(RetentionPolicy.RUNTIME)
-public @interface StrongPassword {
-    String message() default "Mật khẩu phải có ít nhất 8 ký tự, bao gồm chữ hoa, chữ thường, số và ký tự đặc biệt (!@#$%^&*)";
-    Class<?>[] groups() default {};
-    Class<? extends Payload>[] payload() default {};
-}
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.baohoanhao.demo.jfr;
+
+import jdk.jfr.ValueDescriptor;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Tóm tắt file .jfr thành latency percentile theo phase cho các event com.baohoanhao.demo.*
+ *
+ * Phase = label của event + các field String (token type, provider, phase, outcome).
+ * Input là một file .jfr (JFR.dump) hoặc thư mục repository của recording liên tục (mọi chunk *.jfr
+ * bên trong, chunk đang ghi dở bị bỏ qua).
+ *
+ * Chạy: java -cp app.jar -Dloader.main=com.baohoanhao.demo.jfr.AuthJfrReport
+ *       org.springframework.boot.loader.launch.PropertiesLauncher {recording.jfr|repository-directory}
+ */
+public final class AuthJfrReport {
+
+    static final String EVENT_PREFIX = "com.baohoanhao.demo.";
+
+    private AuthJfrReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: AuthJfrReport <recording.jfr|repository-directory>");
+            System.exit(2);
+        }
+        List<PhaseStats> stats = summarize(Path.of(args[0]));
+        if (stats.isEmpty()) {
+            System.out.println("No " + EVENT_PREFIX + "* events in " + args[0]);
+            return;
+        }
+        System.out.printf("%-55s %8s %10s %10s %10s %10s%n", "phase", "count", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (PhaseStats s : stats) {
+            System.out.printf("%-55s %8d %10.3f %10.3f %10.3f %10.3f%n", s.phase(), s.count(),
+                    millis(s.p50()), millis(s.p90()), millis(s.p99()), millis(s.max()));
+        }
+    }
+
+    /**
+     * @param input file .jfr hoặc thư mục chứa các chunk .jfr
+     * @return một dòng cho mỗi phase, sort theo tên phase
+     */
+    public static List<PhaseStats> summarize(Path input) throws IOException {
+        Map<String, LongList> durations = new TreeMap<>();
+        if (Files.isDirectory(input)) {
+            List<Path> chunks;
+            try (Stream<Path> files = Files.walk(input)) {
+                chunks = files.filter(path -> path.getFileName().toString().endsWith(".jfr")).sorted().toList();
+            }
+            for (Path chunk : chunks) {
+                try {
+                    read(chunk, durations);
+                } catch (IOException e) {
+                    System.err.println("Skipping " + chunk + ": " + e.getMessage());
+                }
+            }
+        } else {
+            read(input, durations);
+        }
+        List<PhaseStats> stats = new ArrayList<>(durations.size());
+        durations.forEach((phase, list) -> stats.add(PhaseStats.of(phase, list.sorted())));
+        return stats;
+    }
+
+    private static void read(Path recording, Map<String, LongList> durations) throws IOException {
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                if (event.getEventType().getName().startsWith(EVENT_PREFIX)) {
+                    durations.computeIfAbsent(phase(event), k -> new LongList()).add(event.getDuration().toNanos());
+                }
+            }
+        }
+    }
+
+    private static String phase(RecordedEvent event) {
+        StringJoiner phase = new StringJoiner(" / ", event.getEventType().getLabel() + " ", "");
+        for (ValueDescriptor field : event.getEventType().getFields()) {
+            if (String.class.getName().equals(field.getTypeName()) && event.getValue(field.getName()) != null) {
+                phase.add(event.getString(field.getName()));
+            }
+        }
+        return phase.toString();
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1_000_000.0;
+    }
+
+    public record PhaseStats(String phase, long count, Duration p50, Duration p90, Duration p99, Duration max) {
+
+        static PhaseStats of(String phase, long[] sortedNanos) {
+            return new PhaseStats(phase, sortedNanos.length,
+                    percentile(sortedNanos, 0.50), percentile(sortedNanos, 0.90), percentile(sortedNanos, 0.99),
+                    Duration.ofNanos(sortedNanos[sortedNanos.length - 1]));
+        }
+
+        /**
+         * Nearest-rank percentile
+         */
+        private static Duration percentile(long[] sortedNanos, double p) {
+            int rank = (int) Math.ceil(p * sortedNanos.length);
+            return Duration.ofNanos(sortedNanos[Math.max(0, rank - 1)]);
+        }
+    }
+
+    /**
+     * long[] tự giãn: recording vài giờ có thể chứa hàng triệu event, tránh boxing
+     */
+    private static final class LongList {
+
+        private long[] values = new long[64];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
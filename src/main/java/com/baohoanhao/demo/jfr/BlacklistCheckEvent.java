@@ -0,0 +1,31 @@
+package com.baohoanhao.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event: kiểm tra blacklist access token trên Redis (TokenStorageService)
+ * outcome: hit / miss / error
+ */
+@Name("com.baohoanhao.demo.BlacklistCheck")
+@Label("Token Blacklist Check")
+@Category({"Demo", "Authentication"})
+@Description("Redis EXISTS blacklist:{token} trong JwtAuthenticationFilter")
+@StackTrace(false)
+public final class BlacklistCheckEvent extends Event {
+
+    @Label("Outcome")
+    String outcome;
+
+    public void finish(String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
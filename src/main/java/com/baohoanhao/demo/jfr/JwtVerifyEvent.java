@@ -0,0 +1,38 @@
+package com.baohoanhao.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event: verify chữ ký + claims của JWT (JwtService)
+ * outcome: valid / expired / wrong_type / invalid (khớp tag outcome của metric auth.jwt)
+ */
+@Name("com.baohoanhao.demo.JwtVerify")
+@Label("JWT Verify")
+@Category({"Demo", "Authentication"})
+@Description("Verify access / refresh token")
+@StackTrace(false)
+public final class JwtVerifyEvent extends Event {
+
+    @Label("Token Type")
+    String tokenType;
+
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * Kết thúc event; chỉ gán field và commit khi event đang được ghi
+     */
+    public void finish(String tokenType, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.tokenType = tokenType;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
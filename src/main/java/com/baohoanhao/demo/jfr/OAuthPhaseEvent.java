@@ -0,0 +1,57 @@
+package com.baohoanhao.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.function.Supplier;
+
+/**
+ * JFR event: một phase của OAuth callback (Oauth2LoginService.handleCallback)
+ * phase: token_exchange / profile / upsert / issue_tokens, outcome: success / failure
+ */
+@Name("com.baohoanhao.demo.OAuthPhase")
+@Label("OAuth Callback Phase")
+@Category({"Demo", "Authentication"})
+@Description("Từng bước xử lý OAuth2 callback")
+@StackTrace(false)
+public final class OAuthPhaseEvent extends Event {
+
+    @Label("Provider")
+    String provider;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * Chạy step trong một event, outcome failure nếu step ném exception
+     */
+    public static <T> T record(String provider, String phase, Supplier<T> step) {
+        OAuthPhaseEvent event = new OAuthPhaseEvent();
+        event.begin();
+        try {
+            T result = step.get();
+            event.finish(provider, phase, "success");
+            return result;
+        } catch (RuntimeException e) {
+            event.finish(provider, phase, "failure");
+            throw e;
+        }
+    }
+
+    private void finish(String provider, String phase, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.provider = provider;
+            this.phase = phase;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
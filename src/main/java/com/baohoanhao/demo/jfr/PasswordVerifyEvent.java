@@ -0,0 +1,31 @@
+package com.baohoanhao.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event: verify mật khẩu (bcrypt) trong AuthService.login
+ * outcome: match / mismatch
+ */
+@Name("com.baohoanhao.demo.PasswordVerify")
+@Label("Password Verify")
+@Category({"Demo", "Authentication"})
+@Description("bcrypt matches khi đăng nhập")
+@StackTrace(false)
+public final class PasswordVerifyEvent extends Event {
+
+    @Label("Outcome")
+    String outcome;
+
+    public void finish(boolean matches) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = matches ? "match" : "mismatch";
+            commit();
+        }
+    }
+}
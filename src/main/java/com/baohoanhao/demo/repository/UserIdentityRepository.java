@@ -0,0 +1,28 @@
+package com.baohoanhao.demo.repository;
+
+import com.baohoanhao.demo.entity.UserIdentity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface UserIdentityRepository extends JpaRepository<UserIdentity, UUID> {
+
+    // Một query: probe unique index (provider, provider_user_id) + join users theo PK
+    @Query("SELECT i FROM UserIdentity i JOIN FETCH i.user " +
+           "WHERE i.provider = :provider AND i.providerUserId = :providerUserId")
+    Optional<UserIdentity> findWithUser(@Param("provider") String provider,
+                                        @Param("providerUserId") String providerUserId);
+
+    // Ghi trực tiếp các cột profile, không cần load + merge entity (updated_at do MySQL ON UPDATE cập nhật)
+    @Transactional
+    @Modifying
+    @Query("UPDATE UserIdentity i SET i.email = :email, i.displayName = :displayName, " +
+           "i.pictureUrl = :pictureUrl WHERE i.id = :id")
+    int updateProfile(@Param("id") UUID id, @Param("email") String email,
+                      @Param("displayName") String displayName, @Param("pictureUrl") String pictureUrl);
+}
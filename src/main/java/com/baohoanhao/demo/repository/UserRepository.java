@@ -1,22 +1,53 @@
 package com.baohoanhao.demo.repository;
 
 import com.baohoanhao.demo.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Các lookup theo email/phone dùng query cache (region users-by-contact): cache lưu id,
+ * entity lấy từ region users. Mọi thay đổi trên bảng users làm query cache hết hạn.
+ */
 public interface UserRepository extends JpaRepository<User, UUID> {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = User.CONTACT_QUERY_CACHE_REGION)
+    })
     Optional<User> findByEmail(String email);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = User.CONTACT_QUERY_CACHE_REGION)
+    })
     Optional<User> findByPhone(String phone);
 
-    // Kiểm tra trùng lặp cực nhanh
-    boolean existsByEmail(String email);
-    boolean existsByPhone(String phone);
+    // Kiểm tra trùng lặp email/phone trong 1 round trip (tham số null không match dòng nào)
+    @Query("SELECT u.id AS id, u.email AS email, u.phone AS phone FROM User u " +
+           "WHERE u.email = :email OR u.phone = :phone")
+    List<ContactView> findContactConflicts(@Param("email") String email, @Param("phone") String phone);
 
     // Tìm kiếm dynamic cho chức năng đăng nhập
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = User.CONTACT_QUERY_CACHE_REGION)
+    })
     @Query("SELECT u FROM User u WHERE u.email = :identifier OR u.phone = :identifier")
     Optional<User> findByIdentifier(@Param("identifier") String identifier);
-}
\ No newline at end of file
+
+    /**
+     * Projection chỉ gồm các cột unique, dùng cho pre-check trùng lặp
+     */
+    interface ContactView {
+        UUID getId();
+        String getEmail();
+        String getPhone();
+    }
+}
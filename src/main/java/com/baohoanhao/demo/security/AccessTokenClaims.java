@@ -0,0 +1,13 @@
+package com.baohoanhao.demo.security;
+
+import com.baohoanhao.demo.entity.Role;
+
+import java.util.UUID;
+
+/**
+ * Claims của access token sau khi đã verify chữ ký và hạn dùng
+ *
+ * @param email null với access token dạng COMPACT
+ */
+public record AccessTokenClaims(UUID userId, Role role, String email, long issuedAt, long expiresAt) {
+}
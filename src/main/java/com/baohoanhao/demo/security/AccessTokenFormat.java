@@ -0,0 +1,13 @@
+package com.baohoanhao.demo.security;
+
+/**
+ * Định dạng payload của access token
+ *
+ * - STANDARD: {"type":"access","email","role","sub": UUID 36 ký tự, "iat","exp"}
+ * - COMPACT:  header typ "at", payload {"sub": UUID base64url 22 ký tự, "r": mã role, "iat","exp"},
+ *             không chứa email - ngắn hơn ~30% và parse không cần thư viện JSON
+ */
+public enum AccessTokenFormat {
+    STANDARD,
+    COMPACT
+}
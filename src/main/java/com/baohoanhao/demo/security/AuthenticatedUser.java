@@ -0,0 +1,27 @@
+package com.baohoanhao.demo.security;
+
+import com.baohoanhao.demo.entity.Role;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+import java.util.UUID;
+
+/**
+ * Principal trong SecurityContext, dựng từ access token đã verify (xem JwtAuthenticationFilter)
+ *
+ * Controller nhận qua @AuthenticationPrincipal, không cần parse lại token hay query user.
+ * getName() trả về userId nên Authentication.getName() vẫn là userId như trước.
+ *
+ * @param email     null với access token dạng COMPACT
+ * @param expiresAt thời điểm hết hạn của access token (epoch millis)
+ */
+public record AuthenticatedUser(UUID id, String email, Role role, long expiresAt) implements AuthenticatedPrincipal {
+
+    public static AuthenticatedUser from(AccessTokenClaims claims) {
+        return new AuthenticatedUser(claims.userId(), claims.email(), claims.role(), claims.expiresAt());
+    }
+
+    @Override
+    public String getName() {
+        return id.toString();
+    }
+}
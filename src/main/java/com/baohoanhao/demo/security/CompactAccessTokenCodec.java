@@ -0,0 +1,60 @@
+package com.baohoanhao.demo.security;
+
+import com.baohoanhao.demo.entity.Role;
+import io.jsonwebtoken.MalformedJwtException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Định dạng access token COMPACT: header typ "at", subject UUID base64url, role dạng số
+ *
+ * Verify HS256 không qua JJWT nằm ở FastAccessTokenVerifier (một parser cho cả hai chế độ fast path);
+ * thuật toán khác JwtService verify bằng JJWT rồi đọc claims qua các hàm dưới đây.
+ */
+public final class CompactAccessTokenCodec {
+
+    public static final String TOKEN_TYPE = "at";
+    public static final String ROLE_CLAIM = "r";
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64URL_DECODER = Base64.getUrlDecoder();
+
+    private CompactAccessTokenCodec() {
+    }
+
+    /**
+     * UUID → 16 byte → base64url 22 ký tự
+     */
+    public static String encodeSubject(UUID userId) {
+        return BASE64URL.encodeToString(ByteBuffer.allocate(16)
+                .putLong(userId.getMostSignificantBits())
+                .putLong(userId.getLeastSignificantBits())
+                .array());
+    }
+
+    public static UUID decodeSubject(String subject) {
+        byte[] bytes = BASE64URL_DECODER.decode(subject);
+        if (bytes.length != 16) {
+            throw new MalformedJwtException("Subject không hợp lệ");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    public static int roleCode(Role role) {
+        return switch (role) {
+            case USER -> 1;
+            case ADMIN -> 2;
+        };
+    }
+
+    public static Role roleFromCode(int code) {
+        return switch (code) {
+            case 1 -> Role.USER;
+            case 2 -> Role.ADMIN;
+            default -> throw new MalformedJwtException("Role code không hợp lệ: " + code);
+        };
+    }
+}
@@ -10,12 +10,16 @@ import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Component
 public class CustomAuthenticationEntryPoint implements AuthenticationEntryPoint {
 
+    // Body cố định: encode một lần thay vì tạo ObjectMapper mỗi request
+    private static final byte[] BODY = encodeBody();
+
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response,
                          AuthenticationException authException) throws IOException, ServletException {
@@ -24,11 +28,19 @@ public class CustomAuthenticationEntryPoint implements AuthenticationEntryPoint
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
         response.setCharacterEncoding("UTF-8");
 
-        Map<String, Object> body = new HashMap<>();
+        response.setContentLength(BODY.length);
+        response.getOutputStream().write(BODY);
+    }
+
+    private static byte[] encodeBody() {
+        Map<String, Object> body = new LinkedHashMap<>();
         body.put("success", false);
         body.put("message", "Vui lòng đăng nhập để thực hiện thao tác này");
         body.put("code", "UNAUTHORIZED");
-
-        new ObjectMapper().writeValue(response.getOutputStream(), body);
+        try {
+            return new ObjectMapper().writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -0,0 +1,493 @@
+package com.baohoanhao.demo.security;
+
+import com.baohoanhao.demo.entity.Role;
+import com.baohoanhao.demo.util.ScratchPool;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Verify access token HS256 trên hot path của JwtAuthenticationFilter
+ * - Luôn xử lý token COMPACT (header typ "at")
+ * - Token STANDARD chỉ khi bật jwt.fast-path-enabled, không thì trả về null để JJWT verify
+ *
+ * Không qua JJWT / Jackson và gần như không cấp phát:
+ * - Mac HmacSHA256 + buffer byte lấy từ ScratchPool, chỉ init lại khi key đổi (rotate); không dùng ThreadLocal
+ *   vì với virtual thread mỗi request là thread mới, scratch sẽ bị tạo lại cho mọi request
+ * - base64url decode bằng bảng tra vào buffer dùng lại, không substring
+ * - JSON phẳng được quét theo vị trí byte, UUID / role / exp đọc thẳng từ byte
+ * - kid so sánh byte với kid lần trước, không tạo String mới khi kid không đổi
+ *
+ * Chỉ cấp phát UUID, AccessTokenClaims và email (STANDARD). Token không nhận ra được
+ * (thuật toán khác, header lạ, JSON có escape...) trả về null để JwtService verify bằng JJWT.
+ */
+final class FastAccessTokenVerifier {
+
+    private static final int SIGNATURE_LENGTH = 32;
+    private static final Role[] ROLES = Role.values();
+    private static final byte[] BASE64URL = new byte[128];
+
+    static {
+        Arrays.fill(BASE64URL, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64URL[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final SigningKeyRing signingKeyRing;
+    private final boolean standardTokens;
+    private final ScratchPool<Scratch> scratch = new ScratchPool<>(Scratch::new);
+
+    FastAccessTokenVerifier(SigningKeyRing signingKeyRing, boolean standardTokens) {
+        this.signingKeyRing = signingKeyRing;
+        this.standardTokens = standardTokens;
+    }
+
+    /**
+     * @return null nếu token không đi được fast path (để JJWT xử lý)
+     * @throws io.jsonwebtoken.JwtException token HS256 nhưng sai chữ ký, hết hạn hoặc sai định dạng
+     */
+    AccessTokenClaims verify(String token, long nowMillis) {
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0) {
+            return null;
+        }
+
+        Scratch s = scratch.acquire();
+        try {
+            return verify(token, firstDot, secondDot, nowMillis, s);
+        } finally {
+            scratch.release(s);
+        }
+    }
+
+    private AccessTokenClaims verify(String token, int firstDot, int secondDot, long nowMillis, Scratch s) {
+        // Header
+        int length = decode(token, 0, firstDot, s.json(firstDot));
+        if (!s.fields.parse(s.json, length) || !s.fields.isHs256Header(s.json)) {
+            return null;
+        }
+        boolean compact = s.fields.isCompactHeader(s.json);
+        if (!compact && !standardTokens) {
+            return null;
+        }
+        Key key = signingKeyRing.verificationKey(s.kid(s.fields));
+        if (!(key instanceof SecretKey)) {
+            throw new SignatureException("Signing key không phải HS256");
+        }
+
+        // Chữ ký
+        s.verifySignature(token, secondDot, key);
+
+        // Payload
+        length = decode(token, firstDot + 1, secondDot, s.json(secondDot - firstDot - 1));
+        if (!s.fields.parse(s.json, length)) {
+            return null;
+        }
+        JsonFields p = s.fields;
+        if (p.iat < 0 || p.exp < 0) {
+            throw new MalformedJwtException("Payload access token không hợp lệ");
+        }
+        if (p.exp * 1000 <= nowMillis) {
+            throw new ExpiredJwtException(null, null, "Access token đã hết hạn");
+        }
+        return compact ? compactClaims(s.json, p) : standardClaims(s.json, p);
+    }
+
+    private static AccessTokenClaims compactClaims(byte[] json, JsonFields p) {
+        if (p.subStart < 0 || p.role < 0) {
+            throw new MalformedJwtException("Payload access token không hợp lệ");
+        }
+        return new AccessTokenClaims(compactSubject(json, p.subStart, p.subEnd),
+                CompactAccessTokenCodec.roleFromCode((int) p.role), null, p.iat * 1000, p.exp * 1000);
+    }
+
+    private static AccessTokenClaims standardClaims(byte[] json, JsonFields p) {
+        if (p.typeStart < 0 || !equalsAscii(json, p.typeStart, p.typeEnd, "access")) {
+            throw new JwtService.WrongTokenTypeException("Không phải access token");
+        }
+        if (p.subStart < 0 || p.roleNameStart < 0) {
+            throw new MalformedJwtException("Payload access token không hợp lệ");
+        }
+        String email = p.emailStart >= 0 && p.emailEnd > p.emailStart
+                ? new String(json, p.emailStart, p.emailEnd - p.emailStart, StandardCharsets.UTF_8)
+                : null;
+        return new AccessTokenClaims(uuid(json, p.subStart, p.subEnd), role(json, p.roleNameStart, p.roleNameEnd),
+                email, p.iat * 1000, p.exp * 1000);
+    }
+
+    /**
+     * Subject COMPACT: 22 ký tự base64url = 16 byte UUID
+     */
+    private static UUID compactSubject(byte[] json, int start, int end) {
+        if (end - start != 22) {
+            throw new MalformedJwtException("Subject không hợp lệ");
+        }
+        long msb = 0;
+        long lsb = 0;
+        int bits = 0;
+        long acc = 0;
+        int produced = 0;
+        for (int i = start; i < end; i++) {
+            int v = json[i] >= 0 ? BASE64URL[json[i]] : -1;
+            if (v < 0) {
+                throw new MalformedJwtException("Subject không hợp lệ");
+            }
+            acc = (acc << 6) | v;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                long b = (acc >>> bits) & 0xFF;
+                if (produced < 8) {
+                    msb = (msb << 8) | b;
+                } else {
+                    lsb = (lsb << 8) | b;
+                }
+                produced++;
+            }
+        }
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * UUID dạng chuẩn 8-4-4-4-12
+     */
+    private static UUID uuid(byte[] json, int start, int end) {
+        if (end - start != 36) {
+            throw new MalformedJwtException("Subject không hợp lệ");
+        }
+        long msb = 0;
+        long lsb = 0;
+        int nibbles = 0;
+        for (int i = start; i < end; i++) {
+            int offset = i - start;
+            if (offset == 8 || offset == 13 || offset == 18 || offset == 23) {
+                if (json[i] != '-') {
+                    throw new MalformedJwtException("Subject không hợp lệ");
+                }
+                continue;
+            }
+            int v = Character.digit(json[i], 16);
+            if (v < 0) {
+                throw new MalformedJwtException("Subject không hợp lệ");
+            }
+            if (nibbles++ < 16) {
+                msb = (msb << 4) | v;
+            } else {
+                lsb = (lsb << 4) | v;
+            }
+        }
+        return new UUID(msb, lsb);
+    }
+
+    private static Role role(byte[] json, int start, int end) {
+        for (Role role : ROLES) {
+            if (equalsAscii(json, start, end, role.name())) {
+                return role;
+            }
+        }
+        throw new MalformedJwtException("Role không hợp lệ");
+    }
+
+    /**
+     * base64url không padding → dst, chỉ nhận dạng encode chuẩn
+     *
+     * @return số byte đã ghi
+     */
+    private static int decode(String token, int from, int to, byte[] dst) {
+        int length = to - from;
+        if (length % 4 == 1) {
+            throw new MalformedJwtException("Base64url không hợp lệ");
+        }
+        int out = 0;
+        int acc = 0;
+        int bits = 0;
+        for (int i = from; i < to; i++) {
+            char c = token.charAt(i);
+            int v = c < 128 ? BASE64URL[c] : -1;
+            if (v < 0) {
+                throw new MalformedJwtException("Base64url không hợp lệ");
+            }
+            acc = (acc << 6) | v;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                dst[out++] = (byte) (acc >>> bits);
+            }
+        }
+        // Bit thừa của ký tự cuối phải bằng 0: mỗi chuỗi byte chỉ có một cách encode,
+        // không thì đổi ký tự cuối của chữ ký vẫn ra token "khác" mà verify được
+        if ((acc & ((1 << bits) - 1)) != 0) {
+            throw new MalformedJwtException("Base64url không hợp lệ");
+        }
+        return out;
+    }
+
+    private static boolean equalsAscii(byte[] json, int start, int end, String value) {
+        if (end - start != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (json[start + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Trạng thái dùng lại giữa các request, mỗi lúc chỉ một thread giữ
+     */
+    private static final class Scratch {
+
+        private final Mac mac;
+        private Key macKey;
+        private final byte[] expected = new byte[SIGNATURE_LENGTH];
+        private final byte[] actual = new byte[SIGNATURE_LENGTH + 2];
+        private byte[] signingInput = new byte[512];
+        private byte[] json = new byte[512];
+        private String kid;
+        private final JsonFields fields = new JsonFields();
+
+        private Scratch() {
+            try {
+                mac = Mac.getInstance("HmacSHA256");
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 không khả dụng", e);
+            }
+        }
+
+        private byte[] json(int base64Length) {
+            int needed = base64Length * 3 / 4 + 3;
+            if (json.length < needed) {
+                json = new byte[needed];
+            }
+            return json;
+        }
+
+        /**
+         * kid trong header; dùng lại String của lần trước nếu trùng byte
+         */
+        private String kid(JsonFields header) {
+            if (header.kidStart < 0) {
+                return null;
+            }
+            if (kid == null || !equalsAscii(json, header.kidStart, header.kidEnd, kid)) {
+                kid = new String(json, header.kidStart, header.kidEnd - header.kidStart, StandardCharsets.UTF_8);
+            }
+            return kid;
+        }
+
+        private void verifySignature(String token, int secondDot, Key key) {
+            if (signingInput.length < secondDot) {
+                signingInput = new byte[secondDot];
+            }
+            for (int i = 0; i < secondDot; i++) {
+                signingInput[i] = (byte) token.charAt(i);
+            }
+            if (token.length() - secondDot - 1 != 43) {
+                throw new SignatureException("Chữ ký access token không hợp lệ");
+            }
+            try {
+                decode(token, secondDot + 1, token.length(), actual);
+            } catch (MalformedJwtException e) {
+                throw new SignatureException("Chữ ký access token không hợp lệ", e);
+            }
+            try {
+                if (key != macKey) {
+                    mac.init(key);
+                    macKey = key;
+                }
+                mac.update(signingInput, 0, secondDot);
+                mac.doFinal(expected, 0);
+            } catch (GeneralSecurityException e) {
+                macKey = null;
+                throw new SignatureException("Không verify được access token", e);
+            }
+            // So sánh constant-time
+            int diff = 0;
+            for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+                diff |= expected[i] ^ actual[i];
+            }
+            if (diff != 0) {
+                throw new SignatureException("Chữ ký access token không hợp lệ");
+            }
+        }
+    }
+
+    /**
+     * Vị trí các field của một JSON object phẳng (string / số nguyên), không tạo String
+     */
+    private static final class JsonFields {
+
+        private int typStart;
+        private int typEnd;
+        private int algStart;
+        private int algEnd;
+        private int kidStart;
+        private int kidEnd;
+        private int subStart;
+        private int subEnd;
+        private int typeStart;
+        private int typeEnd;
+        private int emailStart;
+        private int emailEnd;
+        private int roleNameStart;
+        private int roleNameEnd;
+        private boolean unknownHeader;
+        private long role;
+        private long iat;
+        private long exp;
+
+        private void reset() {
+            typStart = algStart = kidStart = subStart = typeStart = emailStart = roleNameStart = -1;
+            unknownHeader = false;
+            role = iat = exp = -1;
+        }
+
+        private boolean isHs256Header(byte[] json) {
+            return !unknownHeader && algStart >= 0 && equalsAscii(json, algStart, algEnd, "HS256");
+        }
+
+        private boolean isCompactHeader(byte[] json) {
+            return typStart >= 0 && equalsAscii(json, typStart, typEnd, CompactAccessTokenCodec.TOKEN_TYPE);
+        }
+
+        /**
+         * @return false nếu không phải JSON phẳng đơn giản (escape, object lồng, "nbf"...)
+         */
+        private boolean parse(byte[] json, int length) {
+            reset();
+            int i = skipWhitespace(json, 0, length);
+            if (i >= length || json[i] != '{') {
+                return false;
+            }
+            i = skipWhitespace(json, i + 1, length);
+            if (i < length && json[i] == '}') {
+                return true;
+            }
+            while (i < length) {
+                // Key
+                if (json[i] != '"') {
+                    return false;
+                }
+                int keyStart = i + 1;
+                int keyEnd = stringEnd(json, keyStart, length);
+                if (keyEnd < 0) {
+                    return false;
+                }
+                i = skipWhitespace(json, keyEnd + 1, length);
+                if (i >= length || json[i] != ':') {
+                    return false;
+                }
+                i = skipWhitespace(json, i + 1, length);
+                if (i >= length) {
+                    return false;
+                }
+
+                // Value
+                if (json[i] == '"') {
+                    int valueEnd = stringEnd(json, i + 1, length);
+                    if (valueEnd < 0 || !setString(json, keyStart, keyEnd, i + 1, valueEnd)) {
+                        return false;
+                    }
+                    i = valueEnd + 1;
+                } else {
+                    long value = 0;
+                    int start = i;
+                    while (i < length && json[i] >= '0' && json[i] <= '9') {
+                        value = value * 10 + (json[i] - '0');
+                        i++;
+                    }
+                    if (i == start || i - start > 18 || !setNumber(json, keyStart, keyEnd, value)) {
+                        return false;
+                    }
+                }
+
+                i = skipWhitespace(json, i, length);
+                if (i < length && json[i] == ',') {
+                    i = skipWhitespace(json, i + 1, length);
+                } else {
+                    return i < length && json[i] == '}';
+                }
+            }
+            return false;
+        }
+
+        private boolean setString(byte[] json, int keyStart, int keyEnd, int start, int end) {
+            if (equalsAscii(json, keyStart, keyEnd, "typ")) {
+                typStart = start;
+                typEnd = end;
+            } else if (equalsAscii(json, keyStart, keyEnd, "alg")) {
+                algStart = start;
+                algEnd = end;
+            } else if (equalsAscii(json, keyStart, keyEnd, "kid")) {
+                kidStart = start;
+                kidEnd = end;
+            } else if (equalsAscii(json, keyStart, keyEnd, "sub")) {
+                subStart = start;
+                subEnd = end;
+            } else if (equalsAscii(json, keyStart, keyEnd, "type")) {
+                typeStart = start;
+                typeEnd = end;
+            } else if (equalsAscii(json, keyStart, keyEnd, "email")) {
+                emailStart = start;
+                emailEnd = end;
+            } else if (equalsAscii(json, keyStart, keyEnd, "role")) {
+                roleNameStart = start;
+                roleNameEnd = end;
+            } else if (equalsAscii(json, keyStart, keyEnd, "crit")) {
+                // Header critical extension: để JJWT từ chối
+                unknownHeader = true;
+            }
+            return true;
+        }
+
+        private boolean setNumber(byte[] json, int keyStart, int keyEnd, long value) {
+            if (equalsAscii(json, keyStart, keyEnd, CompactAccessTokenCodec.ROLE_CLAIM)) {
+                role = value;
+            } else if (equalsAscii(json, keyStart, keyEnd, "iat")) {
+                iat = value;
+            } else if (equalsAscii(json, keyStart, keyEnd, "exp")) {
+                exp = value;
+            } else if (equalsAscii(json, keyStart, keyEnd, "nbf")) {
+                // Service không phát hành nbf; để JJWT kiểm tra
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Vị trí dấu " đóng; -1 nếu có escape (token của service không bao giờ có)
+         */
+        private static int stringEnd(byte[] json, int from, int length) {
+            for (int i = from; i < length; i++) {
+                if (json[i] == '\\') {
+                    return -1;
+                }
+                if (json[i] == '"') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static int skipWhitespace(byte[] json, int from, int length) {
+            int i = from;
+            while (i < length && (json[i] == ' ' || json[i] == '\t' || json[i] == '\n' || json[i] == '\r')) {
+                i++;
+            }
+            return i;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.baohoanhao.demo.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+
+import java.security.Key;
+import java.security.KeyPair;
+
+/**
+ * Thuật toán ký JWT được hỗ trợ
+ *
+ * - HS256: HMAC với jwt.secret-key (downstream phải có secret để verify)
+ * - ES256: ECDSA P-256
+ * - EdDSA: Ed25519
+ */
+public enum JwtAlgorithm {
+
+    HS256(Jwts.SIG.HS256, null),
+    ES256(Jwts.SIG.ES256, "EC"),
+    EdDSA(Jwts.SIG.EdDSA, "Ed25519");
+
+    private final SecureDigestAlgorithm<?, ?> digestAlgorithm;
+    private final String keyFactoryAlgorithm;
+
+    JwtAlgorithm(SecureDigestAlgorithm<?, ?> digestAlgorithm, String keyFactoryAlgorithm) {
+        this.digestAlgorithm = digestAlgorithm;
+        this.keyFactoryAlgorithm = keyFactoryAlgorithm;
+    }
+
+    @SuppressWarnings("unchecked")
+    public SecureDigestAlgorithm<Key, Key> digestAlgorithm() {
+        return (SecureDigestAlgorithm<Key, Key>) digestAlgorithm;
+    }
+
+    /**
+     * Tên thuật toán cho java.security.KeyFactory khi đọc PEM
+     */
+    public String keyFactoryAlgorithm() {
+        return keyFactoryAlgorithm;
+    }
+
+    public boolean isAsymmetric() {
+        return keyFactoryAlgorithm != null;
+    }
+
+    /**
+     * Sinh cặp key mới (dùng cho môi trường dev khi chưa cấu hình signing-keys)
+     */
+    public KeyPair generateKeyPair() {
+        return switch (this) {
+            case ES256 -> Jwts.SIG.ES256.keyPair().build();
+            case EdDSA -> Jwks.CRV.Ed25519.keyPair().build();
+            case HS256 -> throw new IllegalStateException("HS256 không dùng cặp key");
+        };
+    }
+}
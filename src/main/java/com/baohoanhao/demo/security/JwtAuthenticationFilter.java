@@ -1,21 +1,25 @@
 package com.baohoanhao.demo.security;
 
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT Authentication Filter
@@ -24,18 +28,37 @@ import java.util.List;
  * 1. Extract JWT từ Authorization header
  * 2. Validate token
  * 3. Set Authentication vào SecurityContext
+ *
+ * Metric auth.filter theo outcome (anonymous, valid, invalid, expired, wrong_type, blacklisted, error)
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    enum Outcome { ANONYMOUS, VALID, INVALID, EXPIRED, WRONG_TYPE, BLACKLISTED, ERROR }
+
     private final JwtService jwtService;
     private final TokenStorageService tokenStorageService;
+    private final Map<Outcome, Timer> outcomeTimers = new EnumMap<>(Outcome.class);
 
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
 
+    // Stateless, dùng chung thay vì tạo mới mỗi request
+    private static final WebAuthenticationDetailsSource DETAILS_SOURCE = new WebAuthenticationDetailsSource();
+
+    public JwtAuthenticationFilter(JwtService jwtService, TokenStorageService tokenStorageService,
+                                   MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.tokenStorageService = tokenStorageService;
+        for (Outcome outcome : Outcome.values()) {
+            outcomeTimers.put(outcome, Timer.builder("auth.filter")
+                    .description("Thời gian xác thực JWT trong filter theo kết quả")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
@@ -43,69 +66,65 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
         
+        long start = System.nanoTime();
+        Outcome outcome = authenticate(request);
+        outcomeTimers.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        filterChain.doFilter(request, response);
+    }
+
+    private Outcome authenticate(HttpServletRequest request) {
         // 1. Lấy Authorization header
         final String authHeader = request.getHeader(AUTHORIZATION_HEADER);
         
         // 2. Kiểm tra có Bearer token không
         if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
-            filterChain.doFilter(request, response);
-            return;
+            return Outcome.ANONYMOUS;
         }
 
         // 3. Extract token
         final String jwt = authHeader.substring(BEARER_PREFIX.length());
         
         try {
-            // 4. Validate token
-            if (!jwtService.isTokenValid(jwt)) {
-                log.debug("Invalid JWT token");
-                filterChain.doFilter(request, response);
-                return;
+            // 4. Verify chữ ký + hạn dùng + loại token trong một lần parse
+            AccessTokenClaims claims;
+            try {
+                claims = jwtService.parseAccessToken(jwt);
+            } catch (JwtException | IllegalArgumentException e) {
+                log.debug("Invalid access token: {}", e.getMessage());
+                return e instanceof ExpiredJwtException ? Outcome.EXPIRED
+                        : e instanceof JwtService.WrongTokenTypeException ? Outcome.WRONG_TYPE
+                        : Outcome.INVALID;
             }
 
-            // 5. Kiểm tra token type phải là "access"
-            String tokenType = jwtService.extractTokenType(jwt);
-            if (!"access".equals(tokenType)) {
-                log.debug("Not an access token");
-                filterChain.doFilter(request, response);
-                return;
-            }
-
-            // 6. Kiểm tra token có bị blacklist không
+            // 5. Kiểm tra token có bị blacklist không
             if (tokenStorageService.isTokenBlacklisted(jwt)) {
                 log.debug("Token is blacklisted");
-                filterChain.doFilter(request, response);
-                return;
+                return Outcome.BLACKLISTED;
             }
 
-            // 7. Nếu chưa có Authentication trong context
+            // 6. Nếu chưa có Authentication trong context
             if (SecurityContextHolder.getContext().getAuthentication() == null) {
-                String userId = jwtService.extractUserId(jwt);
-                String email = jwtService.extractEmail(jwt);
-                String role = jwtService.extractRole(jwt);
-
-                // 8. Tạo Authentication với role
-                List<SimpleGrantedAuthority> authorities = List.of(
-                        new SimpleGrantedAuthority("ROLE_" + role)
-                );
+                AuthenticatedUser principal = AuthenticatedUser.from(claims);
 
+                // 7. Tạo Authentication với role (authorities dựng sẵn theo Role)
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userId,  // Principal = userId
-                        null,    // Credentials = null (đã validate bằng JWT)
-                        authorities
+                        principal,  // Principal = AuthenticatedUser (id, email, role, exp)
+                        jwt,        // Credentials = access token, dùng khi logout để blacklist
+                        RoleAuthorities.of(claims.role())
                 );
 
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                
-                // 9. Set vào SecurityContext
+                authToken.setDetails(DETAILS_SOURCE.buildDetails(request));
+
+                // 8. Set vào SecurityContext
                 SecurityContextHolder.getContext().setAuthentication(authToken);
                 
-                log.debug("Authenticated user: {} with role: {}", email, role);
+                log.debug("Authenticated user: {} with role: {}", principal.id(), claims.role());
             }
+            return Outcome.VALID;
         } catch (Exception e) {
             log.error("Cannot set user authentication: {}", e.getMessage());
+            return Outcome.ERROR;
         }
-
-        filterChain.doFilter(request, response);
     }
 }
@@ -1,17 +1,21 @@
 package com.baohoanhao.demo.security;
 
 import com.baohoanhao.demo.config.JwtProperties;
+import com.baohoanhao.demo.entity.Role;
+import com.baohoanhao.demo.jfr.JwtVerifyEvent;
+import com.baohoanhao.demo.util.RateLimitedLogger;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT Service - Xử lý tạo và xác thực JWT tokens
@@ -19,18 +23,69 @@ import java.util.UUID;
  * Best practices:
  * - Access Token: ngắn hạn (15 phút), chứa trong Authorization header
  * - Refresh Token: dài hạn (7 ngày), lưu trong Redis để có thể revoke
+ * - Ký bằng key đang active trong SigningKeyRing (header "kid"), verify theo kid
+ * - Access token dạng STANDARD hoặc COMPACT (jwt.access-token-format), parse được cả hai
+ * - Metric auth.jwt (operation sign/verify, type access/refresh, outcome), timer đăng ký sẵn
+ * - JFR event com.baohoanhao.demo.JwtVerify cho mỗi lần verify (xem AuthJfrReport)
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class JwtService {
 
+    // Token rác từ client có thể tới liên tục: tối đa 5 dòng WARN / 10s
+    private static final RateLimitedLogger INVALID_TOKEN_LOG = new RateLimitedLogger(log, Duration.ofSeconds(10), 5);
+
+    // Outcome của verify: tag của auth.jwt và field của JwtVerifyEvent
+    private static final String VALID = "valid";
+    private static final String EXPIRED = "expired";
+    private static final String WRONG_TYPE = "wrong_type";
+    private static final String INVALID = "invalid";
+
     private final JwtProperties jwtProperties;
+    private final SigningKeyRing signingKeyRing;
+
+    // JwtParser thread-safe, build một lần; key được chọn theo kid mỗi lần parse
+    private final JwtParser parser;
+    private final FastAccessTokenVerifier fastVerifier;
+
+    private final Timer signAccessTimer;
+    private final Timer signRefreshTimer;
+    private final VerifyTimers verifyAccessTimers;
+    private final VerifyTimers verifyRefreshTimers;
+
+    public JwtService(JwtProperties jwtProperties, SigningKeyRing signingKeyRing, MeterRegistry meterRegistry) {
+        this.jwtProperties = jwtProperties;
+        this.signingKeyRing = signingKeyRing;
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(ProtectedHeader header) {
+                        return signingKeyRing.verificationKey(header.getKeyId());
+                    }
+                })
+                .build();
+        this.fastVerifier = new FastAccessTokenVerifier(signingKeyRing, jwtProperties.isFastPathEnabled());
+
+        this.signAccessTimer = timer(meterRegistry, "sign", "access", "success");
+        this.signRefreshTimer = timer(meterRegistry, "sign", "refresh", "success");
+        this.verifyAccessTimers = VerifyTimers.register(meterRegistry, "access");
+        // isTokenValid chỉ được dùng cho refresh token (AuthService.refreshToken)
+        this.verifyRefreshTimers = VerifyTimers.register(meterRegistry, "refresh");
+    }
 
     /**
      * Tạo Access Token
      */
     public String generateAccessToken(UUID userId, String email, String role) {
+        long start = System.nanoTime();
+        String token = jwtProperties.getAccessTokenFormat() == AccessTokenFormat.COMPACT
+                ? buildCompactAccessToken(userId, Role.valueOf(role))
+                : buildStandardAccessToken(userId, email, role);
+        signAccessTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return token;
+    }
+
+    private String buildStandardAccessToken(UUID userId, String email, String role) {
         return buildToken(
                 Map.of(
                         "type", "access",
@@ -46,22 +101,81 @@ public class JwtService {
      * Tạo Refresh Token
      */
     public String generateRefreshToken(UUID userId) {
-        return buildToken(
+        long start = System.nanoTime();
+        String token = buildToken(
                 Map.of("type", "refresh"),
                 userId.toString(),
                 jwtProperties.getRefreshTokenExpiration()
         );
+        signRefreshTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return token;
+    }
+
+    /**
+     * Verify và đọc toàn bộ claims của access token trong một lần parse
+     *
+     * @throws JwtException token sai chữ ký, hết hạn hoặc không phải access token
+     */
+    public AccessTokenClaims parseAccessToken(String token) {
+        JwtVerifyEvent event = new JwtVerifyEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            AccessTokenClaims claims = verifyAccessToken(token);
+            verifyAccessTimers.valid().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            event.finish("access", VALID);
+            return claims;
+        } catch (RuntimeException e) {
+            verifyAccessTimers.record(e, System.nanoTime() - start);
+            // Nhánh lỗi không được inline: gọi finish không điều kiện làm event escape, JIT phải cấp phát
+            // event cho cả nhánh thành công kể cả khi không có recording nào
+            if (event.isEnabled()) {
+                event.finish("access", VerifyTimers.outcome(e));
+            }
+            throw e;
+        }
+    }
+
+    private AccessTokenClaims verifyAccessToken(String token) {
+        // HS256 không qua JJWT / Jackson, gần như không cấp phát: COMPACT luôn, STANDARD khi bật fast path
+        AccessTokenClaims decoded = fastVerifier.verify(token, System.currentTimeMillis());
+        if (decoded != null) {
+            return decoded;
+        }
+
+        Jws<Claims> jws = parser.parseSignedClaims(token);
+        Claims claims = jws.getPayload();
+        if (isCompact(jws)) {
+            return new AccessTokenClaims(
+                    CompactAccessTokenCodec.decodeSubject(claims.getSubject()),
+                    CompactAccessTokenCodec.roleFromCode(claims.get(CompactAccessTokenCodec.ROLE_CLAIM, Integer.class)),
+                    null,
+                    claims.getIssuedAt().getTime(),
+                    claims.getExpiration().getTime());
+        }
+        if (!"access".equals(claims.get("type", String.class))) {
+            throw new WrongTokenTypeException("Không phải access token");
+        }
+        String email = claims.get("email", String.class);
+        return new AccessTokenClaims(
+                UUID.fromString(claims.getSubject()),
+                Role.valueOf(claims.get("role", String.class)),
+                email != null && !email.isEmpty() ? email : null,
+                claims.getIssuedAt().getTime(),
+                claims.getExpiration().getTime());
     }
 
     /**
      * Trích xuất User ID từ token
      */
     public String extractUserId(String token) {
-        return extractClaim(token, Claims::getSubject);
+        Jws<Claims> jws = parser.parseSignedClaims(token);
+        String subject = jws.getPayload().getSubject();
+        return isCompact(jws) ? CompactAccessTokenCodec.decodeSubject(subject).toString() : subject;
     }
 
     /**
-     * Trích xuất email từ token
+     * Trích xuất email từ token (null với access token COMPACT)
      */
     public String extractEmail(String token) {
         Claims claims = extractAllClaims(token);
@@ -72,27 +186,42 @@ public class JwtService {
      * Trích xuất role từ token
      */
     public String extractRole(String token) {
-        Claims claims = extractAllClaims(token);
-        return claims.get("role", String.class);
+        Jws<Claims> jws = parser.parseSignedClaims(token);
+        if (isCompact(jws)) {
+            return CompactAccessTokenCodec.roleFromCode(
+                    jws.getPayload().get(CompactAccessTokenCodec.ROLE_CLAIM, Integer.class)).name();
+        }
+        return jws.getPayload().get("role", String.class);
     }
 
     /**
      * Trích xuất token type (access/refresh)
      */
     public String extractTokenType(String token) {
-        Claims claims = extractAllClaims(token);
-        return claims.get("type", String.class);
+        Jws<Claims> jws = parser.parseSignedClaims(token);
+        return isCompact(jws) ? "access" : jws.getPayload().get("type", String.class);
     }
 
     /**
      * Kiểm tra token hợp lệ (chưa hết hạn và signature đúng)
      */
     public boolean isTokenValid(String token) {
+        JwtVerifyEvent event = new JwtVerifyEvent();
+        event.begin();
+        long start = System.nanoTime();
         try {
             extractAllClaims(token);
-            return !isTokenExpired(token);
+            boolean valid = !isTokenExpired(token);
+            (valid ? verifyRefreshTimers.valid() : verifyRefreshTimers.expired())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            event.finish("refresh", valid ? VALID : EXPIRED);
+            return valid;
         } catch (JwtException | IllegalArgumentException e) {
-            log.warn("Invalid JWT token: {}", e.getMessage());
+            verifyRefreshTimers.record(e, System.nanoTime() - start);
+            if (event.isEnabled()) {
+                event.finish("refresh", VerifyTimers.outcome(e));
+            }
+            INVALID_TOKEN_LOG.warn("Invalid JWT token: {}", e.getMessage());
             return false;
         }
     }
@@ -121,13 +250,39 @@ public class JwtService {
 
     // ==================== Private Methods ====================
 
+    private String buildCompactAccessToken(UUID userId, Role role) {
+        SigningKey key = signingKeyRing.activeKey();
+        long now = System.currentTimeMillis();
+        JwtBuilder builder = Jwts.builder();
+        builder.header().type(CompactAccessTokenCodec.TOKEN_TYPE).and();
+        if (key.kid() != null) {
+            builder.header().keyId(key.kid()).and();
+        }
+        return builder
+                .subject(CompactAccessTokenCodec.encodeSubject(userId))
+                .claim(CompactAccessTokenCodec.ROLE_CLAIM, CompactAccessTokenCodec.roleCode(role))
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + jwtProperties.getAccessTokenExpiration()))
+                .signWith(key.signingKey(), key.algorithm().digestAlgorithm())
+                .compact();
+    }
+
+    private static boolean isCompact(Jws<Claims> jws) {
+        return CompactAccessTokenCodec.TOKEN_TYPE.equals(jws.getHeader().getType());
+    }
+
     private String buildToken(Map<String, Object> extraClaims, String subject, long expiration) {
-        return Jwts.builder()
+        SigningKey key = signingKeyRing.activeKey();
+        JwtBuilder builder = Jwts.builder();
+        if (key.kid() != null) {
+            builder.header().keyId(key.kid()).and();
+        }
+        return builder
                 .claims(extraClaims)
                 .subject(subject)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), Jwts.SIG.HS256)
+                .signWith(key.signingKey(), key.algorithm().digestAlgorithm())
                 .compact();
     }
 
@@ -137,15 +292,51 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtProperties.getSecretKey().getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static Timer timer(MeterRegistry meterRegistry, String operation, String type, String outcome) {
+        return Timer.builder("auth.jwt")
+                .description("Latency ký / verify JWT")
+                .tag("operation", operation)
+                .tag("type", type)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Token đúng chữ ký nhưng sai loại (vd refresh token dùng làm access token)
+     */
+    static final class WrongTokenTypeException extends UnsupportedJwtException {
+
+        WrongTokenTypeException(String message) {
+            super(message);
+        }
+    }
+
+    private record VerifyTimers(Timer valid, Timer expired, Timer wrongType, Timer invalid) {
+
+        static VerifyTimers register(MeterRegistry meterRegistry, String type) {
+            return new VerifyTimers(
+                    timer(meterRegistry, "verify", type, VALID),
+                    timer(meterRegistry, "verify", type, EXPIRED),
+                    timer(meterRegistry, "verify", type, WRONG_TYPE),
+                    timer(meterRegistry, "verify", type, INVALID));
+        }
+
+        static String outcome(RuntimeException e) {
+            return e instanceof ExpiredJwtException ? EXPIRED
+                    : e instanceof WrongTokenTypeException ? WRONG_TYPE
+                    : INVALID;
+        }
+
+        void record(RuntimeException e, long nanos) {
+            Timer timer = switch (outcome(e)) {
+                case EXPIRED -> expired;
+                case WRONG_TYPE -> wrongType;
+                default -> invalid;
+            };
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
     }
 }
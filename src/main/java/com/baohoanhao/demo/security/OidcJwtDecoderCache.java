@@ -0,0 +1,199 @@
+package com.baohoanhao.demo.security;
+
+import com.baohoanhao.demo.config.OAuthProperties;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jose.util.JSONObjectUtils;
+import com.nimbusds.jose.util.ResourceRetriever;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtIssuerValidator;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.text.ParseException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JwtDecoder cho id_token OIDC, build một lần cho mỗi registration
+ *
+ * - OIDC discovery chỉ chạy lần đầu dùng registration (lỗi thì không cache, lần sau thử lại)
+ * - JWK set được cache, refresh nền trước khi hết hạn; gặp kid lạ thì fetch lại (có rate limit)
+ * - Issuer cấu hình qua app.oauth.issuer-uri.{registrationId}, test trỏ về stub issuer local
+ * - id_token phải có iss = issuer của discovery và ký bằng thuật toán trong id_token_signing_alg_values_supported
+ *
+ * Metric oauth.jwks.fetch đếm số request discovery / JWKS thực sự gửi ra ngoài,
+ * observation oauth.jwks.request ghi latency + span của từng request đó.
+ */
+@Component
+@Slf4j
+public class OidcJwtDecoderCache implements DisposableBean {
+
+    private static final String DISCOVERY_PATH = "/.well-known/openid-configuration";
+
+    // OIDC Discovery: id_token_signing_alg_values_supported bắt buộc; thiếu thì dùng thuật toán mặc định RS256
+    private static final Set<JWSAlgorithm> DEFAULT_ALGORITHMS = Set.of(JWSAlgorithm.RS256);
+
+    private final OAuthProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+    private final Map<String, CachedDecoder> decoders = new ConcurrentHashMap<>();
+
+    public OidcJwtDecoderCache(OAuthProperties properties, MeterRegistry meterRegistry,
+                               ObservationRegistry observationRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+    }
+
+    public JwtDecoder decoderFor(ClientRegistration registration) {
+        return decoders.computeIfAbsent(registration.getRegistrationId(), id -> build(registration)).decoder();
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        for (CachedDecoder cached : decoders.values()) {
+            if (cached.jwkSource() instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+        decoders.clear();
+    }
+
+    private CachedDecoder build(ClientRegistration registration) {
+        String registrationId = registration.getRegistrationId();
+        String issuer = issuerUri(registration);
+        ResourceRetriever retriever = countingRetriever(registrationId);
+
+        Discovery discovery = discover(issuer, retriever);
+        OAuthProperties.Jwks jwks = properties.getJwks();
+        JWKSource<SecurityContext> jwkSource = JWKSourceBuilder.<SecurityContext>create(discovery.jwksUri(), retriever)
+                .cache(jwks.getCacheTtl().toMillis(), jwks.getRefreshTimeout().toMillis())
+                .refreshAheadCache(jwks.getRefreshAhead().toMillis(), true)
+                .rateLimited(jwks.getRateLimitMinInterval().toMillis())
+                .build();
+
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(discovery.algorithms(), jwkSource));
+        // Claims được kiểm tra bởi validator của Spring bên dưới
+        processor.setJWTClaimsSetVerifier((claims, context) -> { });
+
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                new JwtTimestampValidator(),
+                new JwtIssuerValidator(discovery.issuer()),
+                audienceValidator(registration.getClientId())
+        ));
+
+        log.info("OIDC decoder for '{}' initialized (issuer={}, jwks={}, algorithms={})", registrationId,
+                discovery.issuer(), discovery.jwksUri(), discovery.algorithms());
+        return new CachedDecoder(decoder, jwkSource);
+    }
+
+    private String issuerUri(ClientRegistration registration) {
+        String issuer = properties.getIssuerUri().get(registration.getRegistrationId());
+        if (issuer == null) {
+            issuer = registration.getProviderDetails().getIssuerUri();
+        }
+        if (issuer == null || issuer.isBlank()) {
+            throw new IllegalStateException("Chưa cấu hình issuer cho " + registration.getRegistrationId());
+        }
+        return issuer.endsWith("/") ? issuer.substring(0, issuer.length() - 1) : issuer;
+    }
+
+    private static Discovery discover(String issuer, ResourceRetriever retriever) {
+        try {
+            String content = retriever.retrieveResource(URI.create(issuer + DISCOVERY_PATH).toURL()).getContent();
+            Map<String, Object> configuration = JSONObjectUtils.parse(content);
+            if (!issuer.equals(configuration.get("issuer"))) {
+                throw new IllegalStateException("Issuer trong discovery không khớp: " + configuration.get("issuer"));
+            }
+            URL jwksUri = URI.create(JSONObjectUtils.getString(configuration, "jwks_uri")).toURL();
+            return new Discovery(issuer, jwksUri,
+                    signingAlgorithms(JSONObjectUtils.getStringList(configuration, "id_token_signing_alg_values_supported")));
+        } catch (IOException | ParseException | IllegalArgumentException e) {
+            throw new IllegalStateException("OIDC discovery thất bại cho " + issuer + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Chỉ nhận thuật toán ký bất đối xứng: "none" không có chữ ký, HS* ký bằng client secret chứ không phải JWK set
+     */
+    private static Set<JWSAlgorithm> signingAlgorithms(List<String> supported) {
+        if (supported == null) {
+            return DEFAULT_ALGORITHMS;
+        }
+        Set<JWSAlgorithm> algorithms = new LinkedHashSet<>();
+        for (String name : supported) {
+            JWSAlgorithm algorithm = JWSAlgorithm.parse(name);
+            if (JWSAlgorithm.Family.SIGNATURE.contains(algorithm)) {
+                algorithms.add(algorithm);
+            }
+        }
+        if (algorithms.isEmpty()) {
+            throw new IllegalStateException("Provider không hỗ trợ thuật toán ký id_token bất đối xứng: " + supported);
+        }
+        return algorithms;
+    }
+
+    private ResourceRetriever countingRetriever(String registrationId) {
+        OAuthProperties.Jwks jwks = properties.getJwks();
+        DefaultResourceRetriever delegate = new DefaultResourceRetriever(
+                (int) jwks.getConnectTimeout().toMillis(),
+                (int) jwks.getReadTimeout().toMillis(),
+                JWKSourceBuilder.DEFAULT_HTTP_SIZE_LIMIT);
+        Counter fetches = Counter.builder("oauth.jwks.fetch")
+                .description("Số request discovery / JWKS gửi tới OIDC provider")
+                .tag("registration", registrationId)
+                .register(meterRegistry);
+        return url -> {
+            fetches.increment();
+            return Observation.createNotStarted("oauth.jwks.request", observationRegistry)
+                    .contextualName("oidc fetch " + registrationId)
+                    .lowCardinalityKeyValue("registration", registrationId)
+                    .highCardinalityKeyValue("url", url.toString())
+                    .observeChecked(() -> delegate.retrieveResource(url));
+        };
+    }
+
+    private static OAuth2TokenValidator<Jwt> audienceValidator(String clientId) {
+        return token -> {
+            List<String> audiences = token.getAudience();
+            if (audiences != null && audiences.contains(clientId)) {
+                return OAuth2TokenValidatorResult.success();
+            }
+            return OAuth2TokenValidatorResult.failure(new OAuth2Error("invalid_token", "Audience mismatch", null));
+        };
+    }
+
+    private record Discovery(String issuer, URL jwksUri, Set<JWSAlgorithm> algorithms) {
+    }
+
+    private record CachedDecoder(JwtDecoder decoder, JWKSource<SecurityContext> jwkSource) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.baohoanhao.demo.security;
+
+import com.baohoanhao.demo.entity.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Authorities dựng sẵn cho mỗi Role (ROLE_USER, ROLE_ADMIN), dùng chung giữa các request
+ */
+public final class RoleAuthorities {
+
+    private static final Map<Role, List<GrantedAuthority>> AUTHORITIES = new EnumMap<>(Role.class);
+
+    static {
+        for (Role role : Role.values()) {
+            AUTHORITIES.put(role, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        }
+    }
+
+    private RoleAuthorities() {
+    }
+
+    public static List<GrantedAuthority> of(Role role) {
+        return AUTHORITIES.get(role);
+    }
+}
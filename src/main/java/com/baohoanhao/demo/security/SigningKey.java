@@ -0,0 +1,32 @@
+package com.baohoanhao.demo.security;
+
+import java.security.Key;
+import java.time.Instant;
+
+/**
+ * Một key trong key ring
+ *
+ * @param kid             key id, ghi vào header "kid" (null với secret HS256 cũ)
+ * @param signingKey      private key / secret, null nếu key chỉ dùng để verify
+ * @param verificationKey public key / secret
+ * @param verifyUntil     hết grace window sau khi bị retire, null nếu key còn hiệu lực
+ */
+public record SigningKey(String kid, JwtAlgorithm algorithm, Key signingKey, Key verificationKey,
+                         Instant verifyUntil) {
+
+    public SigningKey(String kid, JwtAlgorithm algorithm, Key signingKey, Key verificationKey) {
+        this(kid, algorithm, signingKey, verificationKey, null);
+    }
+
+    public boolean canSign() {
+        return signingKey != null;
+    }
+
+    public boolean isVerifiableAt(Instant now) {
+        return verifyUntil == null || now.isBefore(verifyUntil);
+    }
+
+    public SigningKey retire(Instant until) {
+        return verifyUntil != null ? this : new SigningKey(kid, algorithm, signingKey, verificationKey, until);
+    }
+}
@@ -0,0 +1,87 @@
+package com.baohoanhao.demo.security;
+
+import com.baohoanhao.demo.config.JwtProperties;
+import com.baohoanhao.demo.config.JwtProperties.SigningKeyProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Theo dõi jwt.key-file (vd. Kubernetes secret mount) và nạp lại SigningKeyRing khi nội dung đổi
+ *
+ * Định dạng: {"keys": [{"kid", "algorithm"?, "privateKey"?, "publicKey"?, "secret"?}, ...]},
+ * key đầu tiên dùng để ký. So sánh nội dung thay vì mtime vì secret mount đổi qua symlink.
+ */
+@Component
+@ConditionalOnProperty(prefix = "jwt", name = "key-file")
+@Slf4j
+public class SigningKeyFileWatcher {
+
+    private final SigningKeyRing signingKeyRing;
+    private final ObjectMapper objectMapper;
+    private final Path keyFile;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private byte[] lastContent;
+
+    public SigningKeyFileWatcher(SigningKeyRing signingKeyRing, ObjectMapper objectMapper, JwtProperties properties) {
+        this.signingKeyRing = signingKeyRing;
+        this.objectMapper = objectMapper;
+        this.keyFile = Path.of(properties.getKeyFile());
+    }
+
+    @PostConstruct
+    void init() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.key-file-poll-interval:30000}")
+    public void poll() {
+        try {
+            reloadIfChanged(false);
+        } catch (RuntimeException e) {
+            // Giữ key ring hiện tại, thử lại ở lần poll sau
+            log.error("Cannot reload signing keys from {}: {}", keyFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Đọc lại key file ngay lập tức
+     *
+     * @return kid của key đang ký sau khi reload
+     */
+    public String reload() {
+        reloadIfChanged(true);
+        return signingKeyRing.activeKey().kid();
+    }
+
+    private void reloadIfChanged(boolean force) {
+        lock.lock();
+        try {
+            byte[] content = Files.readAllBytes(keyFile);
+            if (!force && Arrays.equals(content, lastContent)) {
+                return;
+            }
+            signingKeyRing.reload(objectMapper.readValue(content, KeyFile.class).keys());
+            lastContent = content;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Không đọc được " + keyFile, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    record KeyFile(List<SigningKeyProperties> keys) {
+    }
+}
@@ -0,0 +1,256 @@
+package com.baohoanhao.demo.security;
+
+import com.baohoanhao.demo.config.JwtProperties;
+import com.baohoanhao.demo.config.JwtProperties.SigningKeyProperties;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Key ring cho JWT
+ *
+ * - Ký: key mới nhất (đầu danh sách), header "kid"
+ * - Verify: chọn key theo kid (HashMap, O(1)); key đã retire vẫn verify được trong grace window
+ *   (mặc định = refresh-token-expiration) nên rotate không làm mất session đang có
+ * - Token không có kid (jwt.secret-key, trước khi có key ring) là key "legacy"
+ * - Rotate lúc runtime: reload() từ key file; mọi replica cùng poll một file nên cùng thấy key mới,
+ *   và key vẫn còn sau restart
+ *
+ * Trạng thái là một Snapshot bất biến trong field volatile: đọc không lock,
+ * ghi (reload) tuần tự qua ReentrantLock rồi thay nguyên snapshot.
+ */
+@Component
+@Slf4j
+public class SigningKeyRing {
+
+    private final JwtAlgorithm defaultAlgorithm;
+    private final Duration gracePeriod;
+    private final Clock clock;
+    private final ReentrantLock rotationLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public SigningKeyRing(JwtProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    SigningKeyRing(JwtProperties properties, Clock clock) {
+        this.defaultAlgorithm = properties.getAlgorithm();
+        this.gracePeriod = properties.getEffectiveKeyGracePeriod();
+        this.clock = clock;
+
+        String secret = properties.getSecretKey();
+        SigningKey legacy = null;
+        if (secret != null && !secret.isBlank()) {
+            SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+            legacy = new SigningKey(null, JwtAlgorithm.HS256, key, key);
+        }
+
+        List<SigningKey> keys = new ArrayList<>();
+        for (SigningKeyProperties key : properties.getSigningKeys()) {
+            keys.add(load(key));
+        }
+        boolean keyFile = properties.getKeyFile() != null && !properties.getKeyFile().isBlank();
+        if (keys.isEmpty() && defaultAlgorithm.isAsymmetric() && !keyFile) {
+            // Key tạm: mỗi instance ký bằng key riêng, token của instance khác / trước restart không verify được
+            if (!properties.isAllowEphemeralKeys()) {
+                throw new IllegalStateException("jwt.algorithm=" + defaultAlgorithm
+                        + " cần jwt.signing-keys hoặc jwt.key-file (jwt.allow-ephemeral-keys=true chỉ dùng cho dev)");
+            }
+            keys.add(generate(defaultAlgorithm));
+            log.warn("jwt.signing-keys is empty, generated ephemeral {} key {}", defaultAlgorithm, keys.get(0).kid());
+        }
+
+        SigningKey active = keys.isEmpty() ? legacy : keys.get(0);
+        if (active != null && !active.canSign()) {
+            throw new IllegalStateException("Signing key đầu tiên (" + active.kid() + ") thiếu private-key");
+        }
+        if (legacy != null && active != legacy) {
+            legacy = legacy.retire(clock.instant().plus(gracePeriod));
+        }
+        this.snapshot = new Snapshot(active, Collections.unmodifiableMap(index(keys)), legacy);
+    }
+
+    /**
+     * Key dùng để ký token mới
+     */
+    public SigningKey activeKey() {
+        SigningKey active = snapshot.active();
+        if (active == null) {
+            throw new IllegalStateException("jwt.secret-key chưa được cấu hình");
+        }
+        return active;
+    }
+
+    /**
+     * Key để verify token theo kid trong header
+     */
+    public Key verificationKey(String kid) {
+        Snapshot current = snapshot;
+        SigningKey key = kid == null ? current.legacy() : current.keysById().get(kid);
+        if (key == null) {
+            throw new JwtException(kid == null ? "Token không có kid" : "Không tìm thấy signing key: " + kid);
+        }
+        if (key.verifyUntil() != null && !key.isVerifiableAt(clock.instant())) {
+            throw new JwtException("Signing key đã hết grace period: " + kid);
+        }
+        return key.verificationKey();
+    }
+
+    /**
+     * Tất cả key còn verify được, key đang ký đứng đầu
+     */
+    public List<SigningKey> keys() {
+        Snapshot current = snapshot;
+        Instant now = clock.instant();
+        List<SigningKey> keys = new ArrayList<>();
+        for (SigningKey key : current.keysById().values()) {
+            if (key.isVerifiableAt(now)) {
+                keys.add(key);
+            }
+        }
+        if (current.legacy() != null && current.legacy().isVerifiableAt(now)) {
+            keys.add(current.legacy());
+        }
+        return keys;
+    }
+
+    /**
+     * Public JWK của các key bất đối xứng còn verify được để downstream verify offline
+     */
+    public List<PublicJwk<?>> publicJwks() {
+        List<PublicJwk<?>> jwks = new ArrayList<>();
+        for (SigningKey key : keys()) {
+            if (key.algorithm().isAsymmetric()) {
+                jwks.add(Jwks.builder()
+                        .key((PublicKey) key.verificationKey())
+                        .id(key.kid())
+                        .algorithm(key.algorithm().digestAlgorithm().getId())
+                        .publicKeyUse("sig")
+                        .build());
+            }
+        }
+        return jwks;
+    }
+
+    /**
+     * Thay danh sách key (vd. từ key file): key đầu tiên dùng để ký,
+     * key không còn trong danh sách được retire và verify tiếp trong grace window
+     */
+    public void reload(List<SigningKeyProperties> configured) {
+        List<SigningKey> loaded = new ArrayList<>();
+        for (SigningKeyProperties key : configured) {
+            loaded.add(load(key));
+        }
+        if (loaded.isEmpty() || !loaded.get(0).canSign()) {
+            throw new IllegalArgumentException("Key đầu tiên phải có private-key hoặc secret để ký");
+        }
+
+        rotationLock.lock();
+        try {
+            Snapshot current = snapshot;
+            Instant now = clock.instant();
+            Map<String, SigningKey> next = index(loaded);
+            for (SigningKey old : current.keysById().values()) {
+                if (!next.containsKey(old.kid()) && old.isVerifiableAt(now)) {
+                    next.put(old.kid(), old.retire(now.plus(gracePeriod)));
+                }
+            }
+            snapshot = new Snapshot(loaded.get(0), Collections.unmodifiableMap(next), retireLegacy(current, now));
+            log.info("Signing keys reloaded, active kid {}", loaded.get(0).kid());
+        } finally {
+            rotationLock.unlock();
+        }
+    }
+
+    private SigningKey retireLegacy(Snapshot current, Instant now) {
+        SigningKey legacy = current.legacy();
+        if (legacy == null || !legacy.isVerifiableAt(now)) {
+            return null;
+        }
+        return legacy.retire(now.plus(gracePeriod));
+    }
+
+    private SigningKey load(SigningKeyProperties key) {
+        if (key.getKid() == null || key.getKid().isBlank()) {
+            throw new IllegalStateException("jwt.signing-keys[].kid là bắt buộc");
+        }
+        JwtAlgorithm algorithm = key.getAlgorithm() != null ? key.getAlgorithm() : defaultAlgorithm;
+        if (!algorithm.isAsymmetric()) {
+            if (key.getSecret() == null || key.getSecret().isBlank()) {
+                throw new IllegalStateException("Signing key " + key.getKid() + " (HS256) thiếu secret");
+            }
+            SecretKey secret = Keys.hmacShaKeyFor(key.getSecret().getBytes(StandardCharsets.UTF_8));
+            return new SigningKey(key.getKid(), algorithm, secret, secret);
+        }
+        try {
+            KeyFactory factory = KeyFactory.getInstance(algorithm.keyFactoryAlgorithm());
+            PublicKey publicKey = factory.generatePublic(new X509EncodedKeySpec(decodePem(key.getPublicKey())));
+            PrivateKey privateKey = key.getPrivateKey() != null && !key.getPrivateKey().isBlank()
+                    ? factory.generatePrivate(new PKCS8EncodedKeySpec(decodePem(key.getPrivateKey())))
+                    : null;
+            return new SigningKey(key.getKid(), algorithm, privateKey, publicKey);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Không đọc được signing key " + key.getKid() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static SigningKey generate(JwtAlgorithm algorithm) {
+        String kid = UUID.randomUUID().toString();
+        if (!algorithm.isAsymmetric()) {
+            SecretKey secret = Jwts.SIG.HS256.key().build();
+            return new SigningKey(kid, algorithm, secret, secret);
+        }
+        KeyPair pair = algorithm.generateKeyPair();
+        return new SigningKey(kid, algorithm, pair.getPrivate(), pair.getPublic());
+    }
+
+    private static Map<String, SigningKey> index(List<SigningKey> keys) {
+        Map<String, SigningKey> byKid = new LinkedHashMap<>();
+        for (SigningKey key : keys) {
+            if (byKid.putIfAbsent(key.kid(), key) != null) {
+                throw new IllegalStateException("Trùng kid: " + key.kid());
+            }
+        }
+        return byKid;
+    }
+
+    private static byte[] decodePem(String pem) {
+        if (pem == null) {
+            throw new IllegalArgumentException("PEM trống");
+        }
+        String base64 = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private record Snapshot(SigningKey active, Map<String, SigningKey> keysById, SigningKey legacy) {
+    }
+}
@@ -0,0 +1,80 @@
+package com.baohoanhao.demo.security;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * PasswordEncoder ghi observation auth.password (operation encode/matches, outcome)
+ * bcrypt là phần tốn CPU nhất của login / đăng ký: p99 tăng thường do cost factor hoặc thiếu core
+ *
+ * Mỗi lần gọi vừa là timer auth.password vừa là span "password encode" / "password matches"
+ * con của span request, nên trace login cho thấy ngay thời gian bcrypt.
+ *
+ * outcome mặc định "error", ghi đè khi delegate trả về: mọi series auth.password có cùng bộ tag.
+ * Timer do observation handler tạo không có description, meterFilter() gắn lại.
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private static final String NAME = "auth.password";
+    private static final String DESCRIPTION = "Latency hash / verify mật khẩu (bcrypt)";
+
+    private final PasswordEncoder delegate;
+    private final ObservationRegistry observationRegistry;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, ObservationRegistry observationRegistry) {
+        this.delegate = delegate;
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        Observation observation = observation("encode");
+        return observation.observe(() -> {
+            String encoded = delegate.encode(rawPassword);
+            observation.lowCardinalityKeyValue("outcome", "success");
+            return encoded;
+        });
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        Observation observation = observation("matches");
+        return observation.observe(() -> {
+            boolean matches = delegate.matches(rawPassword, encodedPassword);
+            observation.lowCardinalityKeyValue("outcome", matches ? "match" : "mismatch");
+            return matches;
+        });
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Gắn description cho các meter auth.password sinh từ observation
+     */
+    public static MeterFilter meterFilter() {
+        return new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                if (NAME.equals(id.getName()) && id.getDescription() == null) {
+                    return new Meter.Id(id.getName(), Tags.of(id.getTagsAsIterable()), id.getBaseUnit(), DESCRIPTION,
+                            id.getType());
+                }
+                return id;
+            }
+        };
+    }
+
+    private Observation observation(String operation) {
+        return Observation.createNotStarted(NAME, observationRegistry)
+                .contextualName("password " + operation)
+                .lowCardinalityKeyValue("operation", operation)
+                .lowCardinalityKeyValue("outcome", "error");
+    }
+}
@@ -1,11 +1,21 @@
 package com.baohoanhao.demo.security;
 
-import lombok.RequiredArgsConstructor;
+import com.baohoanhao.demo.config.JwtProperties;
+import com.baohoanhao.demo.jfr.BlacklistCheckEvent;
+import com.baohoanhao.demo.util.ScratchPool;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Token Storage Service - Quản lý tokens trong Redis
@@ -14,18 +24,47 @@ import java.util.concurrent.TimeUnit;
  * - Lưu refresh token để tracking và revoke
  * - Blacklist access token khi logout
  * - Kiểm tra token có bị revoke không
+ * - Metric auth.token.store (operation, outcome) cho mỗi lệnh Redis
+ * - JFR event com.baohoanhao.demo.BlacklistCheck cho mỗi lần kiểm tra blacklist
+ *
+ * Blacklist key trước đây là 32 ký tự cuối của token. Trong một access-token-expiration sau khi instance
+ * khởi động, logout ghi cả key cũ và mới, kiểm tra đọc cả hai (một lệnh EXISTS): token đã logout trước
+ * deploy vẫn bị chặn, rollback về bản cũ cũng vậy. Hết khoảng đó mọi key cũ đã hết TTL.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class TokenStorageService {
 
     private final RedisTemplate<String, Object> redisTemplate;
 
+    private final Operation storeRefresh;
+    private final Operation getRefresh;
+    private final Operation deleteRefresh;
+    private final Operation blacklist;
+    private final Operation checkBlacklist;
+
     // Redis key prefixes
     private static final String REFRESH_TOKEN_PREFIX = "refresh_token:";
     private static final String BLACKLIST_PREFIX = "blacklist:";
     private static final String USER_TOKENS_PREFIX = "user_tokens:";
+    private static final int LEGACY_KEY_CHARS = 32;
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final ScratchPool<KeyScratch> KEY_SCRATCH = new ScratchPool<>(KeyScratch::new);
+
+    // Hết thời điểm này không còn key blacklist định dạng cũ nào chưa hết hạn
+    private final long legacyKeysUntil;
+
+    public TokenStorageService(RedisTemplate<String, Object> redisTemplate, MeterRegistry meterRegistry,
+                               JwtProperties jwtProperties) {
+        this.redisTemplate = redisTemplate;
+        this.legacyKeysUntil = System.currentTimeMillis() + jwtProperties.getAccessTokenExpiration();
+        this.storeRefresh = Operation.register(meterRegistry, "store_refresh");
+        this.getRefresh = Operation.register(meterRegistry, "get_refresh");
+        this.deleteRefresh = Operation.register(meterRegistry, "delete_refresh");
+        this.blacklist = Operation.register(meterRegistry, "blacklist");
+        this.checkBlacklist = Operation.register(meterRegistry, "is_blacklisted");
+    }
 
     /**
      * Lưu refresh token vào Redis
@@ -33,7 +72,10 @@ public class TokenStorageService {
      */
     public void storeRefreshToken(String userId, String refreshToken, long ttlMillis) {
         String key = REFRESH_TOKEN_PREFIX + userId;
-        redisTemplate.opsForValue().set(key, refreshToken, ttlMillis, TimeUnit.MILLISECONDS);
+        storeRefresh.record(() -> {
+            redisTemplate.opsForValue().set(key, refreshToken, ttlMillis, TimeUnit.MILLISECONDS);
+            return null;
+        });
         log.debug("Stored refresh token for user: {}", userId);
     }
 
@@ -42,7 +84,7 @@ public class TokenStorageService {
      */
     public String getRefreshToken(String userId) {
         String key = REFRESH_TOKEN_PREFIX + userId;
-        Object token = redisTemplate.opsForValue().get(key);
+        Object token = getRefresh.record(() -> redisTemplate.opsForValue().get(key));
         return token != null ? token.toString() : null;
     }
 
@@ -51,7 +93,7 @@ public class TokenStorageService {
      */
     public void deleteRefreshToken(String userId) {
         String key = REFRESH_TOKEN_PREFIX + userId;
-        redisTemplate.delete(key);
+        deleteRefresh.record(() -> redisTemplate.delete(key));
         log.debug("Deleted refresh token for user: {}", userId);
     }
 
@@ -60,8 +102,15 @@ public class TokenStorageService {
      * Token sẽ tự động bị xóa khi hết hạn (TTL)
      */
     public void blacklistToken(String token, long ttlMillis) {
-        String key = BLACKLIST_PREFIX + hashToken(token);
-        redisTemplate.opsForValue().set(key, "revoked", ttlMillis, TimeUnit.MILLISECONDS);
+        String key = blacklistKey(token);
+        boolean writeLegacy = legacyKeysActive();
+        blacklist.record(() -> {
+            redisTemplate.opsForValue().set(key, "revoked", ttlMillis, TimeUnit.MILLISECONDS);
+            if (writeLegacy) {
+                redisTemplate.opsForValue().set(legacyBlacklistKey(token), "revoked", ttlMillis, TimeUnit.MILLISECONDS);
+            }
+            return null;
+        });
         log.debug("Blacklisted token");
     }
 
@@ -69,8 +118,24 @@ public class TokenStorageService {
      * Kiểm tra token có bị blacklist không
      */
     public boolean isTokenBlacklisted(String token) {
-        String key = BLACKLIST_PREFIX + hashToken(token);
-        return Boolean.TRUE.equals(redisTemplate.hasKey(key));
+        String key = blacklistKey(token);
+        boolean checkLegacy = legacyKeysActive();
+        BlacklistCheckEvent event = new BlacklistCheckEvent();
+        event.begin();
+        try {
+            boolean blacklisted = checkLegacy
+                    ? isPositive(checkBlacklist.record(
+                            () -> redisTemplate.countExistingKeys(List.of(key, legacyBlacklistKey(token)))))
+                    : Boolean.TRUE.equals(checkBlacklist.record(() -> redisTemplate.hasKey(key)));
+            event.finish(blacklisted ? "hit" : "miss");
+            return blacklisted;
+        } catch (RuntimeException e) {
+            // Guard để event không escape qua nhánh lỗi (xem JwtService.parseAccessToken)
+            if (event.isEnabled()) {
+                event.finish("error");
+            }
+            throw e;
+        }
     }
 
     /**
@@ -85,12 +150,106 @@ public class TokenStorageService {
         log.info("Revoked all tokens for user: {}", userId);
     }
 
+    private boolean legacyKeysActive() {
+        return System.currentTimeMillis() < legacyKeysUntil;
+    }
+
+    private static boolean isPositive(Long count) {
+        return count != null && count > 0;
+    }
+
     /**
-     * Hash token để làm key (không lưu token raw vào key)
+     * Key blacklist: "blacklist:" + SHA-256 (hex) của phần header.payload, không lưu token raw vào key
+     *
+     * Không tính chữ ký: JJWT decode base64url lỏng (bỏ qua bit thừa của ký tự cuối) và ECDSA nhận cả
+     * chữ ký (r, n - s), nên một token có nhiều chuỗi chữ ký verify được. Key theo phần đã ký thì mọi
+     * biến thể đó cùng bị chặn sau logout.
+     *
+     * Chạy trên mọi request có Bearer token: digest + buffer lấy từ ScratchPool, chỉ cấp phát String key.
      */
-    private String hashToken(String token) {
-        // Lấy 32 ký tự cuối của token làm identifier
-        // Đủ unique và không expose toàn bộ token
-        return token.length() > 32 ? token.substring(token.length() - 32) : token;
+    static String blacklistKey(String token) {
+        KeyScratch scratch = KEY_SCRATCH.acquire();
+        try {
+            return scratch.key(token);
+        } finally {
+            KEY_SCRATCH.release(scratch);
+        }
+    }
+
+    // Định dạng trước khi đổi sang SHA-256, chỉ dùng trong legacyKeysUntil
+    static String legacyBlacklistKey(String token) {
+        return BLACKLIST_PREFIX + (token.length() > LEGACY_KEY_CHARS
+                ? token.substring(token.length() - LEGACY_KEY_CHARS)
+                : token);
+    }
+
+    private static final class KeyScratch {
+
+        private final MessageDigest sha256;
+        private final byte[] digest = new byte[32];
+        private final byte[] key = new byte[BLACKLIST_PREFIX.length() + 64];
+        private byte[] input = new byte[512];
+
+        private KeyScratch() {
+            try {
+                sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 không khả dụng", e);
+            }
+            for (int i = 0; i < BLACKLIST_PREFIX.length(); i++) {
+                key[i] = (byte) BLACKLIST_PREFIX.charAt(i);
+            }
+        }
+
+        private String key(String token) {
+            int signedEnd = token.lastIndexOf('.');
+            int length = signedEnd > 0 ? signedEnd : token.length();
+            if (input.length < length) {
+                input = new byte[length];
+            }
+            // Token là base64url + '.', ASCII
+            for (int i = 0; i < length; i++) {
+                input[i] = (byte) token.charAt(i);
+            }
+            sha256.update(input, 0, length);
+            try {
+                sha256.digest(digest, 0, digest.length);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+            int out = BLACKLIST_PREFIX.length();
+            for (byte b : digest) {
+                key[out++] = HEX[(b >> 4) & 0xF];
+                key[out++] = HEX[b & 0xF];
+            }
+            return new String(key, 0, out, StandardCharsets.US_ASCII);
+        }
+    }
+
+    private record Operation(Timer success, Timer error) {
+
+        static Operation register(MeterRegistry meterRegistry, String operation) {
+            return new Operation(timer(meterRegistry, operation, "success"), timer(meterRegistry, operation, "error"));
+        }
+
+        private static Timer timer(MeterRegistry meterRegistry, String operation, String outcome) {
+            return Timer.builder("auth.token.store")
+                    .description("Latency lệnh Redis của token storage")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+
+        <T> T record(Supplier<T> command) {
+            long start = System.nanoTime();
+            try {
+                T result = command.get();
+                success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return result;
+            } catch (RuntimeException e) {
+                error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+        }
     }
 }
@@ -1,6 +1,7 @@
 package com.baohoanhao.demo.service;
 
 import com.baohoanhao.demo.config.JwtProperties;
+import com.baohoanhao.demo.config.ReadYourWritesTracker;
 import com.baohoanhao.demo.dto.request.LoginRequest;
 import com.baohoanhao.demo.dto.request.RefreshTokenRequest;
 import com.baohoanhao.demo.dto.request.RegisterRequest;
@@ -10,11 +11,15 @@ import com.baohoanhao.demo.entity.Role;
 import com.baohoanhao.demo.exception.BadRequestException;
 import com.baohoanhao.demo.exception.ConflictException;
 import com.baohoanhao.demo.exception.UnauthorizedException;
+import com.baohoanhao.demo.jfr.PasswordVerifyEvent;
 import com.baohoanhao.demo.repository.UserRepository;
+import com.baohoanhao.demo.security.AuthenticatedUser;
 import com.baohoanhao.demo.security.JwtService;
 import com.baohoanhao.demo.security.TokenStorageService;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -32,8 +37,12 @@ import java.util.UUID;
  * - Đăng nhập và phát hành JWT tokens
  * - Refresh token
  * - Logout (revoke tokens)
+ *
+ * Mỗi method public là một observation auth.service (span "auth-service#login"...), các span
+ * bcrypt, JDBC, Redis, ký JWT nằm bên dưới
  */
 @Service
+@Observed(name = "auth.service")
 @RequiredArgsConstructor
 @Slf4j
 public class AuthService {
@@ -43,6 +52,7 @@ public class AuthService {
     private final JwtService jwtService;
     private final TokenStorageService tokenStorageService;
     private final JwtProperties jwtProperties;
+    private final ReadYourWritesTracker readYourWritesTracker;
 
     
 
@@ -56,11 +66,14 @@ public class AuthService {
             throw new BadRequestException("Cần cung cấp Email hoặc Số điện thoại");
         }
 
-        // 2. Kiểm tra trùng lặp
-        if (request.getEmail() != null && userRepository.existsByEmail(request.getEmail())) {
+        // 2. Kiểm tra trùng lặp email + phone trong một query (tránh bcrypt vô ích khi chắc chắn trùng)
+        String conflict = UserUniqueConstraints.conflictingField(
+                userRepository.findContactConflicts(request.getEmail(), request.getPhone()),
+                request.getEmail(), request.getPhone(), null);
+        if (UserUniqueConstraints.EMAIL_FIELD.equals(conflict)) {
             throw new ConflictException("Email", "email", request.getEmail());
         }
-        if (request.getPhone() != null && userRepository.existsByPhone(request.getPhone())) {
+        if (UserUniqueConstraints.PHONE_FIELD.equals(conflict)) {
             throw new ConflictException("Số điện thoại", "phone", request.getPhone());
         }
 
@@ -74,17 +87,29 @@ public class AuthService {
             .role(Role.USER)
                 .build();
 
-        user = userRepository.save(user);
+        // Flush ngay để race với request đồng thời bị unique constraint chặn tại đây,
+        // trước khi phát hành token cho một user không tồn tại
+        try {
+            user = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw UserUniqueConstraints.translate(e, request.getEmail(), request.getPhone());
+        }
         log.info("User registered: {}", user.getEmail() != null ? user.getEmail() : user.getPhone());
 
+        // /me ngay sau khi đăng ký đi primary, replica có thể chưa có user
+        readYourWritesTracker.markWrite(user.getId().toString());
+
         // 4. Generate tokens và trả về
         return generateAuthResponse(user);
     }
 
     /**
      * Đăng nhập
+     *
+     * Không readOnly: kiểm tra active / mật khẩu đọc từ primary. Request login chưa có user nên
+     * read-your-writes không áp dụng được, replica trễ có thể vẫn thấy tài khoản vừa bị xóa
      */
-    @Transactional(readOnly = true)
+    @Transactional
     public AuthResponse login(LoginRequest request) {
         // 1. Tìm user bằng email hoặc phone
         User user = userRepository.findByIdentifier(request.getIdentifier())
@@ -95,8 +120,12 @@ public class AuthService {
             throw new UnauthorizedException("Tài khoản đã bị vô hiệu hóa");
         }
 
-        // 3. Verify password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
+        // 3. Verify password (JFR event PasswordVerify)
+        PasswordVerifyEvent passwordEvent = new PasswordVerifyEvent();
+        passwordEvent.begin();
+        boolean matches = passwordEncoder.matches(request.getPassword(), user.getPasswordHash());
+        passwordEvent.finish(matches);
+        if (!matches) {
             throw new UnauthorizedException("Tài khoản hoặc mật khẩu không đúng");
         }
 
@@ -146,25 +175,28 @@ public class AuthService {
 
     /**
      * Logout - Revoke tokens
+     *
+     * @param accessToken access token của request (đã được JwtAuthenticationFilter verify)
      */
-    public void logout(String accessToken, String userId) {
+    public void logout(AuthenticatedUser user, String accessToken) {
         // 1. Blacklist access token (để nó không dùng được nữa dù chưa hết hạn)
-        if (accessToken != null && jwtService.isTokenValid(accessToken)) {
-            long ttl = jwtService.getTimeToLive(accessToken);
+        //    TTL lấy từ exp trong principal, không parse lại token
+        long ttl = user.expiresAt() - System.currentTimeMillis();
+        if (accessToken != null && ttl > 0) {
             tokenStorageService.blacklistToken(accessToken, ttl);
         }
 
         // 2. Xóa refresh token
-        tokenStorageService.deleteRefreshToken(userId);
+        tokenStorageService.deleteRefreshToken(user.getName());
 
-        log.info("User logged out: {}", userId);
+        log.info("User logged out: {}", user.id());
     }
 
     /**
      * Logout tất cả devices
      */
-    public void logoutAll(String userId) {
-        tokenStorageService.revokeAllUserTokens(userId);
+    public void logoutAll(UUID userId) {
+        tokenStorageService.revokeAllUserTokens(userId.toString());
         log.info("User logged out from all devices: {}", userId);
     }
 
@@ -172,16 +204,9 @@ public class AuthService {
      * Lấy thông tin user hiện tại (id, email, fullName, phone, role, authorities)
      */
     @Transactional(readOnly = true)
-    public Map<String, Object> getCurrentUserProfile(String userId, Collection<?> authorities) {
-        UUID userUuid;
-        try {
-            userUuid = UUID.fromString(userId);
-        } catch (IllegalArgumentException e) {
-            log.error("Invalid UUID format for userId: {}", userId);
-            throw new UnauthorizedException("Định dạng User ID không hợp lệ");
-        }
-
-        User user = userRepository.findById(userUuid)
+    public Map<String, Object> getCurrentUserProfile(UUID userId, Collection<?> authorities) {
+        // fullName / phone không có trong token nên vẫn đọc từ DB
+        User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UnauthorizedException("User không tồn tại"));
 
         Map<String, Object> profile = new HashMap<>();
@@ -1,69 +1,151 @@
 package com.baohoanhao.demo.service;
 
 import com.baohoanhao.demo.config.JwtProperties;
+import com.baohoanhao.demo.config.OAuthHttpClients;
+import com.baohoanhao.demo.config.OAuthProperties;
 import com.baohoanhao.demo.dto.response.AuthResponse;
 import com.baohoanhao.demo.entity.Role;
 import com.baohoanhao.demo.entity.User;
 import com.baohoanhao.demo.exception.BadRequestException;
+import com.baohoanhao.demo.exception.ServiceUnavailableException;
 import com.baohoanhao.demo.exception.UnauthorizedException;
+import com.baohoanhao.demo.jfr.OAuthPhaseEvent;
 import com.baohoanhao.demo.repository.UserRepository;
 import com.baohoanhao.demo.security.JwtService;
 import com.baohoanhao.demo.security.TokenStorageService;
-import lombok.RequiredArgsConstructor;
+import com.baohoanhao.demo.service.oauth.OAuthIdentityService;
+import com.baohoanhao.demo.service.oauth.OAuthProfile;
+import com.baohoanhao.demo.service.oauth.OAuthProfileResolvers;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.client.registration.ClientRegistration;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
-import org.springframework.security.oauth2.core.OAuth2Error;
-import org.springframework.security.oauth2.core.OAuth2TokenValidator;
-import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
 import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
-import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
-import org.springframework.security.oauth2.core.OAuth2TokenValidator;
-import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
-import org.springframework.security.oauth2.jwt.*;
-import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.jwt.JwtDecoders;
-import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
 
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
 /**
  * OAuth2 login service: trao đổi code lấy token, lấy profile, gắn role và phát hành JWT nội bộ.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class Oauth2LoginService {
 
+    private static final String UNKNOWN_PROVIDER = "unknown";
+
+    // Chụp mọi ThreadLocalAccessor đã đăng ký (observation, MDC...) lúc submit, khôi phục trên virtual thread
+    private static final ContextSnapshotFactory CONTEXT_SNAPSHOTS = ContextSnapshotFactory.builder().build();
+
     private final ClientRegistrationRepository clientRegistrationRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final TokenStorageService tokenStorageService;
     private final JwtProperties jwtProperties;
-    private final RestTemplate restTemplate;
+    private final OAuthHttpClients httpClients;
+    private final OAuthProfileResolvers profileResolvers;
+    private final OAuthIdentityService identityService;
+    private final MeterRegistry meterRegistry;
+
+    // Callback chủ yếu chờ I/O (provider, Redis, MySQL): mỗi callback một virtual thread,
+    // số login đồng thời không bị giới hạn bởi thread pool của Tomcat.
+    // ContextExecutorService mang observation hiện tại sang virtual thread: span callback vẫn nằm trong trace request
+    private final ExecutorService callbackExecutor = ContextExecutorService.wrap(Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("oauth-callback-", 0).factory()), CONTEXT_SNAPSHOTS::captureAll);
+
+    // Admission control: endpoint callback là public, virtual thread không tự giới hạn số callback đang chờ
+    // provider (mỗi callback giữ HTTP connection, bộ nhớ và async context của Tomcat)
+    private final Semaphore callbackPermits;
+
+    public Oauth2LoginService(ClientRegistrationRepository clientRegistrationRepository, UserRepository userRepository,
+                              PasswordEncoder passwordEncoder, JwtService jwtService,
+                              TokenStorageService tokenStorageService, JwtProperties jwtProperties,
+                              OAuthHttpClients httpClients, OAuthProfileResolvers profileResolvers,
+                              OAuthIdentityService identityService, OAuthProperties oauthProperties,
+                              MeterRegistry meterRegistry) {
+        this.clientRegistrationRepository = clientRegistrationRepository;
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jwtService = jwtService;
+        this.tokenStorageService = tokenStorageService;
+        this.jwtProperties = jwtProperties;
+        this.httpClients = httpClients;
+        this.profileResolvers = profileResolvers;
+        this.identityService = identityService;
+        this.meterRegistry = meterRegistry;
+        this.callbackPermits = new Semaphore(oauthProperties.getMaxConcurrentCallbacks());
+    }
+
+    /**
+     * Chạy callback trên virtual thread, trả Tomcat thread về pool ngay (Servlet async)
+     *
+     * @throws ServiceUnavailableException đã đủ app.oauth.max-concurrent-callbacks callback đang xử lý (503)
+     */
+    public CompletableFuture<AuthResponse> handleCallbackAsync(String providerId, String code, String redirectUri) {
+        // Không chờ permit: từ chối ngay trên Tomcat thread, client retry sau
+        if (!callbackPermits.tryAcquire()) {
+            throw new ServiceUnavailableException("Hệ thống đang xử lý quá nhiều đăng nhập, vui lòng thử lại sau");
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> handleCallback(providerId, code, redirectUri), callbackExecutor)
+                    .whenComplete((response, error) -> callbackPermits.release());
+        } catch (RuntimeException e) {
+            // Executor đã shutdown: task không chạy, trả permit
+            callbackPermits.release();
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        callbackExecutor.close();
+    }
 
     public AuthResponse handleCallback(String providerId, String code, String redirectUri) {
-        ClientRegistration registration = findRegistration(providerId);
-        Map<String, Object> tokenResponse = exchangeCodeForToken(registration, code, redirectUri);
-        OAuthProfile profile = fetchProfile(providerId, registration, tokenResponse);
-        User user = upsertUser(profile);
-        return issueTokens(user);
+        // oauth.login: tổng thời gian callback (token exchange + verify id_token + upsert + phát hành JWT)
+        Timer.Sample sample = Timer.start(meterRegistry);
+        // providerId là path variable của endpoint public: chỉ dùng làm tag sau khi khớp một registration,
+        // không thì mỗi path ngẫu nhiên sinh thêm một series
+        String provider = UNKNOWN_PROVIDER;
+        String outcome = "failure";
+        try {
+            ClientRegistration registration = findRegistration(providerId);
+            String registrationId = registration.getRegistrationId();
+            provider = registrationId;
+            // Mỗi phase là một JFR event OAuthPhase (provider, phase, outcome)
+            Map<String, Object> tokenResponse = OAuthPhaseEvent.record(registrationId, "token_exchange",
+                    () -> exchangeCodeForToken(registration, code, redirectUri));
+            // Profile theo registration: resolver riêng hoặc claim của id_token (OIDC)
+            OAuthProfile profile = OAuthPhaseEvent.record(registrationId, "profile",
+                    () -> profileResolvers.resolve(registration, tokenResponse));
+            User user = OAuthPhaseEvent.record(registrationId, "upsert", () -> upsertUser(profile));
+            AuthResponse response = OAuthPhaseEvent.record(registrationId, "issue_tokens", () -> issueTokens(user));
+            outcome = "success";
+            return response;
+        } finally {
+            sample.stop(Timer.builder("oauth.login")
+                    .description("Thời gian xử lý OAuth2 callback")
+                    .tag("provider", provider)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
     }
 
     private ClientRegistration findRegistration(String providerId) {
@@ -86,7 +168,7 @@ public class Oauth2LoginService {
         headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
 
         @SuppressWarnings("unchecked")
-        Map<String, Object> response = restTemplate.postForObject(
+        Map<String, Object> response = httpClients.forProvider(registration.getRegistrationId()).postForObject(
                 registration.getProviderDetails().getTokenUri(),
                 new HttpEntity<>(body, headers),
                 Map.class
@@ -98,78 +180,29 @@ public class Oauth2LoginService {
         return response;
     }
 
-    private OAuthProfile fetchProfile(String providerId, ClientRegistration registration, Map<String, Object> tokenResponse) {
-        if ("google".equalsIgnoreCase(providerId)) {
-            return fetchGoogleProfile(registration, tokenResponse);
-        }
-        if ("facebook".equalsIgnoreCase(providerId)) {
-            return fetchFacebookProfile(registration, tokenResponse);
-        }
-        throw new BadRequestException("Provider không được hỗ trợ");
-    }
-
-    private OAuthProfile fetchGoogleProfile(ClientRegistration registration, Map<String, Object> tokenResponse) {
-        String idToken = (String) tokenResponse.get("id_token");
-        if (idToken == null) {
-            throw new UnauthorizedException("Google không trả về id_token");
-        }
-
-        JwtDecoder decoder = buildGoogleDecoder(registration.getClientId());
-        Jwt jwt = decoder.decode(idToken);
-
-        String sub = jwt.getSubject();
-        String email = jwt.getClaimAsString("email");
-        String name = jwt.getClaimAsString("name");
-        String picture = jwt.getClaimAsString("picture");
-
-        if (email == null || email.isBlank()) {
-            throw new UnauthorizedException("Google không cung cấp email");
-        }
-
-        return new OAuthProfile("google", sub, email, name, picture);
-    }
-
-    private OAuthProfile fetchFacebookProfile(ClientRegistration registration, Map<String, Object> tokenResponse) {
-        String accessToken = (String) tokenResponse.get("access_token");
-        if (accessToken == null) {
-            throw new UnauthorizedException("Facebook không trả về access_token");
-        }
-
-        String userInfoUri = registration.getProviderDetails().getUserInfoEndpoint().getUri();
-        String uri = userInfoUri + (userInfoUri.contains("?") ? "&" : "?") + "access_token=" + accessToken;
-
-        @SuppressWarnings("unchecked")
-        Map<String, Object> profile = restTemplate.getForObject(uri, Map.class);
-        if (profile == null || profile.get("id") == null) {
-            throw new UnauthorizedException("Không lấy được thông tin người dùng Facebook");
-        }
-
-        String id = String.valueOf(profile.get("id"));
-        String name = profile.get("name") != null ? profile.get("name").toString() : null;
-        String email = profile.get("email") != null ? profile.get("email").toString() : null;
-        String picture = extractFacebookPicture(profile);
-
-        if (email == null || email.isBlank()) {
-            throw new UnauthorizedException("Facebook chưa cung cấp email (cần cấp quyền email)");
+    private User upsertUser(OAuthProfile profile) {
+        // Identity đã liên kết: nhận ra theo subject của provider, không phụ thuộc email
+        Optional<User> linked = identityService.findLinkedUser(profile);
+        if (linked.isPresent()) {
+            User user = linked.get();
+            if (!user.isActive()) {
+                throw new UnauthorizedException("Tài khoản đã bị vô hiệu hóa");
+            }
+            return user;
         }
 
-        return new OAuthProfile("facebook", id, email, name, picture);
+        // Lần đầu login bằng provider này: liên kết với tài khoản cùng email hoặc tạo mới
+        User user = findOrCreateByEmail(profile);
+        identityService.link(user, profile);
+        return user;
     }
 
-    private String extractFacebookPicture(Map<String, Object> profile) {
-        Object pictureObj = profile.get("picture");
-        if (!(pictureObj instanceof Map<?, ?> pictureMap)) {
-            return null;
+    private User findOrCreateByEmail(OAuthProfile profile) {
+        // Email chưa xác minh: liên kết sẽ cho người khác chiếm tài khoản cùng email, tạo mới thì chặn chủ thật
+        // (lần login sau với email đã xác minh sẽ liên kết vào tài khoản đó)
+        if (profile.email() != null && !profile.emailVerified()) {
+            throw new UnauthorizedException("Email chưa được nhà cung cấp xác minh");
         }
-        Object dataObj = pictureMap.get("data");
-        if (!(dataObj instanceof Map<?, ?> dataMap)) {
-            return null;
-        }
-        Object urlObj = dataMap.get("url");
-        return urlObj != null ? urlObj.toString() : null;
-    }
-
-    private User upsertUser(OAuthProfile profile) {
         Optional<User> existing = profile.email() != null ? userRepository.findByEmail(profile.email()) : Optional.empty();
 
         if (existing.isPresent()) {
@@ -223,25 +256,4 @@ public class Oauth2LoginService {
                         .build())
                 .build();
     }
-
-    private JwtDecoder buildGoogleDecoder(String clientId) {
-        NimbusJwtDecoder decoder = (NimbusJwtDecoder) JwtDecoders.fromOidcIssuerLocation("https://accounts.google.com");
-        OAuth2TokenValidator<Jwt> audienceValidator = token -> {
-            List<String> audiences = token.getAudience();
-            if (audiences != null && audiences.contains(clientId)) {
-                return OAuth2TokenValidatorResult.success();
-            }
-            return OAuth2TokenValidatorResult.failure(new OAuth2Error("invalid_token", "Audience mismatch", null));
-        };
-
-        DelegatingOAuth2TokenValidator<Jwt> validators = new DelegatingOAuth2TokenValidator<>(
-                new JwtTimestampValidator(),
-                audienceValidator
-        );
-        decoder.setJwtValidator(validators);
-        return decoder;
-    }
-
-    private record OAuthProfile(String provider, String providerUserId, String email, String name, String picture) {
-    }
 }
\ No newline at end of file
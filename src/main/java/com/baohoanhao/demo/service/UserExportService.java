@@ -0,0 +1,151 @@
+package com.baohoanhao.demo.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+/**
+ * Export toàn bộ users dưới dạng NDJSON (mỗi dòng một JSON object).
+ *
+ * - Keyset pagination theo (created_at, id) thay vì OFFSET: mỗi trang là một index range scan,
+ *   chi phí không tăng theo vị trí trang; created_at NOT NULL (V3) nên cursor luôn tiếp tục được
+ * - Mỗi trang bị LIMIT batch size, driver buffer tối đa một trang nên không cần fetch size / cursor fetch
+ * - Ghi thẳng ra OutputStream, bộ nhớ không phụ thuộc kích thước bảng
+ */
+@Service
+@Slf4j
+public class UserExportService {
+
+    private static final String COLUMNS =
+            "SELECT id, full_name, email, phone, role, active, created_at, updated_at FROM users ";
+
+    private static final String FIRST_PAGE_SQL = COLUMNS
+            + "ORDER BY created_at, id LIMIT ?";
+
+    private static final String NEXT_PAGE_SQL = COLUMNS
+            + "WHERE created_at > ? OR (created_at = ? AND id > ?) "
+            + "ORDER BY created_at, id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public UserExportService(JdbcTemplate jdbcTemplate,
+                             ObjectMapper objectMapper,
+                             @Value("${app.admin.export.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Ghi tất cả users ra stream, flush sau mỗi trang
+     *
+     * @return số dòng đã ghi
+     */
+    public long exportTo(OutputStream out) throws IOException {
+        long total = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            PageWriter page = new PageWriter(generator);
+            jdbcTemplate.query(statement(FIRST_PAGE_SQL, batchSize), page);
+
+            while (true) {
+                generator.flush();
+                total += page.count;
+                if (page.count < batchSize) {
+                    break;
+                }
+                if (page.lastCreatedAt == null) {
+                    // Không bao giờ xảy ra sau V3; thà lỗi còn hơn export thiếu mà vẫn log thành công
+                    throw new IllegalStateException("users.created_at NULL, keyset cursor không tiếp tục được");
+                }
+                PageWriter next = new PageWriter(generator);
+                jdbcTemplate.query(statement(NEXT_PAGE_SQL,
+                        page.lastCreatedAt, page.lastCreatedAt, page.lastId, batchSize), next);
+                page = next;
+            }
+        }
+
+        log.info("Exported {} users", total);
+        return total;
+    }
+
+    private static PreparedStatementCreator statement(String sql, Object... params) {
+        return connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            return ps;
+        };
+    }
+
+    /**
+     * Ghi từng row ra generator và nhớ (created_at, id) của row cuối làm cursor cho trang sau
+     */
+    private static final class PageWriter implements RowCallbackHandler {
+
+        private final JsonGenerator generator;
+        private int count;
+        private LocalDateTime lastCreatedAt;
+        private byte[] lastId;
+
+        private PageWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            byte[] id = rs.getBytes("id");
+            LocalDateTime createdAt = rs.getObject("created_at", LocalDateTime.class);
+            LocalDateTime updatedAt = rs.getObject("updated_at", LocalDateTime.class);
+            try {
+                generator.writeStartObject();
+                generator.writeStringField("id", toUuid(id).toString());
+                generator.writeStringField("fullName", rs.getString("full_name"));
+                generator.writeStringField("email", rs.getString("email"));
+                generator.writeStringField("phone", rs.getString("phone"));
+                generator.writeStringField("role", rs.getString("role"));
+                generator.writeBooleanField("active", rs.getBoolean("active"));
+                generator.writeStringField("createdAt", format(createdAt));
+                generator.writeStringField("updatedAt", format(updatedAt));
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            count++;
+            lastCreatedAt = createdAt;
+            lastId = id;
+        }
+
+        private static String format(LocalDateTime value) {
+            return value != null ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value) : null;
+        }
+
+        private static UUID toUuid(byte[] bytes) {
+            // Hibernate lưu UUID dạng BINARY(16) big-endian (most significant bits trước)
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            return new UUID(buffer.getLong(), buffer.getLong());
+        }
+    }
+}
@@ -1,20 +1,24 @@
 package com.baohoanhao.demo.service;
 
+import com.baohoanhao.demo.config.ReadYourWritesTracker;
 import com.baohoanhao.demo.dto.request.DeleteAccountRequest;
 import com.baohoanhao.demo.dto.request.UpdateProfileRequest;
 import com.baohoanhao.demo.dto.response.UserProfileResponse;
 import com.baohoanhao.demo.entity.Role;
 import com.baohoanhao.demo.entity.User;
 import com.baohoanhao.demo.exception.BadRequestException;
+import com.baohoanhao.demo.exception.ConflictException;
 import com.baohoanhao.demo.exception.ForbiddenException;
 import com.baohoanhao.demo.exception.ResourceNotFoundException;
 import com.baohoanhao.demo.repository.UserRepository;
 import com.baohoanhao.demo.security.TokenStorageService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
@@ -24,37 +28,63 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final TokenStorageService tokenStorageService;
+    private final ReadYourWritesTracker readYourWritesTracker;
 
     @Transactional
-    public UserProfileResponse updateProfile(String userId, UpdateProfileRequest request) {
-        UUID userUuid = parseUserId(userId);
-        User user = userRepository.findById(userUuid)
+    public UserProfileResponse updateProfile(UUID userId, UpdateProfileRequest request) {
+        User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy thông tin người dùng"));
 
-        if (request.getEmail() != null && !request.getEmail().equals(user.getEmail())) {
-            if (userRepository.existsByEmail(request.getEmail())) {
-                throw new BadRequestException("Email đã được sử dụng bởi tài khoản khác");
-            }
-            user.setEmail(request.getEmail());
+        String newEmail = request.getEmail() != null && !request.getEmail().equals(user.getEmail())
+                ? request.getEmail() : null;
+        String newPhone = request.getPhone() != null && !request.getPhone().equals(user.getPhone())
+                ? request.getPhone() : null;
+        boolean nameChanged = !Objects.equals(request.getFullName(), user.getFullName());
+
+        // Không có field nào đổi: không UPDATE, không bump updated_at, không invalidate cache
+        if (newEmail == null && newPhone == null && !nameChanged) {
+            return buildUserProfileResponse(user);
         }
 
-        if (request.getPhone() != null && !request.getPhone().equals(user.getPhone())) {
-            if (userRepository.existsByPhone(request.getPhone())) {
-                throw new BadRequestException("Số điện thoại đã được sử dụng bởi tài khoản khác");
+        // Chỉ kiểm tra các field thay đổi, gộp email + phone vào một query;
+        // trùng ở pre-check hay ở constraint đều trả 409 giống nhau
+        if (newEmail != null || newPhone != null) {
+            String conflict = UserUniqueConstraints.conflictingField(
+                    userRepository.findContactConflicts(newEmail, newPhone), newEmail, newPhone, user.getId());
+            if (UserUniqueConstraints.EMAIL_FIELD.equals(conflict)) {
+                throw new ConflictException("Email", UserUniqueConstraints.EMAIL_FIELD, newEmail);
+            }
+            if (UserUniqueConstraints.PHONE_FIELD.equals(conflict)) {
+                throw new ConflictException("Số điện thoại", UserUniqueConstraints.PHONE_FIELD, newPhone);
             }
-            user.setPhone(request.getPhone());
         }
 
-        user.setFullName(request.getFullName());
-        userRepository.save(user);
+        if (newEmail != null) {
+            user.setEmail(newEmail);
+        }
+        if (newPhone != null) {
+            user.setPhone(newPhone);
+        }
+        if (nameChanged) {
+            user.setFullName(request.getFullName());
+        }
+
+        // Unique constraint là chốt chặn cuối cho race giữa pre-check và UPDATE
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw UserUniqueConstraints.translate(e, newEmail, newPhone);
+        }
+
+        // Các lần đọc profile ngay sau đó đi primary, tránh đọc bản cũ từ replica
+        readYourWritesTracker.markWrite(userId.toString());
 
         return buildUserProfileResponse(user);
     }
 
     @Transactional
-    public void deleteAccount(String userId, DeleteAccountRequest request) {
-        UUID userUuid = parseUserId(userId);
-        User user = userRepository.findById(userUuid)
+    public void deleteAccount(UUID userId, DeleteAccountRequest request) {
+        User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy thông tin người dùng"));
 
         if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
@@ -68,15 +98,8 @@ public class UserService {
         user.setActive(false);
         userRepository.save(user);
 
-        tokenStorageService.revokeAllUserTokens(userId);
-    }
-
-    private UUID parseUserId(String userId) {
-        try {
-            return UUID.fromString(userId);
-        } catch (IllegalArgumentException e) {
-            throw new BadRequestException("ID người dùng không hợp lệ");
-        }
+        tokenStorageService.revokeAllUserTokens(userId.toString());
+        readYourWritesTracker.markWrite(userId.toString());
     }
 
     private UserProfileResponse buildUserProfileResponse(User user) {
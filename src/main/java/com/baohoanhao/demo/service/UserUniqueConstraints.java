@@ -0,0 +1,76 @@
+package com.baohoanhao.demo.service;
+
+import com.baohoanhao.demo.exception.ConflictException;
+import com.baohoanhao.demo.repository.UserRepository.ContactView;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Unique constraints của bảng users (xem V1__Create_User_Table.sql).
+ *
+ * Constraint trong DB là nguồn sự thật duy nhất: pre-check chỉ để tránh bcrypt/flush vô ích,
+ * còn race giữa hai request đồng thời được bắt lúc INSERT/UPDATE và dịch sang ConflictException.
+ */
+final class UserUniqueConstraints {
+
+    static final String EMAIL_FIELD = "email";
+    static final String PHONE_FIELD = "phone";
+
+    private static final String EMAIL_CONSTRAINT = "uk_users_email";
+    private static final String PHONE_CONSTRAINT = "uk_users_phone";
+
+    private UserUniqueConstraints() {
+    }
+
+    /**
+     * Xác định field bị trùng từ kết quả findContactConflicts
+     *
+     * @param excludeUserId bỏ qua chính user đang cập nhật (null khi đăng ký)
+     * @return "email", "phone" hoặc null nếu không trùng
+     */
+    static String conflictingField(List<ContactView> rows, String email, String phone, UUID excludeUserId) {
+        String field = null;
+        for (ContactView row : rows) {
+            if (excludeUserId != null && excludeUserId.equals(row.getId())) {
+                continue;
+            }
+            // Collation MySQL mặc định không phân biệt hoa thường với email
+            if (email != null && email.equalsIgnoreCase(row.getEmail())) {
+                return EMAIL_FIELD;
+            }
+            if (phone != null && phone.equals(row.getPhone())) {
+                field = PHONE_FIELD;
+            }
+        }
+        return field;
+    }
+
+    /**
+     * Dịch vi phạm unique constraint sang ConflictException đúng field.
+     * Trả lại chính exception gốc nếu không phải constraint của email/phone.
+     */
+    static RuntimeException translate(DataIntegrityViolationException ex, String email, String phone) {
+        String constraint = constraintName(ex);
+        if (constraint.contains(EMAIL_CONSTRAINT)) {
+            return new ConflictException("Email", EMAIL_FIELD, email);
+        }
+        if (constraint.contains(PHONE_CONSTRAINT)) {
+            return new ConflictException("Số điện thoại", PHONE_FIELD, phone);
+        }
+        return ex;
+    }
+
+    private static String constraintName(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException cve && cve.getConstraintName() != null) {
+                return cve.getConstraintName();
+            }
+        }
+        // MySQL: "Duplicate entry 'x' for key 'users.uk_users_email'"
+        String message = ex.getMostSpecificCause().getMessage();
+        return message != null ? message : "";
+    }
+}
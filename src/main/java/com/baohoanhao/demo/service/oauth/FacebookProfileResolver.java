@@ -0,0 +1,62 @@
+package com.baohoanhao.demo.service.oauth;
+
+import com.baohoanhao.demo.exception.UnauthorizedException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Facebook Graph API: một request /me?fields=id,name,email,picture (picture nằm sẵn trong response)
+ */
+@Component
+@RequiredArgsConstructor
+public class FacebookProfileResolver implements OAuthProfileResolver {
+
+    private final OAuthUserInfoClient userInfoClient;
+
+    @Override
+    public String registrationId() {
+        return "facebook";
+    }
+
+    @Override
+    public OAuthProfile resolve(ClientRegistration registration, Map<String, Object> tokenResponse) {
+        String accessToken = (String) tokenResponse.get(OAuth2ParameterNames.ACCESS_TOKEN);
+        if (accessToken == null) {
+            throw new UnauthorizedException("Facebook không trả về access_token");
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> profile = userInfoClient.fetch(registration,
+                registration.getProviderDetails().getUserInfoEndpoint().getUri(), accessToken, Map.class);
+        if (profile.get("id") == null) {
+            throw new UnauthorizedException("Không lấy được thông tin người dùng Facebook");
+        }
+
+        String email = profile.get("email") != null ? profile.get("email").toString() : null;
+        if (email == null || email.isBlank()) {
+            throw new UnauthorizedException("Facebook chưa cung cấp email (cần cấp quyền email)");
+        }
+
+        String name = profile.get("name") != null ? profile.get("name").toString() : null;
+        // Graph API chỉ trả email đã được Facebook xác nhận
+        return new OAuthProfile(registrationId(), String.valueOf(profile.get("id")), email, true, name,
+                extractPicture(profile));
+    }
+
+    private static String extractPicture(Map<String, Object> profile) {
+        Object pictureObj = profile.get("picture");
+        if (!(pictureObj instanceof Map<?, ?> pictureMap)) {
+            return null;
+        }
+        Object dataObj = pictureMap.get("data");
+        if (!(dataObj instanceof Map<?, ?> dataMap)) {
+            return null;
+        }
+        Object urlObj = dataMap.get("url");
+        return urlObj != null ? urlObj.toString() : null;
+    }
+}
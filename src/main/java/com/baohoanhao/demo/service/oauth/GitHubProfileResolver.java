@@ -0,0 +1,70 @@
+package com.baohoanhao.demo.service.oauth;
+
+import com.baohoanhao.demo.exception.UnauthorizedException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * GitHub: /user không trả email khi người dùng để email private → cần thêm /user/emails
+ * Hai request chạy song song, latency = request chậm hơn thay vì tổng hai request
+ */
+@Component
+@RequiredArgsConstructor
+public class GitHubProfileResolver implements OAuthProfileResolver {
+
+    private final OAuthUserInfoClient userInfoClient;
+
+    @Override
+    public String registrationId() {
+        return "github";
+    }
+
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public OAuthProfile resolve(ClientRegistration registration, Map<String, Object> tokenResponse) {
+        String accessToken = (String) tokenResponse.get(OAuth2ParameterNames.ACCESS_TOKEN);
+        if (accessToken == null) {
+            throw new UnauthorizedException("GitHub không trả về access_token");
+        }
+
+        String userUri = registration.getProviderDetails().getUserInfoEndpoint().getUri();
+        CompletableFuture<Map> userFuture = userInfoClient.fetchAsync(registration, userUri, accessToken, Map.class);
+        CompletableFuture<List> emailsFuture = userInfoClient.fetchAsync(registration, userUri + "/emails",
+                accessToken, List.class);
+
+        Map<String, Object> user = OAuthUserInfoClient.await(userFuture);
+        if (user.get("id") == null) {
+            throw new UnauthorizedException("Không lấy được thông tin người dùng GitHub");
+        }
+
+        String email = primaryVerifiedEmail(OAuthUserInfoClient.await(emailsFuture));
+        if (email == null) {
+            throw new UnauthorizedException("GitHub chưa cung cấp email đã xác minh (cần quyền user:email)");
+        }
+
+        String name = user.get("name") != null ? user.get("name").toString() : (String) user.get("login");
+        String avatar = user.get("avatar_url") != null ? user.get("avatar_url").toString() : null;
+        return new OAuthProfile(registrationId(), String.valueOf(user.get("id")), email, true, name, avatar);
+    }
+
+    private static String primaryVerifiedEmail(List<?> emails) {
+        String verified = null;
+        for (Object item : emails) {
+            if (item instanceof Map<?, ?> entry && Boolean.TRUE.equals(entry.get("verified")) && entry.get("email") != null) {
+                if (Boolean.TRUE.equals(entry.get("primary"))) {
+                    return entry.get("email").toString();
+                }
+                if (verified == null) {
+                    verified = entry.get("email").toString();
+                }
+            }
+        }
+        return verified;
+    }
+}
@@ -0,0 +1,141 @@
+package com.baohoanhao.demo.service.oauth;
+
+import com.baohoanhao.demo.config.OAuthProperties;
+import com.baohoanhao.demo.entity.User;
+import com.baohoanhao.demo.entity.UserIdentity;
+import com.baohoanhao.demo.repository.UserIdentityRepository;
+import com.baohoanhao.demo.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Liên kết OAuth identity (provider, subject) với User
+ *
+ * - Redis oauth_identity:{provider}:{subject} = "{userId}|{fingerprint profile}": login lặp lại chỉ cần
+ *   GET Redis + findById (PK, L2 cache), fingerprint khớp thì không ghi gì
+ * - Cache miss: một query trên unique index (provider, provider_user_id), join users
+ * - Email / tên / ảnh phía provider thay đổi: một UPDATE user_identities, user vẫn được nhận ra theo subject
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OAuthIdentityService {
+
+    private static final String IDENTITY_PREFIX = "oauth_identity:";
+
+    private final UserIdentityRepository identityRepository;
+    private final UserRepository userRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final OAuthProperties properties;
+
+    /**
+     * User đã liên kết với identity của profile (profile lưu trong identity được đồng bộ nếu đổi)
+     */
+    public Optional<User> findLinkedUser(OAuthProfile profile) {
+        String key = cacheKey(profile);
+        String fingerprint = fingerprint(profile);
+
+        CachedLink cached = readCache(key);
+        if (cached != null && cached.fingerprint().equals(fingerprint)) {
+            Optional<User> user = userRepository.findById(cached.userId());
+            if (user.isPresent()) {
+                return user;
+            }
+        }
+
+        Optional<UserIdentity> identity = identityRepository.findWithUser(profile.provider(), profile.providerUserId());
+        if (identity.isEmpty()) {
+            return Optional.empty();
+        }
+        UserIdentity linked = identity.get();
+        if (profileChanged(linked, profile)) {
+            identityRepository.updateProfile(linked.getId(), profile.email(), profile.name(), profile.picture());
+            log.debug("Updated {} identity profile for user: {}", profile.provider(), linked.getUser().getId());
+        }
+        writeCache(key, linked.getUser().getId(), fingerprint);
+        return Optional.of(linked.getUser());
+    }
+
+    /**
+     * Liên kết identity với user (lần đầu login bằng provider này)
+     */
+    public void link(User user, OAuthProfile profile) {
+        try {
+            identityRepository.save(UserIdentity.builder()
+                    .user(user)
+                    .provider(profile.provider())
+                    .providerUserId(profile.providerUserId())
+                    .email(profile.email())
+                    .displayName(profile.name())
+                    .pictureUrl(profile.picture())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Callback đồng thời đã liên kết trước, lần login sau sẽ đọc từ DB
+            log.debug("{} identity already linked: {}", profile.provider(), e.getMostSpecificCause().getMessage());
+            return;
+        }
+        writeCache(cacheKey(profile), user.getId(), fingerprint(profile));
+    }
+
+    private static boolean profileChanged(UserIdentity identity, OAuthProfile profile) {
+        return !Objects.equals(identity.getEmail(), profile.email())
+                || !Objects.equals(identity.getDisplayName(), profile.name())
+                || !Objects.equals(identity.getPictureUrl(), profile.picture());
+    }
+
+    // Redis chỉ là cache: lỗi kết nối thì đọc DB
+    private CachedLink readCache(String key) {
+        try {
+            Object value = redisTemplate.opsForValue().get(key);
+            return value != null ? CachedLink.parse(value.toString()) : null;
+        } catch (DataAccessException e) {
+            log.warn("Identity cache read failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeCache(String key, UUID userId, String fingerprint) {
+        try {
+            redisTemplate.opsForValue().set(key, userId + "|" + fingerprint, properties.getIdentityCacheTtl());
+        } catch (DataAccessException e) {
+            log.warn("Identity cache write failed: {}", e.getMessage());
+        }
+    }
+
+    private static String cacheKey(OAuthProfile profile) {
+        return IDENTITY_PREFIX + profile.provider() + ":" + profile.providerUserId();
+    }
+
+    private static String fingerprint(OAuthProfile profile) {
+        String fields = profile.email() + '\u0000' + profile.name() + '\u0000' + profile.picture();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fields.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record CachedLink(UUID userId, String fingerprint) {
+
+        static CachedLink parse(String value) {
+            int separator = value.indexOf('|');
+            if (separator < 0) {
+                return null;
+            }
+            return new CachedLink(UUID.fromString(value.substring(0, separator)), value.substring(separator + 1));
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.baohoanhao.demo.service.oauth;
+
+/**
+ * Profile người dùng lấy từ OAuth provider (provider = registration id)
+ *
+ * emailVerified: provider xác nhận người dùng sở hữu email; chỉ khi đó mới được liên kết / tạo tài khoản theo email
+ */
+public record OAuthProfile(String provider, String providerUserId, String email, boolean emailVerified, String name,
+                           String picture) {
+}
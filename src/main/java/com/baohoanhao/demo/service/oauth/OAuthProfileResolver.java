@@ -0,0 +1,19 @@
+package com.baohoanhao.demo.service.oauth;
+
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+
+import java.util.Map;
+
+/**
+ * SPI lấy profile từ token response của một provider, khớp theo registration id
+ *
+ * Chỉ cần cho provider không phải OIDC (Facebook, GitHub...): provider OIDC (Google, Microsoft...)
+ * được OidcProfileResolver xử lý từ id_token, không cần bean riêng.
+ * Request tới provider đi qua OAuthUserInfoClient (cache + gọi song song).
+ */
+public interface OAuthProfileResolver {
+
+    String registrationId();
+
+    OAuthProfile resolve(ClientRegistration registration, Map<String, Object> tokenResponse);
+}
@@ -0,0 +1,42 @@
+package com.baohoanhao.demo.service.oauth;
+
+import com.baohoanhao.demo.exception.BadRequestException;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.oidc.OidcScopes;
+import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Chọn resolver cho một registration:
+ * 1. OAuthProfileResolver khai báo cho registration id đó
+ * 2. Registration có scope openid và token response có id_token → OidcProfileResolver
+ */
+@Component
+public class OAuthProfileResolvers {
+
+    private final Map<String, OAuthProfileResolver> resolvers;
+    private final OidcProfileResolver oidcResolver;
+
+    public OAuthProfileResolvers(List<OAuthProfileResolver> resolvers, OidcProfileResolver oidcResolver) {
+        this.resolvers = resolvers.stream()
+                .collect(Collectors.toUnmodifiableMap(OAuthProfileResolver::registrationId, Function.identity()));
+        this.oidcResolver = oidcResolver;
+    }
+
+    public OAuthProfile resolve(ClientRegistration registration, Map<String, Object> tokenResponse) {
+        OAuthProfileResolver resolver = resolvers.get(registration.getRegistrationId());
+        if (resolver != null) {
+            return resolver.resolve(registration, tokenResponse);
+        }
+        if (registration.getScopes().contains(OidcScopes.OPENID)
+                && tokenResponse.get(OidcParameterNames.ID_TOKEN) instanceof String) {
+            return oidcResolver.resolve(registration, tokenResponse);
+        }
+        throw new BadRequestException("Provider không được hỗ trợ");
+    }
+}
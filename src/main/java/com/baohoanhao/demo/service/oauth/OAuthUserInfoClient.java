@@ -0,0 +1,124 @@
+package com.baohoanhao.demo.service.oauth;
+
+import com.baohoanhao.demo.config.OAuthHttpClients;
+import com.baohoanhao.demo.config.OAuthProperties;
+import com.baohoanhao.demo.exception.UnauthorizedException;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Gọi userinfo / API profile của provider bằng access token (Authorization: Bearer)
+ *
+ * - Response được cache theo (provider, SHA-256 access token, uri): callback retry với cùng token
+ *   không gọi lại provider; token thô không nằm trong cache key
+ * - fetchAsync chạy trên virtual thread để resolver cần nhiều request (profile + email / avatar) gọi song song
+ * - Metric oauth.userinfo.cache (provider, result = hit | miss)
+ */
+@Component
+public class OAuthUserInfoClient implements DisposableBean {
+
+    private static final String CACHE_ALIAS = "oauth-userinfo";
+
+    // Chụp mọi ThreadLocalAccessor đã đăng ký (observation, MDC...) lúc submit, khôi phục trên virtual thread
+    private static final ContextSnapshotFactory CONTEXT_SNAPSHOTS = ContextSnapshotFactory.builder().build();
+
+    private final OAuthHttpClients httpClients;
+    private final MeterRegistry meterRegistry;
+    private final CacheManager cacheManager;
+    private final Cache<String, Object> cache;
+    // Giữ trace context của callback khi fetch song song trên virtual thread
+    private final ExecutorService executor = ContextExecutorService.wrap(Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("oauth-userinfo-", 0).factory()), CONTEXT_SNAPSHOTS::captureAll);
+
+    public OAuthUserInfoClient(OAuthHttpClients httpClients, OAuthProperties properties, MeterRegistry meterRegistry) {
+        this.httpClients = httpClients;
+        this.meterRegistry = meterRegistry;
+        OAuthProperties.UserInfo userInfo = properties.getUserInfo();
+        this.cacheManager = CacheManagerBuilder.newCacheManagerBuilder()
+                .withCache(CACHE_ALIAS, CacheConfigurationBuilder
+                        .newCacheConfigurationBuilder(String.class, Object.class,
+                                ResourcePoolsBuilder.heap(userInfo.getCacheMaxEntries()))
+                        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(userInfo.getCacheTtl())))
+                .build(true);
+        this.cache = cacheManager.getCache(CACHE_ALIAS, String.class, Object.class);
+    }
+
+    public <T> T fetch(ClientRegistration registration, String uri, String accessToken, Class<T> responseType) {
+        String registrationId = registration.getRegistrationId();
+        String key = registrationId + '|' + hash(accessToken) + '|' + uri;
+        Object cached = cache.get(key);
+        if (responseType.isInstance(cached)) {
+            meterRegistry.counter("oauth.userinfo.cache", "provider", registrationId, "result", "hit").increment();
+            return responseType.cast(cached);
+        }
+        meterRegistry.counter("oauth.userinfo.cache", "provider", registrationId, "result", "miss").increment();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(accessToken);
+        // GET idempotent: retry có backoff khi lỗi tạm thời (xem OAuthHttpClients)
+        T response = httpClients.forProvider(registrationId)
+                .exchange(uri, HttpMethod.GET, new HttpEntity<>(headers), responseType)
+                .getBody();
+        if (response == null) {
+            throw new UnauthorizedException("Không lấy được thông tin người dùng " + registration.getClientName());
+        }
+        cache.put(key, response);
+        return response;
+    }
+
+    public <T> CompletableFuture<T> fetchAsync(ClientRegistration registration, String uri, String accessToken,
+                                               Class<T> responseType) {
+        return CompletableFuture.supplyAsync(() -> fetch(registration, uri, accessToken, responseType), executor);
+    }
+
+    /**
+     * Chờ kết quả fetchAsync, ném lại exception gốc (UnauthorizedException, RestClientException...)
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.close();
+        cacheManager.close();
+    }
+
+    private static String hash(String accessToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(accessToken.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
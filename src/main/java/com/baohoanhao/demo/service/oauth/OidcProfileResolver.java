@@ -0,0 +1,42 @@
+package com.baohoanhao.demo.service.oauth;
+
+import com.baohoanhao.demo.exception.UnauthorizedException;
+import com.baohoanhao.demo.security.OidcJwtDecoderCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.oidc.StandardClaimNames;
+import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Provider OIDC bất kỳ: profile lấy từ claim chuẩn của id_token, không gọi userinfo
+ */
+@Component
+@RequiredArgsConstructor
+public class OidcProfileResolver {
+
+    private final OidcJwtDecoderCache jwtDecoderCache;
+
+    public OAuthProfile resolve(ClientRegistration registration, Map<String, Object> tokenResponse) {
+        String idToken = (String) tokenResponse.get(OidcParameterNames.ID_TOKEN);
+        if (idToken == null) {
+            throw new UnauthorizedException(registration.getClientName() + " không trả về id_token");
+        }
+
+        // Decoder + JWK set được cache theo registration, không discovery lại mỗi lần login
+        Jwt jwt = jwtDecoderCache.decoderFor(registration).decode(idToken);
+
+        String email = jwt.getClaimAsString(StandardClaimNames.EMAIL);
+        if (email == null || email.isBlank()) {
+            throw new UnauthorizedException(registration.getClientName() + " không cung cấp email");
+        }
+
+        // Thiếu claim email_verified coi như chưa xác minh
+        boolean emailVerified = Boolean.TRUE.equals(jwt.getClaimAsBoolean(StandardClaimNames.EMAIL_VERIFIED));
+        return new OAuthProfile(registration.getRegistrationId(), jwt.getSubject(), email, emailVerified,
+                jwt.getClaimAsString(StandardClaimNames.NAME), jwt.getClaimAsString(StandardClaimNames.PICTURE));
+    }
+}
@@ -0,0 +1,74 @@
+package com.baohoanhao.demo.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Đồng hồ độ phân giải millisecond cho timestamp của response
+ *
+ * LocalDateTime.now() cấp phát Instant + LocalDateTime (+ clone TimeZone) mỗi lần gọi; ở đây chỉ đọc
+ * System.currentTimeMillis() và tạo lại LocalDateTime + chuỗi ISO khi sang millisecond mới.
+ * Mọi response trong cùng millisecond dùng chung một instance và một chuỗi đã format.
+ */
+public final class CoarseClock {
+
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private static volatile Tick current = tick(System.currentTimeMillis());
+
+    private CoarseClock() {
+    }
+
+    public static LocalDateTime now() {
+        return currentTick().time();
+    }
+
+    /**
+     * Chuỗi ISO_LOCAL_DATE_TIME; không format lại nếu là instance do now() trả về
+     */
+    public static String format(LocalDateTime time) {
+        Tick tick = current;
+        return tick.time() == time ? tick.iso() : FORMAT.format(time);
+    }
+
+    private static Tick currentTick() {
+        long millis = System.currentTimeMillis();
+        Tick tick = current;
+        if (tick.millis() != millis) {
+            // Race giữa các thread chỉ tạo thừa vài Tick, mỗi Tick là immutable
+            tick = tick(millis);
+            current = tick;
+        }
+        return tick;
+    }
+
+    private static Tick tick(long millis) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        return new Tick(millis, time, FORMAT.format(time));
+    }
+
+    private record Tick(long millis, LocalDateTime time, String iso) {
+    }
+
+    /**
+     * Serializer cho field timestamp: dùng chuỗi đã format của CoarseClock
+     */
+    public static class TimestampSerializer extends StdSerializer<LocalDateTime> {
+
+        public TimestampSerializer() {
+            super(LocalDateTime.class);
+        }
+
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeString(format(value));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.baohoanhao.demo.util;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Giới hạn số log cùng loại theo cửa sổ thời gian (cho log có thể bị spam từ bên ngoài, vd token không hợp lệ)
+ *
+ * Mỗi cửa sổ interval ghi tối đa permitsPerInterval dòng, phần còn lại chỉ được đếm; dòng đầu tiên của
+ * cửa sổ sau kèm số message đã bỏ qua. Không khoá: vài dòng vượt giới hạn khi race lúc đổi cửa sổ là chấp nhận được.
+ */
+public final class RateLimitedLogger {
+
+    private final Logger delegate;
+    private final long intervalNanos;
+    private final int permitsPerInterval;
+
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger used = new AtomicInteger();
+    private final LongAdder suppressed = new LongAdder();
+
+    public RateLimitedLogger(Logger delegate, Duration interval, int permitsPerInterval) {
+        this.delegate = delegate;
+        this.intervalNanos = interval.toNanos();
+        this.permitsPerInterval = permitsPerInterval;
+    }
+
+    public void warn(String format, Object arg) {
+        if (!delegate.isWarnEnabled()) {
+            return;
+        }
+        if (!tryAcquire()) {
+            suppressed.increment();
+            return;
+        }
+        long dropped = suppressed.sumThenReset();
+        if (dropped > 0) {
+            delegate.warn(format + " ({} similar messages suppressed)", arg, dropped);
+        } else {
+            delegate.warn(format, arg);
+        }
+    }
+
+    /**
+     * Số message đang bị bỏ qua từ lần ghi trước
+     */
+    public long suppressedCount() {
+        return suppressed.sum();
+    }
+
+    private boolean tryAcquire() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= intervalNanos && windowStart.compareAndSet(start, now)) {
+            used.set(0);
+        }
+        return used.incrementAndGet() <= permitsPerInterval;
+    }
+}
@@ -0,0 +1,78 @@
+package com.baohoanhao.demo.util;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Pool nhỏ, có giới hạn, cho object scratch (buffer, Mac, MessageDigest) dùng lại giữa các request
+ *
+ * Thay cho ThreadLocal: với virtual thread mỗi request chạy trên một thread mới, ThreadLocal tạo scratch
+ * mới cho từng request và không bao giờ dùng lại. Pool giữ tối đa capacity object, không phụ thuộc số thread:
+ * - acquire: lấy object từ một slot (getAndSet null), pool rỗng thì tạo mới bằng factory
+ * - release: trả vào slot trống, pool đầy thì bỏ object cho GC
+ *
+ * Không lock, không cấp phát khi pool còn object. Object chỉ được giữ trong đoạn code không block,
+ * nên số object dùng đồng thời xấp xỉ số CPU; capacity mặc định 2 × số CPU.
+ */
+public final class ScratchPool<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final Supplier<T> factory;
+
+    public ScratchPool(Supplier<T> factory) {
+        this(factory, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public ScratchPool(Supplier<T> factory, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity phải >= 1");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.factory = factory;
+    }
+
+    public T acquire() {
+        int capacity = slots.length();
+        int start = startSlot(capacity);
+        for (int i = 0; i < capacity; i++) {
+            int slot = (start + i) % capacity;
+            // Đọc trước khi getAndSet: slot trống không bị ghi, tránh tranh chấp cache line
+            if (slots.getPlain(slot) != null) {
+                T value = slots.getAndSet(slot, null);
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+        return factory.get();
+    }
+
+    public void release(T value) {
+        int capacity = slots.length();
+        int start = startSlot(capacity);
+        for (int i = 0; i < capacity; i++) {
+            int slot = (start + i) % capacity;
+            if (slots.getPlain(slot) == null && slots.compareAndSet(slot, null, value)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Số object đang nằm trong pool
+     */
+    public int idle() {
+        int idle = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) {
+                idle++;
+            }
+        }
+        return idle;
+    }
+
+    // Các thread bắt đầu quét từ slot khác nhau để không cùng giành slot 0
+    private static int startSlot(int capacity) {
+        return (int) (Thread.currentThread().threadId() % capacity);
+    }
+}
@@ -0,0 +1,9 @@
+package com.baohoanhao.demo.validation;
+
+/**
+ * Kiểm tra mật khẩu đã xuất hiện trong dữ liệu bị rò rỉ hay chưa
+ */
+public interface BreachedPasswordChecker {
+
+    boolean isBreached(String password);
+}
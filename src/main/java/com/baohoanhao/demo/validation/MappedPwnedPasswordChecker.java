@@ -0,0 +1,181 @@
+package com.baohoanhao.demo.validation;
+
+import com.baohoanhao.demo.util.ScratchPool;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Breached password check trên index SHA-1 memory-mapped (định dạng xem PwnedPasswordIndex)
+ *
+ * - File map read-only theo chunk 1 GiB (MappedByteBuffer giới hạn 2 GiB), page cache của OS giữ phần nóng,
+ *   heap không phụ thuộc kích thước corpus
+ * - Lookup: encode UTF-8 + SHA-1 vào buffer lấy từ ScratchPool, binary search trên 64 bit đầu của hash, không cấp phát
+ * - Thời gian mở index được log lúc khởi động; latency lookup ở metric password.breached.lookup
+ */
+@Slf4j
+public final class MappedPwnedPasswordChecker implements BreachedPasswordChecker, AutoCloseable {
+
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final long count;
+    private final Timer lookupTimer;
+    private final ScratchPool<Scratch> scratch = new ScratchPool<>(Scratch::new);
+
+    public MappedPwnedPasswordChecker(Path indexFile, MeterRegistry meterRegistry) throws IOException {
+        long start = System.nanoTime();
+        this.channel = FileChannel.open(indexFile, StandardOpenOption.READ);
+        long size = channel.size();
+        if (size < PwnedPasswordIndex.HEADER_BYTES) {
+            throw new IOException("Index quá ngắn: " + indexFile);
+        }
+
+        int chunkCount = (int) ((size + CHUNK_MASK) >>> CHUNK_SHIFT);
+        this.chunks = new MappedByteBuffer[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            long position = (long) i << CHUNK_SHIFT;
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHUNK_MASK + 1, size - position));
+            chunks[i].order(ByteOrder.BIG_ENDIAN);
+        }
+
+        if (readLong(0) != PwnedPasswordIndex.MAGIC) {
+            throw new IOException("Không phải file index breached password: " + indexFile);
+        }
+        this.count = readLong(Long.BYTES);
+        if (PwnedPasswordIndex.HEADER_BYTES + count * PwnedPasswordIndex.RECORD_BYTES != size) {
+            throw new IOException("Kích thước index không khớp số bản ghi: " + indexFile);
+        }
+
+        this.lookupTimer = Timer.builder("password.breached.lookup")
+                .description("Latency tra cứu breached password trong index")
+                .register(meterRegistry);
+        Gauge.builder("password.breached.index.size", this, MappedPwnedPasswordChecker::size)
+                .description("Số hash trong breached password index")
+                .register(meterRegistry);
+        log.info("Breached password index mapped: {} hashes, {} MiB, opened in {} ms",
+                count, size >> 20, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Override
+    public boolean isBreached(String password) {
+        long start = System.nanoTime();
+        Scratch s = scratch.acquire();
+        long key;
+        try {
+            key = s.sha1Prefix(password);
+        } finally {
+            scratch.release(s);
+        }
+        boolean found = contains(key);
+        lookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return found;
+    }
+
+    public long size() {
+        return count;
+    }
+
+    boolean contains(long key) {
+        long low = 0;
+        long high = count - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            int compare = Long.compareUnsigned(readLong(PwnedPasswordIndex.HEADER_BYTES + mid * PwnedPasswordIndex.RECORD_BYTES), key);
+            if (compare < 0) {
+                low = mid + 1;
+            } else if (compare > 0) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Header và bản ghi đều căn 8 byte nên không long nào nằm vắt qua hai chunk
+    private long readLong(long position) {
+        return chunks[(int) (position >>> CHUNK_SHIFT)].getLong((int) (position & CHUNK_MASK));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static final class Scratch {
+
+        private final MessageDigest sha1;
+        private final byte[] digest = new byte[20];
+        private byte[] utf8 = new byte[128];
+
+        Scratch() {
+            try {
+                sha1 = MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-1 not available", e);
+            }
+        }
+
+        long sha1Prefix(String password) {
+            int length = encodeUtf8(password);
+            sha1.update(utf8, 0, length);
+            try {
+                sha1.digest(digest, 0, digest.length);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+            long key = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                key = (key << 8) | (digest[i] & 0xFF);
+            }
+            return key;
+        }
+
+        private int encodeUtf8(String value) {
+            int maxBytes = value.length() * 3;
+            if (utf8.length < maxBytes) {
+                utf8 = new byte[maxBytes];
+            }
+            int n = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    utf8[n++] = (byte) c;
+                } else if (c < 0x800) {
+                    utf8[n++] = (byte) (0xC0 | (c >> 6));
+                    utf8[n++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    utf8[n++] = (byte) (0xF0 | (codePoint >> 18));
+                    utf8[n++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    utf8[n++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    utf8[n++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    // Surrogate lẻ: String.getBytes(UTF_8) thay bằng '?'
+                    utf8[n++] = '?';
+                } else {
+                    utf8[n++] = (byte) (0xE0 | (c >> 12));
+                    utf8[n++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    utf8[n++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            return n;
+        }
+    }
+}
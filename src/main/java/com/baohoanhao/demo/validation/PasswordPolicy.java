@@ -0,0 +1,94 @@
+package com.baohoanhao.demo.validation;
+
+import com.baohoanhao.demo.config.PasswordPolicyProperties;
+
+/**
+ * Kiểm tra độ mạnh mật khẩu trong một lần duyệt, không cấp phát bộ nhớ
+ *
+ * Mỗi ký tự ASCII tra bảng lớp (hoa / thường / số / đặc biệt), gộp vào bitmask;
+ * đồng thời đếm byte UTF-8 để áp max-bytes. Input dài hơn max-bytes ký tự bị loại trước khi duyệt.
+ */
+public final class PasswordPolicy {
+
+    public enum Result {
+        VALID,
+        TOO_SHORT,
+        TOO_LONG,
+        MISSING_CHARACTER_CLASS
+    }
+
+    private static final byte UPPERCASE = 1;
+    private static final byte LOWERCASE = 1 << 1;
+    private static final byte DIGIT = 1 << 2;
+    private static final byte SPECIAL = 1 << 3;
+
+    private final byte[] classes = new byte[128];
+    private final int required;
+    private final int minLength;
+    private final int maxBytes;
+
+    private PasswordPolicy(PasswordPolicyProperties properties) {
+        for (char c = 'A'; c <= 'Z'; c++) {
+            classes[c] = UPPERCASE;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            classes[c] = LOWERCASE;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            classes[c] = DIGIT;
+        }
+        for (char c : properties.getSpecialCharacters().toCharArray()) {
+            if (c < classes.length) {
+                classes[c] |= SPECIAL;
+            }
+        }
+        this.required = (properties.isRequireUppercase() ? UPPERCASE : 0)
+                | (properties.isRequireLowercase() ? LOWERCASE : 0)
+                | (properties.isRequireDigit() ? DIGIT : 0)
+                | (properties.isRequireSpecial() ? SPECIAL : 0);
+        this.minLength = properties.getMinLength();
+        this.maxBytes = properties.getMaxBytes();
+    }
+
+    public static PasswordPolicy from(PasswordPolicyProperties properties) {
+        return new PasswordPolicy(properties);
+    }
+
+    public static PasswordPolicy defaults() {
+        return new PasswordPolicy(new PasswordPolicyProperties());
+    }
+
+    public int maxBytes() {
+        return maxBytes;
+    }
+
+    public Result check(CharSequence password) {
+        int length = password.length();
+        if (length < minLength) {
+            return Result.TOO_SHORT;
+        }
+        // Mỗi char ít nhất 1 byte UTF-8
+        if (length > maxBytes) {
+            return Result.TOO_LONG;
+        }
+
+        int seen = 0;
+        int bytes = 0;
+        for (int i = 0; i < length; i++) {
+            char c = password.charAt(i);
+            if (c < 0x80) {
+                seen |= classes[c];
+                bytes++;
+            } else if (c < 0x800 || Character.isSurrogate(c)) {
+                // Cặp surrogate = 4 byte, tính 2 cho mỗi nửa
+                bytes += 2;
+            } else {
+                bytes += 3;
+            }
+        }
+        if (bytes > maxBytes) {
+            return Result.TOO_LONG;
+        }
+        return (seen & required) == required ? Result.VALID : Result.MISSING_CHARACTER_CLASS;
+    }
+}
@@ -0,0 +1,141 @@
+package com.baohoanhao.demo.validation;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Định dạng file index SHA-1 dùng cho MappedPwnedPasswordChecker
+ *
+ * [8 byte magic "PWNIDX01"][8 byte số bản ghi n][n × 8 byte: 64 bit đầu của SHA-1, big-endian, sort unsigned]
+ *
+ * 64 bit đầu đủ phân biệt (xác suất trùng ngẫu nhiên ~ n / 2^64) mà chỉ tốn 8 byte / hash.
+ * Build từ corpus Pwned Passwords đã sort theo hash, đọc tuần tự nên bộ nhớ không phụ thuộc kích thước corpus:
+ * - thư mục range {prefix}.txt (dòng "{suffix 35 hex}:{count}")
+ * - hoặc một file "ordered by hash" (dòng "{hash 40 hex}:{count}")
+ *
+ * Chạy: java -cp app.jar -Dloader.main=com.baohoanhao.demo.validation.PwnedPasswordIndex
+ *       org.springframework.boot.loader.launch.PropertiesLauncher {input} {output.idx} [minOccurrences]
+ */
+public final class PwnedPasswordIndex {
+
+    static final long MAGIC = 0x50574E4944583031L; // "PWNIDX01"
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = Long.BYTES;
+
+    private static final int PREFIX_LENGTH = 5;
+    private static final int KEY_HEX_LENGTH = 16;
+
+    private PwnedPasswordIndex() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: PwnedPasswordIndex <range-directory|ordered-hash-file> <output.idx> [minOccurrences]");
+            System.exit(2);
+        }
+        int minOccurrences = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        long start = System.nanoTime();
+        long count = build(Path.of(args[0]), Path.of(args[1]), minOccurrences);
+        System.out.printf("Wrote %d hashes to %s in %d ms%n", count, args[1], (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * @return số hash đã ghi
+     * @throws IllegalArgumentException input không sort theo hash hoặc sai định dạng
+     */
+    public static long build(Path input, Path output, int minOccurrences) throws IOException {
+        Writer writer = new Writer(output, minOccurrences);
+        try (writer) {
+            if (Files.isDirectory(input)) {
+                for (Path rangeFile : rangeFiles(input)) {
+                    String fileName = rangeFile.getFileName().toString();
+                    writer.append(rangeFile, fileName.substring(0, PREFIX_LENGTH));
+                }
+            } else {
+                writer.append(input, "");
+            }
+        }
+        writer.writeCount();
+        return writer.count;
+    }
+
+    private static List<Path> rangeFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().matches("[0-9A-Fa-f]{5}\\.txt"))
+                    .sorted((a, b) -> a.getFileName().toString().compareToIgnoreCase(b.getFileName().toString()))
+                    .toList();
+        }
+    }
+
+    private static final class Writer implements AutoCloseable {
+
+        private final Path output;
+        private final int minOccurrences;
+        private final DataOutputStream out;
+        private final char[] key = new char[KEY_HEX_LENGTH];
+        private long count;
+        private long previous;
+
+        Writer(Path output, int minOccurrences) throws IOException {
+            this.output = output;
+            this.minOccurrences = minOccurrences;
+            OutputStream file = Files.newOutputStream(output);
+            this.out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16));
+            out.writeLong(MAGIC);
+            out.writeLong(0); // số bản ghi, ghi lại sau cùng
+        }
+
+        void append(Path source, String prefix) throws IOException {
+            prefix.getChars(0, prefix.length(), key, 0);
+            try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.US_ASCII)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int separator = line.indexOf(':');
+                    int hexLength = separator < 0 ? line.length() : separator;
+                    if (prefix.length() + hexLength != 40) {
+                        throw new IllegalArgumentException("Dòng không hợp lệ trong " + source.getFileName() + ": " + line);
+                    }
+                    if (separator > 0 && Integer.parseInt(line, separator + 1, line.length(), 10) < minOccurrences) {
+                        continue;
+                    }
+                    line.getChars(0, KEY_HEX_LENGTH - prefix.length(), key, prefix.length());
+                    long value = Long.parseUnsignedLong(new String(key), 16);
+                    if (count > 0) {
+                        int compare = Long.compareUnsigned(value, previous);
+                        if (compare < 0) {
+                            throw new IllegalArgumentException("Input chưa sort theo hash tại " + source.getFileName());
+                        }
+                        if (compare == 0) {
+                            continue;
+                        }
+                    }
+                    out.writeLong(value);
+                    previous = value;
+                    count++;
+                }
+            }
+        }
+
+        void writeCount() throws IOException {
+            try (FileChannel channel = FileChannel.open(output, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, count), Long.BYTES);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.baohoanhao.demo.validation;
+
+import com.baohoanhao.demo.config.PasswordPolicyProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Breached password check theo mô hình k-anonymity, dữ liệu local (định dạng range của Pwned Passwords)
+ *
+ * SHA-1 mật khẩu → 5 ký tự hex đầu chọn file {prefix}.txt (~ vài trăm dòng), duyệt tuần tự tìm 35 ký tự còn lại.
+ * File đã sort nên dừng ngay khi vượt qua suffix; chỉ giữ một dòng trong bộ nhớ.
+ * Lỗi đọc file → coi như không bị lộ (không chặn đăng ký vì dữ liệu phụ trợ).
+ */
+@Slf4j
+public class RangeFileBreachedPasswordChecker implements BreachedPasswordChecker {
+
+    private static final int PREFIX_LENGTH = 5;
+    private static final HexFormat HEX = HexFormat.of().withUpperCase();
+
+    private final Path rangeDirectory;
+    private final int minOccurrences;
+
+    public RangeFileBreachedPasswordChecker(PasswordPolicyProperties properties) {
+        PasswordPolicyProperties.Breached breached = properties.getBreached();
+        if (breached.getRangeDirectory() == null || !Files.isDirectory(breached.getRangeDirectory())) {
+            throw new IllegalStateException("app.password.breached.range-directory không hợp lệ: "
+                    + breached.getRangeDirectory());
+        }
+        this.rangeDirectory = breached.getRangeDirectory();
+        this.minOccurrences = breached.getMinOccurrences();
+    }
+
+    @Override
+    public boolean isBreached(String password) {
+        String hash = sha1Hex(password);
+        String suffix = hash.substring(PREFIX_LENGTH);
+        Path rangeFile = rangeDirectory.resolve(hash.substring(0, PREFIX_LENGTH) + ".txt");
+        try (BufferedReader reader = Files.newBufferedReader(rangeFile, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf(':');
+                if (separator < 0) {
+                    continue;
+                }
+                int compare = suffix.compareToIgnoreCase(line.substring(0, separator));
+                if (compare == 0) {
+                    return Integer.parseInt(line, separator + 1, line.length(), 10) >= minOccurrences;
+                }
+                if (compare < 0) {
+                    return false;
+                }
+            }
+            return false;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Breached password check failed for range {}: {}", rangeFile.getFileName(), e.getMessage());
+            return false;
+        }
+    }
+
+    private static String sha1Hex(String password) {
+        try {
+            return HEX.formatHex(MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+}
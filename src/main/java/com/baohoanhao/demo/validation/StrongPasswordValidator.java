@@ -1,19 +1,57 @@
 package com.baohoanhao.demo.validation;
 
+import com.baohoanhao.demo.config.PasswordPolicyProperties;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 
+/**
+ * Validator cho @StrongPassword: chính sách cấu hình qua app.password (xem PasswordPolicy),
+ * sau đó kiểm tra breached password nếu bật app.password.breached
+ */
 public class StrongPasswordValidator implements ConstraintValidator<StrongPassword, String> {
 
+    private final PasswordPolicy policy;
+    private final BreachedPasswordChecker breachedChecker;
+
+    // Dùng khi validator được tạo ngoài Spring (Validation.buildDefaultValidatorFactory)
+    public StrongPasswordValidator() {
+        this(PasswordPolicy.defaults(), null);
+    }
+
+    @Autowired
+    public StrongPasswordValidator(PasswordPolicyProperties properties,
+                                   ObjectProvider<BreachedPasswordChecker> breachedChecker) {
+        this(PasswordPolicy.from(properties), breachedChecker.getIfAvailable());
+    }
+
+    StrongPasswordValidator(PasswordPolicy policy, BreachedPasswordChecker breachedChecker) {
+        this.policy = policy;
+        this.breachedChecker = breachedChecker;
+    }
+
     @Override
     public boolean isValid(String password, ConstraintValidatorContext context) {
         if (password == null) return false;
-        // Regex kiểm tra độ mạnh mật khẩu
-        // (?=.*[0-9]): Ít nhất 1 số
-        // (?=.*[a-z]): Ít nhất 1 chữ thường
-        // (?=.*[A-Z]): Ít nhất 1 chữ hoa
-        // (?=.*[!@#$%^&*]): Ít nhất 1 ký tự đặc biệt
-        // .{8,}: Độ dài tối thiểu 8
-        return password.matches("^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[!@#$%^&*]).{8,}$");
+
+        PasswordPolicy.Result result = policy.check(password);
+        if (result == PasswordPolicy.Result.TOO_LONG) {
+            return reject(context, "Mật khẩu quá dài (tối đa " + policy.maxBytes() + " byte)");
+        }
+        if (result != PasswordPolicy.Result.VALID) {
+            return false;
+        }
+        // Chỉ hash SHA-1 + đọc file khi mật khẩu đã đạt chính sách
+        if (breachedChecker != null && breachedChecker.isBreached(password)) {
+            return reject(context, "Mật khẩu đã xuất hiện trong dữ liệu bị rò rỉ, vui lòng chọn mật khẩu khác");
+        }
+        return true;
+    }
+
+    private static boolean reject(ConstraintValidatorContext context, String message) {
+        context.disableDefaultConstraintViolation();
+        context.buildConstraintViolationWithTemplate(message).addConstraintViolation();
+        return false;
     }
-}
\ No newline at end of file
+}
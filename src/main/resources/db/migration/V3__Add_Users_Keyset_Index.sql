@@ -0,0 +1,7 @@
+-- Keyset cursor (created_at, id) yêu cầu created_at NOT NULL: NULL sắp trước mọi giá trị và
+-- "created_at > NULL" không khớp row nào, export sẽ dừng sớm. Backfill rồi thêm ràng buộc
+UPDATE users SET created_at = COALESCE(updated_at, CURRENT_TIMESTAMP) WHERE created_at IS NULL;
+ALTER TABLE users MODIFY created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+-- Index phục vụ keyset pagination (created_at, id) cho endpoint export users
+CREATE INDEX idx_users_created_at_id ON users (created_at, id);
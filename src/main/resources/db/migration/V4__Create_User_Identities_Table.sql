@@ -0,0 +1,23 @@
+-- Liên kết tài khoản OAuth: (provider, provider_user_id) → users.id
+-- Callback tìm user bằng một probe trên unique index, không phụ thuộc email phía provider
+CREATE TABLE user_identities (
+    id BINARY(16) NOT NULL PRIMARY KEY,
+    user_id BINARY(16) NOT NULL,
+
+    -- Registration id (google, facebook...) và subject / id của user phía provider
+    provider VARCHAR(50) NOT NULL,
+    provider_user_id VARCHAR(255) NOT NULL,
+
+    -- Profile lần login gần nhất, chỉ ghi lại khi có thay đổi
+    email VARCHAR(255),
+    display_name VARCHAR(100),
+    picture_url VARCHAR(1024),
+
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    CONSTRAINT uk_user_identities_provider_subject UNIQUE (provider, provider_user_id),
+    CONSTRAINT fk_user_identities_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_user_identities_user_id ON user_identities (user_id);
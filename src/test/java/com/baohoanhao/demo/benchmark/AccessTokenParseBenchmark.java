@@ -0,0 +1,71 @@
+package com.baohoanhao.demo.benchmark;
+
+import com.baohoanhao.demo.config.JwtProperties;
+import com.baohoanhao.demo.security.AccessTokenClaims;
+import com.baohoanhao.demo.security.AccessTokenFormat;
+import com.baohoanhao.demo.security.JwtService;
+import com.baohoanhao.demo.security.SigningKeyRing;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí verify access token trong JwtAuthenticationFilter: STANDARD (JJWT + Jackson)
+ * so với COMPACT (parser riêng), HS256
+ *
+ * Chạy: mvn test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.baohoanhao.demo.benchmark.AccessTokenParseBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccessTokenParseBenchmark {
+
+    @Param({"STANDARD", "COMPACT"})
+    private AccessTokenFormat format;
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecretKey("benchmark-secret-key-benchmark-secret-key-0123456789");
+        properties.setAccessTokenExpiration(3_600_000);
+        properties.setRefreshTokenExpiration(604_800_000);
+        properties.setAccessTokenFormat(format);
+
+        jwtService = new JwtService(properties, new SigningKeyRing(properties), new SimpleMeterRegistry());
+        token = jwtService.generateAccessToken(UUID.randomUUID(), "some.user.name@example.com", "USER");
+        System.out.printf("%n%s Authorization header: %d bytes%n", format, "Bearer ".length() + token.length());
+    }
+
+    @Benchmark
+    public AccessTokenClaims parseAccessToken() {
+        return jwtService.parseAccessToken(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AccessTokenParseBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,166 @@
+package com.baohoanhao.demo.benchmark;
+
+import com.baohoanhao.demo.config.PasswordPolicyProperties;
+import com.baohoanhao.demo.validation.MappedPwnedPasswordChecker;
+import com.baohoanhao.demo.validation.PwnedPasswordIndex;
+import com.baohoanhao.demo.validation.RangeFileBreachedPasswordChecker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Tra cứu breached password trên corpus sinh ngẫu nhiên:
+ * - rangeFile: RangeFileBreachedPasswordChecker, mở và duyệt file {prefix}.txt (RANGE_LINES dòng) mỗi lần
+ * - mappedIndex: MappedPwnedPasswordChecker, binary search trên index memory-mapped HASHES hash
+ * - mappedIndexVirtualThread: như mappedIndex nhưng mỗi lookup trên một virtual thread mới (gồm start + join)
+ *
+ * Chạy với -prof gc để xem alloc/op: mvn test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.baohoanhao.demo.benchmark.BreachedPasswordIndexBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BreachedPasswordIndexBenchmark {
+
+    private static final int HASHES = 1_000_000;
+    private static final int RANGE_LINES = 800;
+    private static final String BREACHED = "P@ssw0rd!";
+
+    @Param({BREACHED, "Str0ng&Unique-Passphrase"})
+    private String password;
+
+    private Path workDir;
+    private RangeFileBreachedPasswordChecker rangeChecker;
+    private MappedPwnedPasswordChecker mappedChecker;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("pwned-bench");
+        Path ranges = Files.createDirectory(workDir.resolve("ranges"));
+        writeRange(ranges);
+
+        PasswordPolicyProperties properties = new PasswordPolicyProperties();
+        properties.getBreached().setRangeDirectory(ranges);
+        rangeChecker = new RangeFileBreachedPasswordChecker(properties);
+
+        Path index = workDir.resolve("pwned.idx");
+        long start = System.nanoTime();
+        PwnedPasswordIndex.build(writeCorpus(workDir.resolve("pwned.txt")), index, 1);
+        System.out.printf("%nIndex build: %d ms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        start = System.nanoTime();
+        mappedChecker = new MappedPwnedPasswordChecker(index, new SimpleMeterRegistry());
+        System.out.printf("Index open: %d µs%n", TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        mappedChecker.close();
+        try (Stream<Path> files = Files.walk(workDir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean rangeFile() {
+        return rangeChecker.isBreached(password);
+    }
+
+    @Benchmark
+    public boolean mappedIndex() {
+        return mappedChecker.isBreached(password);
+    }
+
+    @Benchmark
+    public boolean mappedIndexVirtualThread() throws Exception {
+        FutureTask<Boolean> task = new FutureTask<>(() -> mappedChecker.isBreached(password));
+        Thread.ofVirtual().start(task).join();
+        return task.get();
+    }
+
+    // Corpus dạng "ordered by hash" cho index
+    private static Path writeCorpus(Path file) throws Exception {
+        HexFormat hex = HexFormat.of().withUpperCase();
+        TreeSet<String> hashes = new TreeSet<>();
+        Random random = new Random(42);
+        byte[] digest = new byte[20];
+        for (int i = 0; i < HASHES; i++) {
+            random.nextBytes(digest);
+            hashes.add(hex.formatHex(digest));
+        }
+        hashes.add(sha1(BREACHED));
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+            for (String hash : hashes) {
+                writer.write(hash);
+                writer.write(":1\n");
+            }
+        }
+        return file;
+    }
+
+    // Chỉ file range của mật khẩu được tra, mỗi file RANGE_LINES dòng (cỡ file range của corpus đầy đủ)
+    private void writeRange(Path ranges) throws Exception {
+        HexFormat hex = HexFormat.of().withUpperCase();
+        String hash = sha1(password);
+        TreeSet<String> suffixes = new TreeSet<>();
+        Random random = new Random(42);
+        byte[] digest = new byte[20];
+        while (suffixes.size() < RANGE_LINES) {
+            random.nextBytes(digest);
+            suffixes.add(hex.formatHex(digest).substring(5));
+        }
+        if (password.equals(BREACHED)) {
+            suffixes.add(hash.substring(5));
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(ranges.resolve(hash.substring(0, 5) + ".txt"),
+                StandardCharsets.US_ASCII)) {
+            for (String suffix : suffixes) {
+                writer.write(suffix);
+                writer.write(":1\n");
+            }
+        }
+    }
+
+    private static String sha1(String value) throws Exception {
+        return HexFormat.of().withUpperCase().formatHex(
+                MessageDigest.getInstance("SHA-1").digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BreachedPasswordIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
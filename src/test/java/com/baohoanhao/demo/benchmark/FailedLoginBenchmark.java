@@ -0,0 +1,90 @@
+package com.baohoanhao.demo.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.baohoanhao.demo.dto.response.ApiResponse;
+import com.baohoanhao.demo.entity.User;
+import com.baohoanhao.demo.exception.BusinessException;
+import com.baohoanhao.demo.exception.GlobalExceptionHandler;
+import com.baohoanhao.demo.exception.UnauthorizedException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput login thất bại với identifier không tồn tại (không chạy bcrypt, chỉ còn đường exception):
+ * AuthService.login ném UnauthorizedException ở độ sâu DEPTH frame (filter chain + Spring MVC + proxy),
+ * rồi được map sang ApiResponse như GlobalExceptionHandler
+ *
+ * stackTrace=true: hành vi cũ, fillInStackTrace duyệt toàn bộ call stack
+ *
+ * Chạy: mvn test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.baohoanhao.demo.benchmark.FailedLoginBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FailedLoginBenchmark {
+
+    @Param({"true", "false"})
+    private boolean stackTrace;
+
+    // Độ sâu stack điển hình của request Spring MVC + Security trên Tomcat
+    @Param({"20", "150"})
+    private int depth;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(GlobalExceptionHandler.class)).setLevel(Level.INFO);
+        BusinessException.setStackTraceEnabled(stackTrace);
+    }
+
+    @Benchmark
+    public ApiResponse<Void> failedLogin() {
+        try {
+            dispatch(depth);
+            throw new IllegalStateException("login không thất bại");
+        } catch (UnauthorizedException ex) {
+            return ApiResponse.<Void>builder()
+                    .success(false)
+                    .message(ex.getMessage())
+                    .path("/api/auth/login")
+                    .build();
+        }
+    }
+
+    private static User dispatch(int remaining) {
+        if (remaining > 0) {
+            return dispatch(remaining - 1);
+        }
+        return login(Optional.empty());
+    }
+
+    private static User login(Optional<User> user) {
+        return user.orElseThrow(() -> new UnauthorizedException("Tài khoản hoặc mật khẩu không đúng"));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FailedLoginBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,126 @@
+package com.baohoanhao.demo.benchmark;
+
+import com.baohoanhao.demo.config.JwtProperties;
+import com.baohoanhao.demo.security.AccessTokenFormat;
+import com.baohoanhao.demo.security.JwtAuthenticationFilter;
+import com.baohoanhao.demo.security.JwtService;
+import com.baohoanhao.demo.security.SigningKeyRing;
+import com.baohoanhao.demo.security.TokenStorageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.UUID;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí (thời gian + byte cấp phát / request) của JwtAuthenticationFilter với Bearer token hợp lệ
+ *
+ * Blacklist (Redis) được stub, chỉ đo phần extract + verify + dựng Authentication.
+ * Xem cột gc.alloc.rate.norm của GCProfiler.
+ *
+ * virtualThread=true: mỗi request chạy trên một virtual thread mới (như spring.threads.virtual.enabled),
+ * gồm cả chi phí start + join thread; so với false để thấy phần scratch không dùng lại được giữa các thread.
+ *
+ * Chạy: mvn test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.baohoanhao.demo.benchmark.JwtFilterBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    @Param({"STANDARD", "COMPACT"})
+    private AccessTokenFormat format;
+
+    // jwt.fast-path-enabled: false = STANDARD qua JJWT, true = FastAccessTokenVerifier (COMPACT luôn đi fast verifier)
+    @Param({"false", "true"})
+    private boolean fastPath;
+
+    @Param({"false", "true"})
+    private boolean virtualThread;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+
+    @Setup
+    public void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecretKey("benchmark-secret-key-benchmark-secret-key-0123456789");
+        properties.setAccessTokenExpiration(3_600_000);
+        properties.setRefreshTokenExpiration(604_800_000);
+        properties.setAccessTokenFormat(format);
+        properties.setFastPathEnabled(fastPath);
+
+        JwtService jwtService = new JwtService(properties, new SigningKeyRing(properties), new SimpleMeterRegistry());
+        filter = new JwtAuthenticationFilter(jwtService, new NoBlacklist(properties), new SimpleMeterRegistry());
+
+        String token = jwtService.generateAccessToken(UUID.randomUUID(), "some.user.name@example.com", "USER");
+        request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> { };
+    }
+
+    @Benchmark
+    public Authentication doFilter() throws Exception {
+        if (!virtualThread) {
+            return filterOnce();
+        }
+        FutureTask<Authentication> task = new FutureTask<>(this::filterOnce);
+        Thread.ofVirtual().start(task).join();
+        return task.get();
+    }
+
+    private Authentication filterOnce() throws Exception {
+        try {
+            filter.doFilter(request, response, chain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static final class NoBlacklist extends TokenStorageService {
+
+        private NoBlacklist(JwtProperties properties) {
+            super(null, new SimpleMeterRegistry(), properties);
+        }
+
+        @Override
+        public boolean isTokenBlacklisted(String token) {
+            return false;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtFilterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
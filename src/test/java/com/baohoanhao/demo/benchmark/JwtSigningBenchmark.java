@@ -0,0 +1,76 @@
+package com.baohoanhao.demo.benchmark;
+
+import com.baohoanhao.demo.config.JwtProperties;
+import com.baohoanhao.demo.security.JwtAlgorithm;
+import com.baohoanhao.demo.security.JwtService;
+import com.baohoanhao.demo.security.SigningKeyRing;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh chi phí ký / verify access token giữa HS256, ES256 và EdDSA (Ed25519)
+ *
+ * Chạy: mvn test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.baohoanhao.demo.benchmark.JwtSigningBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtSigningBenchmark {
+
+    @Param({"HS256", "ES256", "EdDSA"})
+    private JwtAlgorithm algorithm;
+
+    private JwtService jwtService;
+    private UUID userId;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecretKey("benchmark-secret-key-benchmark-secret-key-0123456789");
+        properties.setAccessTokenExpiration(900_000);
+        properties.setRefreshTokenExpiration(604_800_000);
+        properties.setAlgorithm(algorithm);
+        properties.setAllowEphemeralKeys(true);
+
+        jwtService = new JwtService(properties, new SigningKeyRing(properties), new SimpleMeterRegistry());
+        userId = UUID.randomUUID();
+        token = jwtService.generateAccessToken(userId, "bench@example.com", "USER");
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtService.generateAccessToken(userId, "bench@example.com", "USER");
+    }
+
+    @Benchmark
+    public String verify() {
+        return jwtService.extractUserId(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtSigningBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
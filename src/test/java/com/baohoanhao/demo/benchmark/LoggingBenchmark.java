@@ -0,0 +1,154 @@
+package com.baohoanhao.demo.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.baohoanhao.demo.util.RateLimitedLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.logging.logback.StructuredLogEncoder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí logging trên hot path theo cấu hình (ghi ra file tạm thay cho stdout):
+ * - DEFAULT: cấu hình mặc định cũ, com.baohoanhao.demo ở DEBUG, appender đồng bộ dạng text
+ * - PROD: INFO, JSON (ECS) qua AsyncAppender (queue 8192, neverBlock), WARN token lỗi qua RateLimitedLogger
+ *
+ * - authenticatedRequest: debug "Authenticated user" mỗi request của JwtAuthenticationFilter
+ * - invalidToken: WARN mỗi token không hợp lệ của JwtService.isTokenValid
+ * - loginEvent: INFO khi login thành công (ghi ở cả hai cấu hình)
+ *
+ * Chạy: mvn test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.baohoanhao.demo.benchmark.LoggingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingBenchmark {
+
+    public enum Config { DEFAULT, PROD }
+
+    @Param
+    private Config config;
+
+    private LoggerContext context;
+    private Path logFile;
+    private Logger filterLog;
+    private Logger serviceLog;
+    private Logger jwtLog;
+    private RateLimitedLogger rateLimitedJwtLog;
+    private final UUID userId = UUID.randomUUID();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        logFile = Files.createTempFile("logging-bench", ".log");
+        context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+        context.putObject(Environment.class.getName(), new StandardEnvironment());
+
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        Logger app = context.getLogger("com.baohoanhao.demo");
+        if (config == Config.DEFAULT) {
+            PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+            encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%15.15t] %-40.40logger{39} : %m%n");
+            root.addAppender(fileAppender(encoder));
+            app.setLevel(ch.qos.logback.classic.Level.DEBUG);
+        } else {
+            StructuredLogEncoder encoder = new StructuredLogEncoder();
+            encoder.setFormat("ecs");
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setDiscardingThreshold(819);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(fileAppender(encoder));
+            async.start();
+            root.addAppender(async);
+            app.setLevel(ch.qos.logback.classic.Level.INFO);
+        }
+        root.setLevel(ch.qos.logback.classic.Level.INFO);
+
+        filterLog = context.getLogger("com.baohoanhao.demo.security.JwtAuthenticationFilter");
+        serviceLog = context.getLogger("com.baohoanhao.demo.service.AuthService");
+        jwtLog = context.getLogger("com.baohoanhao.demo.security.JwtService");
+        rateLimitedJwtLog = new RateLimitedLogger(jwtLog, Duration.ofSeconds(10), 5);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.stop();
+        System.out.printf("%nLog file size: %d KiB%n", Files.size(logFile) >> 10);
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    public void authenticatedRequest() {
+        if (filterLog.isDebugEnabled()) {
+            filterLog.debug("Authenticated user: {} with role: {}", userId, "USER");
+        }
+    }
+
+    @Benchmark
+    public void invalidToken() {
+        String message = "JWT expired 1200 milliseconds ago at 2026-10-19T10:00:00Z";
+        if (config == Config.DEFAULT) {
+            jwtLog.warn("Invalid JWT token: {}", message);
+        } else {
+            rateLimitedJwtLog.warn("Invalid JWT token: {}", message);
+        }
+    }
+
+    @Benchmark
+    public void loginEvent() {
+        serviceLog.info("User logged in: {}", userId);
+    }
+
+    private Appender<ILoggingEvent> fileAppender(Encoder<ILoggingEvent> encoder) {
+        encoder.setContext(context);
+        encoder.start();
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(context);
+        appender.setFile(logFile.toString());
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LoggingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,73 @@
+package com.baohoanhao.demo.benchmark;
+
+import com.baohoanhao.demo.validation.PasswordPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * So sánh cách kiểm tra @StrongPassword:
+ * - regexMatches: String.matches với 4 lookahead (compile Pattern mỗi lần, cách cũ)
+ * - precompiledRegex: cùng regex nhưng compile một lần
+ * - policyScan: PasswordPolicy, một lần duyệt bằng bảng lớp ký tự
+ *
+ * Chạy: mvn test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.baohoanhao.demo.benchmark.PasswordValidationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordValidationBenchmark {
+
+    private static final String REGEX = "^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[!@#$%^&*]).{8,}$";
+    private static final Pattern PATTERN = Pattern.compile(REGEX);
+
+    // Ký tự đặc biệt ở cuối: trường hợp xấu nhất cho lookahead
+    @Param({"Abcdef1!", "Abcdefghijklmnopqrstuvwxyz0123456789abcdefghijklmnopqrstuvwxyz1!"})
+    private String password;
+
+    private PasswordPolicy policy;
+
+    @Setup
+    public void setUp() {
+        policy = PasswordPolicy.defaults();
+    }
+
+    @Benchmark
+    public boolean regexMatches() {
+        return password.matches(REGEX);
+    }
+
+    @Benchmark
+    public boolean precompiledRegex() {
+        return PATTERN.matcher(password).matches();
+    }
+
+    @Benchmark
+    public PasswordPolicy.Result policyScan() {
+        return policy.check(password);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PasswordValidationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
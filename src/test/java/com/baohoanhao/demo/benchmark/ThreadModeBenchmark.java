@@ -0,0 +1,112 @@
+package com.baohoanhao.demo.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * So sánh platform thread (pool cố định như Tomcat max-threads=200) với virtual thread
+ * cho một burst request chủ yếu chờ I/O (Redis + MySQL, giả lập bằng sleep)
+ *
+ * - UNPINNED: I/O dưới ReentrantLock (như Lettuce, Connector/J 9, Hikari)
+ * - PINNED: I/O trong synchronized, virtual thread bị pin, concurrency rơi về số carrier
+ *   (trường hợp VirtualThreadPinningMonitor cần phát hiện)
+ *
+ * Mỗi op = một burst REQUESTS request, thời gian tính tới khi request cuối hoàn tất
+ *
+ * Chạy: mvn test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.baohoanhao.demo.benchmark.ThreadModeBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThreadModeBenchmark {
+
+    private static final int REQUESTS = 1_000;
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final long IO_MILLIS = 5;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    private String mode;
+
+    @Param({"UNPINNED", "PINNED"})
+    private String locking;
+
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        executor = "VIRTUAL".equals(mode)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Benchmark
+    public int burst() throws InterruptedException, ExecutionException {
+        boolean pinned = "PINNED".equals(locking);
+        List<Future<Integer>> futures = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            futures.add(executor.submit(pinned ? ThreadModeBenchmark::pinnedRequest : ThreadModeBenchmark::request));
+        }
+        int completed = 0;
+        for (Future<Integer> future : futures) {
+            completed += future.get();
+        }
+        return completed;
+    }
+
+    private static Integer request() throws InterruptedException {
+        // Mỗi request có client riêng (lock không tranh chấp), chỉ khác nhau cách giữ lock lúc chờ I/O
+        ReentrantLock lock = new ReentrantLock();
+        lock.lock();
+        try {
+            Thread.sleep(IO_MILLIS);
+        } finally {
+            lock.unlock();
+        }
+        return 1;
+    }
+
+    private static Integer pinnedRequest() throws InterruptedException {
+        Object monitor = new Object();
+        synchronized (monitor) {
+            Thread.sleep(IO_MILLIS);
+        }
+        return 1;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ThreadModeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,183 @@
+package com.baohoanhao.demo.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("OAuthHttpClients Tests")
+class OAuthHttpClientsTest {
+
+    private HttpServer server;
+    private String baseUrl;
+    private final AtomicInteger hits = new AtomicInteger();
+
+    private OAuthProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private OAuthHttpClients clients;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Stub provider local
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        server.start();
+
+        properties = new OAuthProperties();
+        properties.getHttp().setRetryBackoff(Duration.ofMillis(10));
+        meterRegistry = new SimpleMeterRegistry();
+        clients = new OAuthHttpClients(properties, meterRegistry, ObservationRegistry.NOOP);
+    }
+
+    @AfterEach
+    void tearDown() {
+        clients.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("should retry idempotent GET on 503 and return the later success")
+    void get_TransientServerError_Retried() {
+        // Arrange
+        server.createContext("/me", exchange -> {
+            int hit = hits.incrementAndGet();
+            respond(exchange, hit == 1 ? 503 : 200, "{\"id\":\"42\"}");
+        });
+
+        // Act
+        Map<?, ?> profile = clients.forProvider("facebook").getForObject(baseUrl + "/me", Map.class);
+
+        // Assert
+        assertThat(profile).isNotNull();
+        assertThat(profile.get("id")).isEqualTo("42");
+        assertThat(hits).hasValue(2);
+        assertThat(meterRegistry.get("oauth.http.client.retries").tag("provider", "facebook").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("oauth.http.client")
+                .tags("provider", "facebook", "method", "GET", "outcome", "SUCCESS")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should not retry token exchange POST")
+    void post_ServerError_NotRetried() {
+        // Arrange
+        server.createContext("/token", exchange -> {
+            hits.incrementAndGet();
+            respond(exchange, 503, "{}");
+        });
+
+        // Act & Assert
+        assertThatThrownBy(() -> clients.forProvider("google").postForObject(baseUrl + "/token", "code", Map.class))
+                .isInstanceOf(HttpServerErrorException.class);
+        assertThat(hits).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("should give up after read timeout instead of pinning the caller")
+    void get_SlowProvider_TimesOut() {
+        // Arrange
+        OAuthProperties.Http http = new OAuthProperties.Http();
+        http.setReadTimeout(Duration.ofMillis(100));
+        http.setMaxAttempts(1);
+        properties.getProviderHttp().put("facebook", http);
+        server.createContext("/slow", exchange -> {
+            sleep(1_000);
+            respond(exchange, 200, "{}");
+        });
+        RestTemplate restTemplate = clients.forProvider("facebook");
+
+        // Act
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> restTemplate.getForObject(baseUrl + "/slow", Map.class))
+                .isInstanceOf(ResourceAccessException.class);
+
+        // Assert
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(800));
+        assertThat(meterRegistry.get("oauth.http.client").tag("outcome", "IO_ERROR").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should fail fast when concurrent request limit is reached")
+    void get_ConcurrencyLimitReached_FailsFast() throws Exception {
+        // Arrange
+        OAuthProperties.Http http = new OAuthProperties.Http();
+        http.setMaxConcurrentRequests(1);
+        http.setAcquireTimeout(Duration.ofMillis(50));
+        http.setMaxAttempts(1);
+        properties.getProviderHttp().put("google", http);
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        server.createContext("/userinfo", exchange -> {
+            inFlight.countDown();
+            await(release);
+            respond(exchange, 200, "{}");
+        });
+        RestTemplate restTemplate = clients.forProvider("google");
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> first = executor.submit(() -> restTemplate.getForObject(baseUrl + "/userinfo", Map.class));
+            assertThat(inFlight.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Act & Assert
+            assertThatThrownBy(() -> restTemplate.getForObject(baseUrl + "/userinfo", Map.class))
+                    .isInstanceOf(ResourceAccessException.class)
+                    .hasMessageContaining("Quá nhiều request đồng thời");
+
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
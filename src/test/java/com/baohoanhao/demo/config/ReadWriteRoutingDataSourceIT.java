@@ -0,0 +1,188 @@
+package com.baohoanhao.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Integration test cho ReadWriteRoutingDataSource với hai MySQL container độc lập
+ *
+ * Hai container không replicate: cùng một user nhưng full_name khác nhau ở mỗi bên,
+ * nên giá trị đọc được cho biết transaction đã đi tới DataSource nào.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("ReadWriteRoutingDataSource Integration Tests")
+class ReadWriteRoutingDataSourceIT {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final String SELECT_NAME = "SELECT full_name FROM users WHERE id = ?";
+
+    @Container
+    static final MySQLContainer<?> PRIMARY = new MySQLContainer<>("mysql:8.0").withDatabaseName("demo_db");
+
+    @Container
+    static final MySQLContainer<?> REPLICA = new MySQLContainer<>("mysql:8.0").withDatabaseName("demo_db");
+
+    private HikariDataSource primaryPool;
+    private HikariDataSource replicaPool;
+    private ReplicaDataSourceProperties properties;
+    private ReadYourWritesTracker tracker;
+
+    @BeforeAll
+    static void migrateAndSeed() {
+        seed(PRIMARY, "primary");
+        seed(REPLICA, "replica");
+    }
+
+    @BeforeEach
+    void setUp() {
+        primaryPool = pool(PRIMARY);
+        replicaPool = pool(REPLICA);
+        properties = new ReplicaDataSourceProperties();
+        properties.setEnabled(true);
+        properties.setLagCheckEnabled(false);
+        properties.setReadYourWritesWindow(Duration.ofSeconds(30));
+        tracker = new ReadYourWritesTracker(markerStore(), properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        primaryPool.close();
+        replicaPool.close();
+    }
+
+    @Test
+    @DisplayName("read-only transaction should read from replica, read-write from primary")
+    void route_ByTransactionReadOnlyFlag() {
+        Routing routing = routing(new ReplicaLagMonitor(replicaPool, properties));
+
+        assertThat(routing.read(true)).isEqualTo("replica");
+        assertThat(routing.read(false)).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("read-only transaction should stick to primary right after the user wrote")
+    void route_AfterWrite_ReadsOwnWritesFromPrimary() {
+        Routing routing = routing(new ReplicaLagMonitor(replicaPool, properties));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(USER_ID.toString(), null, List.of()));
+
+        routing.transaction(false).executeWithoutResult(status -> tracker.markWrite(USER_ID.toString()));
+
+        assertThat(routing.read(true)).isEqualTo("primary");
+
+        // User khác không bị ảnh hưởng
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(UUID.randomUUID().toString(), null, List.of()));
+        assertThat(routing.read(true)).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("read-only transaction should fall back to primary when replica status is unavailable")
+    void route_ReplicaNotReplicating_FallsBackToPrimary() {
+        properties.setLagCheckEnabled(true);
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicaPool, properties);
+        Routing routing = routing(monitor);
+
+        // Container replica không cấu hình replication → SHOW REPLICA STATUS rỗng
+        monitor.checkLag();
+
+        assertThat(monitor.isReplicaUsable()).isFalse();
+        assertThat(routing.read(true)).isEqualTo("primary");
+    }
+
+    private Routing routing(ReplicaLagMonitor monitor) {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primaryPool, replicaPool, monitor, tracker));
+        return new Routing(dataSource);
+    }
+
+    /**
+     * Redis giả trong bộ nhớ cho marker read-your-writes (test chỉ kiểm tra routing, không kiểm tra TTL)
+     */
+    @SuppressWarnings("unchecked")
+    private static RedisTemplate<String, Object> markerStore() {
+        Set<String> keys = ConcurrentHashMap.newKeySet();
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        doAnswer(invocation -> keys.add(invocation.getArgument(0)))
+                .when(valueOperations).set(anyString(), any(), anyLong(), any());
+        when(redisTemplate.hasKey(anyString())).thenAnswer(invocation -> keys.contains(invocation.<String>getArgument(0)));
+        return redisTemplate;
+    }
+
+    private static void seed(MySQLContainer<?> container, String fullName) {
+        Flyway.configure()
+                .dataSource(container.getJdbcUrl(), container.getUsername(), container.getPassword())
+                .load()
+                .migrate();
+        try (HikariDataSource dataSource = pool(container)) {
+            new JdbcTemplate(dataSource).update(
+                    "INSERT INTO users (id, full_name, password_hash) VALUES (?, ?, ?)",
+                    toBytes(USER_ID), fullName, "hash");
+        }
+    }
+
+    private static HikariDataSource pool(MySQLContainer<?> container) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(container.getJdbcUrl());
+        dataSource.setUsername(container.getUsername());
+        dataSource.setPassword(container.getPassword());
+        dataSource.setMaximumPoolSize(2);
+        return dataSource;
+    }
+
+    private static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+
+    private record Routing(DataSource dataSource) {
+
+        TransactionTemplate transaction(boolean readOnly) {
+            TransactionTemplate template = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            template.setReadOnly(readOnly);
+            return template;
+        }
+
+        String read(boolean readOnly) {
+            return transaction(readOnly).execute(status -> new JdbcTemplate(dataSource)
+                    .queryForObject(SELECT_NAME, String.class, (Object) toBytes(USER_ID)));
+        }
+    }
+}
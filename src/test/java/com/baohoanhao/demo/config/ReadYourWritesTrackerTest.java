@@ -0,0 +1,79 @@
+package com.baohoanhao.demo.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReadYourWritesTracker Tests")
+class ReadYourWritesTrackerTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private ReplicaDataSourceProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ReplicaDataSourceProperties();
+        properties.setEnabled(true);
+        properties.setReadYourWritesWindow(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("should store the sticky marker in Redis with TTL = window so every instance sees it")
+    void markWrite_OutsideTransaction_StoresMarkerWithWindowTtl() {
+        // Arrange
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.hasKey("ryw:user-1")).thenReturn(true);
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(redisTemplate, properties);
+
+        // Act
+        tracker.markWrite("user-1");
+
+        // Assert
+        verify(valueOperations).set("ryw:user-1", "1", 5_000, TimeUnit.MILLISECONDS);
+        assertThat(tracker.isSticky("user-1")).isTrue();
+    }
+
+    @Test
+    @DisplayName("should read from primary when Redis is unavailable")
+    void isSticky_RedisDown_Sticky() {
+        // Arrange
+        when(redisTemplate.hasKey("ryw:user-1")).thenThrow(new RedisConnectionFailureException("down"));
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(redisTemplate, properties);
+
+        // Act & Assert
+        assertThat(tracker.isSticky("user-1")).isTrue();
+    }
+
+    @Test
+    @DisplayName("should not touch Redis when replica routing is disabled")
+    void markWrite_ReplicaDisabled_NoRedis() {
+        // Arrange
+        properties.setEnabled(false);
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(redisTemplate, properties);
+
+        // Act
+        tracker.markWrite("user-1");
+
+        // Assert
+        assertThat(tracker.isSticky("user-1")).isFalse();
+        verifyNoInteractions(redisTemplate);
+    }
+}
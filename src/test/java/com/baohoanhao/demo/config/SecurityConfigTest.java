@@ -0,0 +1,42 @@
+package com.baohoanhao.demo.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("SecurityConfig Tests")
+class SecurityConfigTest {
+
+    @Test
+    @DisplayName("should open prometheus scrape only on a separate management port")
+    void prometheusOnManagementPort_OnlyManagementPortMatches() {
+        // Arrange
+        RequestMatcher matcher = SecurityConfig.prometheusOnManagementPort(8080, 8081);
+
+        // Act & Assert
+        assertThat(matcher.matches(request(8081, "/actuator/prometheus"))).isTrue();
+        assertThat(matcher.matches(request(8080, "/actuator/prometheus"))).isFalse();
+        assertThat(matcher.matches(request(8081, "/actuator/metrics"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("should keep prometheus behind ADMIN when actuator shares the application port")
+    void prometheusOnManagementPort_NoSeparatePort_NeverMatches() {
+        // Arrange
+        RequestMatcher unset = SecurityConfig.prometheusOnManagementPort(8080, -1);
+        RequestMatcher samePort = SecurityConfig.prometheusOnManagementPort(8080, 8080);
+
+        // Act & Assert
+        assertThat(unset.matches(request(8080, "/actuator/prometheus"))).isFalse();
+        assertThat(samePort.matches(request(8080, "/actuator/prometheus"))).isFalse();
+    }
+
+    private static MockHttpServletRequest request(int localPort, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setLocalPort(localPort);
+        return request;
+    }
+}
@@ -0,0 +1,102 @@
+package com.baohoanhao.demo.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("VirtualThreadPinningMonitor Tests")
+class VirtualThreadPinningMonitorTest {
+
+    private final Object monitor = new Object();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private SimpleMeterRegistry meterRegistry;
+    private VirtualThreadPinningMonitor pinningMonitor;
+
+    @BeforeEach
+    void setUp() {
+        VirtualThreadProperties properties = new VirtualThreadProperties();
+        properties.getPinning().setThreshold(Duration.ofMillis(10));
+        meterRegistry = new SimpleMeterRegistry();
+        pinningMonitor = new VirtualThreadPinningMonitor(properties, meterRegistry);
+        pinningMonitor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pinningMonitor.destroy();
+    }
+
+    @Test
+    @DisplayName("should report blocking inside synchronized with its app stack")
+    void record_SleepInsideSynchronized_Reported() throws Exception {
+        // Act
+        Thread.ofVirtual().start(this::sleepWhileHoldingMonitor).join();
+
+        // Assert
+        List<VirtualThreadPinningMonitor.PinnedSite> report = awaitReport();
+        assertThat(report).hasSize(1);
+        VirtualThreadPinningMonitor.PinnedSite site = report.getFirst();
+        assertThat(site.site()).startsWith(VirtualThreadPinningMonitorTest.class.getName());
+        assertThat(site.stack()).anyMatch(frame -> frame.contains("sleepWhileHoldingMonitor"));
+        assertThat(site.count()).isEqualTo(1);
+        // JFR chỉ đo đoạn park bị pin, ngắn hơn sleep(60) khi máy tải nặng; chỉ chắc chắn vượt threshold
+        assertThat(site.totalMillis()).isGreaterThanOrEqualTo(10);
+        assertThat(meterRegistry.get("threads.virtual.pinned").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should not report blocking under a java.util.concurrent lock")
+    void record_SleepInsideReentrantLock_NotReported() throws Exception {
+        // Act
+        Thread.ofVirtual().start(this::sleepWhileHoldingLock).join();
+        // Thread sau chắc chắn bị pin: khi event của nó tới, event của thread trước (nếu có) cũng đã tới
+        Thread.ofVirtual().start(this::sleepWhileHoldingMonitor).join();
+
+        // Assert
+        List<VirtualThreadPinningMonitor.PinnedSite> report = awaitReport();
+        assertThat(report).hasSize(1);
+        assertThat(report.getFirst().count()).isEqualTo(1);
+        assertThat(report.getFirst().stack()).noneMatch(frame -> frame.contains("sleepWhileHoldingLock"));
+    }
+
+    private void sleepWhileHoldingMonitor() {
+        synchronized (monitor) {
+            sleep(60);
+        }
+    }
+
+    private void sleepWhileHoldingLock() {
+        lock.lock();
+        try {
+            sleep(60);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<VirtualThreadPinningMonitor.PinnedSite> awaitReport() throws InterruptedException {
+        // JFR stream flush khoảng mỗi giây
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (pinningMonitor.report().isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        return pinningMonitor.report();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
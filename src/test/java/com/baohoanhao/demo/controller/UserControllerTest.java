@@ -2,29 +2,51 @@ package com.baohoanhao.demo.controller;
 
 import com.baohoanhao.demo.dto.request.UpdateProfileRequest;
 import com.baohoanhao.demo.dto.response.UserProfileResponse;
+import com.baohoanhao.demo.entity.Role;
+import com.baohoanhao.demo.security.AuthenticatedUser;
+import com.baohoanhao.demo.security.JwtService;
+import com.baohoanhao.demo.security.RoleAuthorities;
+import com.baohoanhao.demo.security.TokenStorageService;
 import com.baohoanhao.demo.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
-import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(UserController.class)
+@Import(UserControllerTest.MetricsConfig.class)
 class UserControllerTest {
 
+    @TestConfiguration
+    static class MetricsConfig {
+
+        // WebMvcTest không nạp metrics auto-configuration, JwtAuthenticationFilter cần MeterRegistry
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -34,9 +56,18 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    // Phụ thuộc của JwtAuthenticationFilter (SecurityConfig được nạp cùng slice)
+    @MockBean
+    private JwtService jwtService;
+
+    @MockBean
+    private TokenStorageService tokenStorageService;
+
     @Test
-    @WithMockUser(username = "test@example.com")
     void testUpdateProfile_Success() throws Exception {
+        AuthenticatedUser principal = new AuthenticatedUser(UUID.randomUUID(), "test@example.com", Role.USER,
+                System.currentTimeMillis() + 900_000);
+
         UpdateProfileRequest request = new UpdateProfileRequest();
         request.setFullName("Updated Name");
         request.setEmail("newemail@example.com");
@@ -53,14 +84,16 @@ class UserControllerTest {
                 .updatedAt(LocalDateTime.now())
                 .build();
 
-        when(userService.updateProfile(anyString(), any(UpdateProfileRequest.class)))
+        when(userService.updateProfile(eq(principal.id()), any(UpdateProfileRequest.class)))
                 .thenReturn(mockResponse);
 
         mockMvc.perform(put("/api/users/profile")
                         .with(csrf())
+                        .with(authentication(new UsernamePasswordAuthenticationToken(
+                                principal, null, RoleAuthorities.of(Role.USER))))
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.fullName").value("Updated Name"));
+                .andExpect(jsonPath("$.data.fullName").value("Updated Name"));
     }
 }
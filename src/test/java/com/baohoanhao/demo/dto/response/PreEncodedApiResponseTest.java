@@ -0,0 +1,91 @@
+package com.baohoanhao.demo.dto.response;
+
+import com.baohoanhao.demo.util.CoarseClock;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("PreEncodedApiResponse Tests")
+class PreEncodedApiResponseTest {
+
+    // Giống ObjectMapper của Spring Boot (JavaTimeModule, date dạng ISO) + Blackbird
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new BlackbirdModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final PreEncodedApiResponse.Template template = ApiResponse.preEncoded(true, "Đăng xuất \"thành công\"");
+
+    @Test
+    @DisplayName("should produce the same JSON as the regular ApiResponse serializer")
+    void serialize_Template_SameAsBeanSerializer() throws Exception {
+        // Arrange
+        ApiResponse<Void> preEncoded = template.response();
+        ApiResponse<Void> regular = ApiResponse.<Void>builder()
+                .success(true)
+                .message("Đăng xuất \"thành công\"")
+                .timestamp(preEncoded.getTimestamp())
+                .build();
+
+        // Act
+        byte[] preEncodedJson = objectMapper.writeValueAsBytes(preEncoded);
+
+        // Assert
+        assertThat(preEncodedJson).isEqualTo(objectMapper.writeValueAsBytes(regular));
+        JsonNode node = objectMapper.readTree(preEncodedJson);
+        assertThat(node.get("message").asText()).isEqualTo("Đăng xuất \"thành công\"");
+        assertThat(LocalDateTime.parse(node.get("timestamp").asText())).isEqualTo(preEncoded.getTimestamp());
+    }
+
+    @Test
+    @DisplayName("should fall back to the regular serializer when the response is modified")
+    void serialize_Modified_FallsBack() throws Exception {
+        // Arrange
+        ApiResponse<Void> response = template.response();
+        response.setPath("/api/auth/logout");
+
+        // Act
+        JsonNode node = objectMapper.readTree(objectMapper.writeValueAsString(response));
+
+        // Assert
+        assertThat(node.get("path").asText()).isEqualTo("/api/auth/logout");
+        assertThat(node.get("message").asText()).isEqualTo("Đăng xuất \"thành công\"");
+        assertThat(node.get("success").asBoolean()).isTrue();
+    }
+
+    @Test
+    @DisplayName("should serialize inside another object")
+    void serialize_Nested_ValidJson() throws Exception {
+        // Act
+        JsonNode node = objectMapper.readTree(objectMapper.writeValueAsString(new Object[]{template.response(), 1}));
+
+        // Assert
+        assertThat(node.get(0).get("success").asBoolean()).isTrue();
+        assertThat(node.get(1).asInt()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("coarse clock should share one instance and formatted string per millisecond")
+    void coarseClock_SameMillisecond_Cached() {
+        // Act
+        LocalDateTime now = CoarseClock.now();
+        LocalDateTime wallClock = LocalDateTime.now();
+
+        // Assert
+        assertThat(now.getNano() % 1_000_000).isZero();
+        assertThat(ChronoUnit.MILLIS.between(now, wallClock)).isBetween(0L, 1_000L);
+        assertThat(CoarseClock.format(now)).isEqualTo(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(now));
+        LocalDateTime other = now.minusSeconds(1);
+        assertThat(CoarseClock.format(other)).isEqualTo(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(other));
+    }
+}
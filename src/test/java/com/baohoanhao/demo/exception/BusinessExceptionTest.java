@@ -0,0 +1,74 @@
+package com.baohoanhao.demo.exception;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("BusinessException Tests")
+class BusinessExceptionTest {
+
+    private final Logger handlerLog = (Logger) LoggerFactory.getLogger(GlobalExceptionHandler.class);
+    private Level originalLevel;
+
+    @BeforeEach
+    void setUp() {
+        originalLevel = handlerLog.getLevel();
+        handlerLog.setLevel(Level.INFO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        handlerLog.setLevel(originalLevel);
+        BusinessException.setStackTraceEnabled(true);
+    }
+
+    @Test
+    @DisplayName("should skip stack trace capture when disabled")
+    void create_StackTraceDisabled_Stackless() {
+        // Arrange
+        BusinessException.setStackTraceEnabled(false);
+
+        // Act
+        UnauthorizedException ex = new UnauthorizedException("Tài khoản hoặc mật khẩu không đúng");
+        ex.addSuppressed(new IllegalStateException("ignored"));
+
+        // Assert
+        assertThat(ex.getStackTrace()).isEmpty();
+        assertThat(ex.getSuppressed()).isEmpty();
+        assertThat(ex.getMessage()).isEqualTo("Tài khoản hoặc mật khẩu không đúng");
+        assertThat(ex.getStatus()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(ex.getErrorCode()).isEqualTo("UNAUTHORIZED");
+    }
+
+    @Test
+    @DisplayName("should capture stack trace when enabled")
+    void create_StackTraceEnabled_Captured() {
+        // Arrange
+        BusinessException.setStackTraceEnabled(true);
+
+        // Act
+        ConflictException ex = new ConflictException("Email", "email", "a@example.com");
+
+        // Assert
+        assertThat(ex.getStackTrace()).isNotEmpty();
+        assertThat(ex.getStackTrace()[0].getClassName()).isEqualTo(BusinessExceptionTest.class.getName());
+    }
+
+    @Test
+    @DisplayName("should keep stack trace while the handler logs at DEBUG")
+    void create_HandlerDebug_Captured() {
+        // Arrange
+        BusinessException.setStackTraceEnabled(false);
+        handlerLog.setLevel(Level.DEBUG);
+
+        // Act & Assert
+        assertThat(new BadRequestException("Cần cung cấp Email hoặc Số điện thoại").getStackTrace()).isNotEmpty();
+    }
+}
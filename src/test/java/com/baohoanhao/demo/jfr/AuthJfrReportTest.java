@@ -0,0 +1,112 @@
+package com.baohoanhao.demo.jfr;
+
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("AuthJfrReport Tests")
+class AuthJfrReportTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("should summarize recorded auth events into per-phase percentiles")
+    void summarize_AuthEvents_GroupedByPhaseAndOutcome() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("auth.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(JwtVerifyEvent.class);
+            recording.enable(BlacklistCheckEvent.class);
+            recording.enable(OAuthPhaseEvent.class);
+            recording.enable("jdk.ThreadSleep");
+            recording.start();
+
+            for (int i = 0; i < 100; i++) {
+                JwtVerifyEvent event = new JwtVerifyEvent();
+                event.begin();
+                event.finish("access", i < 90 ? "valid" : "expired");
+            }
+            BlacklistCheckEvent blacklist = new BlacklistCheckEvent();
+            blacklist.begin();
+            blacklist.finish("miss");
+            OAuthPhaseEvent.record("google", "token_exchange", () -> sleep(Duration.ofMillis(20)));
+            assertThatThrownBy(() -> OAuthPhaseEvent.record("google", "upsert", () -> {
+                throw new IllegalStateException("boom");
+            })).isInstanceOf(IllegalStateException.class);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Act
+        List<AuthJfrReport.PhaseStats> stats = AuthJfrReport.summarize(file);
+
+        // Assert
+        assertThat(stats).extracting(AuthJfrReport.PhaseStats::phase).containsExactly(
+                "JWT Verify access / expired",
+                "JWT Verify access / valid",
+                "OAuth Callback Phase google / token_exchange / success",
+                "OAuth Callback Phase google / upsert / failure",
+                "Token Blacklist Check miss");
+        assertThat(stats.get(0).count()).isEqualTo(10);
+        assertThat(stats.get(1).count()).isEqualTo(90);
+
+        AuthJfrReport.PhaseStats valid = stats.get(1);
+        assertThat(valid.p50()).isLessThanOrEqualTo(valid.p90());
+        assertThat(valid.p90()).isLessThanOrEqualTo(valid.p99());
+        assertThat(valid.p99()).isLessThanOrEqualTo(valid.max());
+
+        AuthJfrReport.PhaseStats exchange = stats.get(2);
+        assertThat(exchange.count()).isEqualTo(1);
+        assertThat(exchange.p50()).isGreaterThanOrEqualTo(Duration.ofMillis(20));
+    }
+
+    @Test
+    @DisplayName("should merge all chunks of a repository directory and skip unreadable ones")
+    void summarize_RepositoryDirectory_MergesChunks() throws Exception {
+        // Arrange
+        Path repository = Files.createDirectories(tempDir.resolve("repository/2026_10_19_pid1"));
+        for (String chunk : List.of("chunk-1.jfr", "chunk-2.jfr")) {
+            try (Recording recording = new Recording()) {
+                recording.enable(BlacklistCheckEvent.class);
+                recording.start();
+                for (int i = 0; i < 5; i++) {
+                    BlacklistCheckEvent event = new BlacklistCheckEvent();
+                    event.begin();
+                    event.finish("miss");
+                }
+                recording.stop();
+                recording.dump(repository.resolve(chunk));
+            }
+        }
+        // Chunk đang ghi dở
+        Files.write(repository.resolve("chunk-3.jfr"), new byte[]{'F', 'L', 'R', 0});
+
+        // Act
+        List<AuthJfrReport.PhaseStats> stats = AuthJfrReport.summarize(tempDir.resolve("repository"));
+
+        // Assert
+        assertThat(stats).singleElement().satisfies(s -> {
+            assertThat(s.phase()).isEqualTo("Token Blacklist Check miss");
+            assertThat(s.count()).isEqualTo(10);
+        });
+    }
+
+    private static Void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+}
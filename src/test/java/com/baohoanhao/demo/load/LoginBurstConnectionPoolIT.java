@@ -0,0 +1,194 @@
+package com.baohoanhao.demo.load;
+
+import com.baohoanhao.demo.config.DataSourcePoolConfig;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test: độ trễ lấy connection (hikaricp.connections.acquire) khi burst login
+ *
+ * Mô phỏng AuthService.login: giữ connection trong transaction, query user rồi verify bcrypt.
+ * So sánh pool mặc định của Hikari (10) với pool tính bởi DataSourcePoolConfig.
+ *
+ * Chạy: mvn verify -Dit.test=LoginBurstConnectionPoolIT (cần Docker)
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("Login burst connection pool load test")
+class LoginBurstConnectionPoolIT {
+
+    private static final String EMAIL = "burst@example.com";
+    private static final String PASSWORD = "Password@123";
+    private static final int BURST_SIZE = 200;
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+            .withDatabaseName("demo_db");
+
+    private static final BCryptPasswordEncoder PASSWORD_ENCODER = new BCryptPasswordEncoder();
+
+    @BeforeAll
+    static void migrateAndSeed() throws Exception {
+        Flyway.configure()
+                .dataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword())
+                .load()
+                .migrate();
+
+        try (HikariDataSource dataSource = dataSource(2, new SimpleMeterRegistry());
+             Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                     "INSERT INTO users (id, full_name, email, password_hash) VALUES (?, ?, ?, ?)")) {
+            UUID id = UUID.randomUUID();
+            ps.setBytes(1, ByteBuffer.allocate(16)
+                    .putLong(id.getMostSignificantBits())
+                    .putLong(id.getLeastSignificantBits())
+                    .array());
+            ps.setString(2, "Burst User");
+            ps.setString(3, EMAIL);
+            ps.setString(4, PASSWORD_ENCODER.encode(PASSWORD));
+            ps.executeUpdate();
+        }
+    }
+
+    @Test
+    @DisplayName("derived pool size should not be slower to acquire than Hikari default under login burst")
+    void loginBurst_DerivedPoolSize_ReducesAcquireLatency() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int derivedSize = DataSourcePoolConfig.recommendedPoolSize(cores, 0);
+
+        Result defaultPool = runBurst(DEFAULT_POOL_SIZE);
+        Result derivedPool = runBurst(derivedSize);
+
+        // 2 × core cho query + 1 × core cho login đang verify bcrypt (bcrypt-concurrency mặc định = core)
+        assertThat(derivedSize).isEqualTo(Math.max(4, 3 * cores));
+        // Pool cố định kích thước: burst dùng hết đúng số connection đã tính
+        assertThat(derivedPool.totalConnections()).as("%s", derivedPool).isEqualTo(derivedSize);
+        assertThat(defaultPool.completed()).as("%s", defaultPool).isEqualTo(BURST_SIZE);
+        assertThat(derivedPool.completed()).as("%s", derivedPool).isEqualTo(BURST_SIZE);
+        if (derivedSize > DEFAULT_POOL_SIZE) {
+            assertThat(derivedPool.p99Millis()).as("%s vs %s", derivedPool, defaultPool)
+                    .isLessThanOrEqualTo(defaultPool.p99Millis());
+        }
+    }
+
+    private Result runBurst(int poolSize) throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id,
+                                                         DistributionStatisticConfig config) {
+                if (id.getName().equals("hikaricp.connections.acquire")) {
+                    return DistributionStatisticConfig.builder()
+                            .percentiles(0.5, 0.99)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        });
+
+        try (HikariDataSource dataSource = dataSource(poolSize, registry)) {
+            ExecutorService executor = Executors.newFixedThreadPool(BURST_SIZE);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> futures = new ArrayList<>(BURST_SIZE);
+            for (int i = 0; i < BURST_SIZE; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return login(dataSource);
+                }));
+            }
+            start.countDown();
+
+            int completed = 0;
+            for (Future<Boolean> future : futures) {
+                if (future.get(2, TimeUnit.MINUTES)) {
+                    completed++;
+                }
+            }
+            executor.shutdown();
+
+            Timer acquire = registry.get("hikaricp.connections.acquire").timer();
+            double p50 = 0;
+            double p99 = 0;
+            for (ValueAtPercentile percentile : acquire.takeSnapshot().percentileValues()) {
+                if (percentile.percentile() == 0.5) {
+                    p50 = percentile.value(TimeUnit.MILLISECONDS);
+                } else if (percentile.percentile() == 0.99) {
+                    p99 = percentile.value(TimeUnit.MILLISECONDS);
+                }
+            }
+            return new Result(poolSize, dataSource.getHikariPoolMXBean().getTotalConnections(), completed, p50, p99,
+                    acquire.max(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * Giống AuthService.login: connection được giữ suốt lúc verify bcrypt
+     */
+    private static boolean login(HikariDataSource dataSource) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                     "SELECT password_hash FROM users WHERE email = ?")) {
+            connection.setReadOnly(true);
+            ps.setString(1, EMAIL);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && PASSWORD_ENCODER.matches(PASSWORD, rs.getString(1));
+            }
+        }
+    }
+
+    private static HikariDataSource dataSource(int poolSize, SimpleMeterRegistry registry) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(MYSQL.getJdbcUrl());
+        config.setUsername(MYSQL.getUsername());
+        config.setPassword(MYSQL.getPassword());
+        config.setPoolName("burst-" + poolSize);
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(poolSize);
+        config.setConnectionTimeout(30_000);
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        return new HikariDataSource(config);
+    }
+
+    private record Result(int poolSize, int totalConnections, int completed,
+                          double p50Millis, double p99Millis, double maxMillis) {
+
+        @Override
+        public String toString() {
+            return String.format("pool=%d connections=%d completed=%d acquire p50=%.2fms p99=%.2fms max=%.2fms",
+                    poolSize, totalConnections, completed, p50Millis, p99Millis, maxMillis);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.baohoanhao.demo.load;
+
+import com.baohoanhao.demo.config.JwtProperties;
+import com.baohoanhao.demo.config.OAuthHttpClients;
+import com.baohoanhao.demo.config.OAuthProperties;
+import com.baohoanhao.demo.dto.response.AuthResponse;
+import com.baohoanhao.demo.entity.Role;
+import com.baohoanhao.demo.entity.User;
+import com.baohoanhao.demo.repository.UserRepository;
+import com.baohoanhao.demo.security.JwtService;
+import com.baohoanhao.demo.security.OidcJwtDecoderCache;
+import com.baohoanhao.demo.security.TokenStorageService;
+import com.baohoanhao.demo.service.Oauth2LoginService;
+import com.baohoanhao.demo.service.oauth.FacebookProfileResolver;
+import com.baohoanhao.demo.service.oauth.OAuthIdentityService;
+import com.baohoanhao.demo.service.oauth.OAuthProfileResolvers;
+import com.baohoanhao.demo.service.oauth.OAuthUserInfoClient;
+import com.baohoanhao.demo.service.oauth.OidcProfileResolver;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Load test: OAuth callback với provider chậm (stub local, mỗi request trễ PROVIDER_DELAY)
+ *
+ * So sánh xử lý đồng bộ trên pool cố định TOMCAT_THREADS (như Tomcat maxThreads) với
+ * handleCallbackAsync (virtual thread): thời gian burst phải gần độ trễ của một callback,
+ * không tỷ lệ với BURST_SIZE / TOMCAT_THREADS, và số platform thread không tăng theo burst.
+ *
+ * Chạy: mvn verify -Dit.test=OAuthCallbackLoadIT
+ */
+@DisplayName("OAuth callback virtual thread load test")
+class OAuthCallbackLoadIT {
+
+    private static final int BURST_SIZE = 200;
+    private static final int TOMCAT_THREADS = 10;
+    private static final Duration PROVIDER_DELAY = Duration.ofMillis(200);
+
+    private HttpServer provider;
+    private Oauth2LoginService oauth2LoginService;
+    private OAuthHttpClients httpClients;
+    private OAuthUserInfoClient userInfoClient;
+    private final AtomicInteger issuedTokens = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Stub Facebook: token exchange + userinfo, mỗi request trễ PROVIDER_DELAY
+        provider = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        provider.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        // Mỗi callback một access token khác nhau: userinfo không trúng cache
+        provider.createContext("/token", exchange -> delayedJson(exchange,
+                "{\"access_token\":\"provider-token-" + issuedTokens.incrementAndGet() + "\"}"));
+        provider.createContext("/me", exchange -> delayedJson(exchange,
+                "{\"id\":\"fb-1\",\"name\":\"Load User\",\"email\":\"load@example.com\"}"));
+        provider.start();
+        String baseUrl = "http://127.0.0.1:" + provider.getAddress().getPort();
+
+        ClientRegistration registration = ClientRegistration.withRegistrationId("facebook")
+                .clientId("client-id")
+                .clientSecret("client-secret")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("{baseUrl}/api/auth/oauth2/callback/{registrationId}")
+                .authorizationUri(baseUrl + "/dialog")
+                .tokenUri(baseUrl + "/token")
+                .userInfoUri(baseUrl + "/me")
+                .userNameAttributeName("id")
+                .build();
+        ClientRegistrationRepository registrations = mock(ClientRegistrationRepository.class);
+        when(registrations.findByRegistrationId("facebook")).thenReturn(registration);
+
+        User user = User.builder()
+                .id(UUID.randomUUID())
+                .email("load@example.com")
+                .fullName("Load User")
+                .passwordHash("hash")
+                .role(Role.USER)
+                .active(true)
+                .build();
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail("load@example.com")).thenReturn(Optional.of(user));
+
+        JwtService jwtService = mock(JwtService.class);
+        when(jwtService.generateAccessToken(any(), anyString(), anyString())).thenReturn("access-token");
+        when(jwtService.generateRefreshToken(any())).thenReturn("refresh-token");
+
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setAccessTokenExpiration(900_000);
+        jwtProperties.setRefreshTokenExpiration(604_800_000);
+
+        OAuthProperties oauthProperties = new OAuthProperties();
+        oauthProperties.getHttp().setMaxConcurrentRequests(BURST_SIZE);
+        oauthProperties.setMaxConcurrentCallbacks(BURST_SIZE);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        httpClients = new OAuthHttpClients(oauthProperties, meterRegistry, ObservationRegistry.NOOP);
+        userInfoClient = new OAuthUserInfoClient(httpClients, oauthProperties, meterRegistry);
+        OAuthProfileResolvers profileResolvers = new OAuthProfileResolvers(
+                List.of(new FacebookProfileResolver(userInfoClient)),
+                new OidcProfileResolver(mock(OidcJwtDecoderCache.class)));
+
+        oauth2LoginService = new Oauth2LoginService(registrations, userRepository, mock(PasswordEncoder.class),
+                jwtService, mock(TokenStorageService.class), jwtProperties, httpClients, profileResolvers,
+                mock(OAuthIdentityService.class), oauthProperties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userInfoClient.destroy();
+        httpClients.destroy();
+        provider.stop(0);
+    }
+
+    @Test
+    @DisplayName("async callbacks should finish in about one callback latency regardless of Tomcat thread count")
+    void handleCallbackAsync_SlowProvider_ScalesWithIo() throws Exception {
+        // Warm-up: pool kết nối + JIT
+        oauth2LoginService.handleCallback("facebook", "code", "http://localhost/callback");
+
+        Result blocking = runBlocking();
+        Result async = runAsync();
+
+        assertThat(blocking.completed()).isEqualTo(BURST_SIZE);
+        assertThat(async.completed()).isEqualTo(BURST_SIZE);
+
+        // Đồng bộ: ~BURST_SIZE / TOMCAT_THREADS lượt, mỗi lượt 2 lần gọi provider
+        long callbackMillis = 2 * PROVIDER_DELAY.toMillis();
+        assertThat(blocking.elapsedMillis()).as("%s", blocking)
+                .isGreaterThanOrEqualTo(BURST_SIZE / TOMCAT_THREADS * callbackMillis);
+        // Async: vài lần độ trễ một callback, không phụ thuộc số Tomcat thread
+        assertThat(async.elapsedMillis()).as("%s vs %s", async, blocking)
+                .isLessThan(blocking.elapsedMillis() / 3);
+        assertThat(async.peakPlatformThreads() - async.platformThreadsBefore()).as("%s", async)
+                .isLessThan(BURST_SIZE);
+    }
+
+    /**
+     * Tomcat thread chờ suốt callback
+     */
+    private Result runBlocking() throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        int before = threads.getThreadCount();
+        ExecutorService tomcat = Executors.newFixedThreadPool(TOMCAT_THREADS);
+        long start = System.nanoTime();
+        List<Future<AuthResponse>> futures = new ArrayList<>(BURST_SIZE);
+        for (int i = 0; i < BURST_SIZE; i++) {
+            futures.add(tomcat.submit(() -> oauth2LoginService.handleCallback("facebook", "code", "http://localhost/callback")));
+        }
+        int completed = 0;
+        for (Future<AuthResponse> future : futures) {
+            if (future.get(2, TimeUnit.MINUTES) != null) {
+                completed++;
+            }
+        }
+        long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        tomcat.shutdown();
+        return new Result("blocking", completed, elapsed, before, threads.getPeakThreadCount());
+    }
+
+    /**
+     * Tomcat thread chỉ khởi động async rồi trả về ngay
+     */
+    private Result runAsync() throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        int before = threads.getThreadCount();
+        ExecutorService tomcat = Executors.newFixedThreadPool(TOMCAT_THREADS);
+        long start = System.nanoTime();
+        List<Future<CompletableFuture<AuthResponse>>> dispatched = new ArrayList<>(BURST_SIZE);
+        for (int i = 0; i < BURST_SIZE; i++) {
+            dispatched.add(tomcat.submit(() -> oauth2LoginService.handleCallbackAsync("facebook", "code", "http://localhost/callback")));
+        }
+        int completed = 0;
+        for (Future<CompletableFuture<AuthResponse>> future : dispatched) {
+            if (future.get(2, TimeUnit.MINUTES).get(2, TimeUnit.MINUTES) != null) {
+                completed++;
+            }
+        }
+        long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        tomcat.shutdown();
+        return new Result("async", completed, elapsed, before, threads.getPeakThreadCount());
+    }
+
+    private static void delayedJson(HttpExchange exchange, String body) throws IOException {
+        try {
+            Thread.sleep(PROVIDER_DELAY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private record Result(String mode, int completed, long elapsedMillis, int platformThreadsBefore,
+                          int peakPlatformThreads) {
+
+        @Override
+        public String toString() {
+            return String.format("%s: completed=%d elapsed=%dms platformThreads before=%d peak=%d",
+                    mode, completed, elapsedMillis, platformThreadsBefore, peakPlatformThreads);
+        }
+    }
+}
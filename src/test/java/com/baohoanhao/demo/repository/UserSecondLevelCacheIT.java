@@ -0,0 +1,194 @@
+package com.baohoanhao.demo.repository;
+
+import com.baohoanhao.demo.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Second-level cache cho User: invalidation và benchmark đường refresh token
+ *
+ * AuthService.refreshToken chỉ chạm DB ở userRepository.findById (read-only transaction),
+ * benchmark đo đúng bước đó với cache bật (CacheMode.NORMAL) và tắt (CacheMode.IGNORE).
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("User second-level cache Integration Tests")
+class UserSecondLevelCacheIT {
+
+    private static final int WARMUP = 500;
+    private static final int ITERATIONS = 5_000;
+
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0").withDatabaseName("demo_db");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    @DisplayName("findById should be served from cache and reflect updates and deactivation")
+    void findById_CachedEntity_InvalidatedOnUpdate() {
+        // Arrange
+        UUID id = readWrite.execute(status -> userRepository.save(newUser()).getId());
+        findById(id, CacheMode.NORMAL);
+        statistics.clear();
+
+        // Act
+        User cached = findById(id, CacheMode.NORMAL);
+
+        // Assert
+        assertThat(cached.getFullName()).isEqualTo("Cache User");
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        // Update + deactivate đi qua Hibernate → entry trong cache được cập nhật
+        readWrite.executeWithoutResult(status -> {
+            User user = userRepository.findById(id).orElseThrow();
+            user.setFullName("Renamed");
+            user.setActive(false);
+        });
+
+        User updated = findById(id, CacheMode.NORMAL);
+        assertThat(updated.getFullName()).isEqualTo("Renamed");
+        assertThat(updated.isActive()).isFalse();
+    }
+
+    @Test
+    @DisplayName("findByEmail should use query cache and follow email changes")
+    void findByEmail_QueryCache_InvalidatedOnEmailChange() {
+        // Arrange
+        User saved = readWrite.execute(status -> userRepository.save(newUser()));
+        String oldEmail = saved.getEmail();
+        findByEmail(oldEmail);
+        statistics.clear();
+
+        // Act
+        assertThat(findByEmail(oldEmail)).isPresent();
+
+        // Assert
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        String newEmail = "changed-" + oldEmail;
+        readWrite.executeWithoutResult(status ->
+                userRepository.findById(saved.getId()).orElseThrow().setEmail(newEmail));
+
+        assertThat(findByEmail(oldEmail)).isEmpty();
+        assertThat(findByEmail(newEmail)).isPresent();
+    }
+
+    @Test
+    @DisplayName("refresh-path findById should be served from cache, faster and without statements")
+    void findById_RefreshPath_CacheOnFasterThanOff() {
+        UUID id = readWrite.execute(status -> userRepository.save(newUser()).getId());
+
+        double offMicros = measure(id, CacheMode.IGNORE);
+        long offStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        double onMicros = measure(id, CacheMode.NORMAL);
+        long onStatements = statistics.getPrepareStatementCount();
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long misses = statistics.getSecondLevelCacheMissCount();
+
+        assertThat(offStatements).isEqualTo(WARMUP + ITERATIONS);
+        assertThat(onStatements).isLessThanOrEqualTo(1);
+        assertThat(misses).isLessThanOrEqualTo(1);
+        assertThat(hits).isGreaterThanOrEqualTo(WARMUP + ITERATIONS - 1);
+        // Cache hit không round-trip tới MySQL: chậm hơn cache off nghĩa là cache không được dùng
+        assertThat(onMicros).as("cache on %.1f us/op, off %.1f us/op", onMicros, offMicros).isLessThan(offMicros);
+    }
+
+    private double measure(UUID id, CacheMode cacheMode) {
+        for (int i = 0; i < WARMUP; i++) {
+            findById(id, cacheMode);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            findById(id, cacheMode);
+        }
+        return (double) TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) / ITERATIONS;
+    }
+
+    private User findById(UUID id, CacheMode cacheMode) {
+        return readOnly.execute(status -> {
+            entityManager.unwrap(Session.class).setCacheMode(cacheMode);
+            return userRepository.findById(id).orElseThrow();
+        });
+    }
+
+    private Optional<User> findByEmail(String email) {
+        return readOnly.execute(status -> userRepository.findByEmail(email));
+    }
+
+    private static User newUser() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        return User.builder()
+                .fullName("Cache User")
+                .email("cache-" + suffix + "@example.com")
+                .passwordHash("hash")
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.baohoanhao.demo.security;
+
+import com.baohoanhao.demo.config.JwtProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DisplayName("JwtAuthenticationFilter Tests")
+class JwtAuthenticationFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TokenStorageService tokenStorageService = mock(TokenStorageService.class);
+    private JwtService jwtService;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecretKey("test-secret-key-test-secret-key-0123456789");
+        properties.setAccessTokenExpiration(900_000);
+        properties.setRefreshTokenExpiration(604_800_000);
+        jwtService = new JwtService(properties, new SigningKeyRing(properties), new SimpleMeterRegistry());
+        filter = new JwtAuthenticationFilter(jwtService, tokenStorageService, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("should authenticate a valid access token and record outcome=valid")
+    void doFilter_ValidToken_Authenticated() throws Exception {
+        // Arrange
+        String token = jwtService.generateAccessToken(UUID.randomUUID(), "user@example.com", "USER");
+
+        // Act
+        MockFilterChain chain = filter(token);
+
+        // Assert
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+        assertThat(count("valid")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should record each rejection reason without authenticating")
+    void doFilter_RejectedTokens_OutcomesRecorded() throws Exception {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        String blacklisted = jwtService.generateAccessToken(userId, "user@example.com", "USER");
+        when(tokenStorageService.isTokenBlacklisted(anyString())).thenAnswer(inv -> blacklisted.equals(inv.getArgument(0)));
+
+        // Act
+        filter(null);
+        filter("not-a-jwt");
+        filter(jwtService.generateRefreshToken(userId));
+        MockFilterChain chain = filter(blacklisted);
+
+        // Assert: request vẫn đi tiếp, entry point quyết định 401
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(count("anonymous")).isEqualTo(1);
+        assertThat(count("invalid")).isEqualTo(1);
+        assertThat(count("wrong_type")).isEqualTo(1);
+        assertThat(count("blacklisted")).isEqualTo(1);
+        assertThat(count("valid")).isZero();
+    }
+
+    private MockFilterChain filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return chain;
+    }
+
+    private long count(String outcome) {
+        return meterRegistry.get("auth.filter").tag("outcome", outcome).timer().count();
+    }
+}
@@ -0,0 +1,744 @@
+package com.baohoanhao.demo.security;
+
+import com.baohoanhao.demo.config.JwtProperties;
+import com.baohoanhao.demo.config.JwtProperties.SigningKeyProperties;
+import com.baohoanhao.demo.entity.Role;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.PrematureJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("JwtService Tests")
+class JwtServiceTest {
+
+    private static final String SECRET = "test-secret-key-test-secret-key-0123456789";
+
+    private JwtProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new JwtProperties();
+        properties.setSecretKey(SECRET);
+        properties.setAccessTokenExpiration(900_000);
+        properties.setRefreshTokenExpiration(604_800_000);
+    }
+
+    private JwtService jwtService() {
+        return new JwtService(properties, new SigningKeyRing(properties), new SimpleMeterRegistry());
+    }
+
+    @Nested
+    @DisplayName("HS256 (default)")
+    class Hs256Tests {
+
+        @Test
+        @DisplayName("should sign without kid and verify with secret key")
+        void generateAccessToken_Hs256_RoundTrip() {
+            // Arrange
+            JwtService jwtService = jwtService();
+            UUID userId = UUID.randomUUID();
+
+            // Act
+            String token = jwtService.generateAccessToken(userId, "user@example.com", "USER");
+
+            // Assert
+            assertThat(jwtService.isTokenValid(token)).isTrue();
+            assertThat(jwtService.extractUserId(token)).isEqualTo(userId.toString());
+            assertThat(jwtService.extractRole(token)).isEqualTo("USER");
+            assertThat(header(token)).doesNotContain("\"kid\"");
+        }
+    }
+
+    @Nested
+    @DisplayName("Asymmetric keys")
+    class AsymmetricTests {
+
+        @Test
+        @DisplayName("should sign ES256 token with kid of first configured key")
+        void generateAccessToken_Es256_UsesFirstKey() {
+            // Arrange
+            properties.setAlgorithm(JwtAlgorithm.ES256);
+            properties.setSigningKeys(List.of(
+                    keyProperties("es-2", JwtAlgorithm.ES256.generateKeyPair(), true),
+                    keyProperties("es-1", JwtAlgorithm.ES256.generateKeyPair(), true)));
+            JwtService jwtService = jwtService();
+
+            // Act
+            String token = jwtService.generateAccessToken(UUID.randomUUID(), "user@example.com", "USER");
+
+            // Assert
+            assertThat(header(token)).contains("\"kid\":\"es-2\"").contains("\"alg\":\"ES256\"");
+            assertThat(jwtService.isTokenValid(token)).isTrue();
+        }
+
+        @Test
+        @DisplayName("should verify token signed by an older key still in the ring")
+        void isTokenValid_OlderKid_Valid() {
+            // Arrange: token ký bằng es-1 trước khi rotate sang es-2
+            KeyPair oldKey = JwtAlgorithm.EdDSA.generateKeyPair();
+            properties.setAlgorithm(JwtAlgorithm.EdDSA);
+            properties.setSigningKeys(List.of(keyProperties("ed-1", oldKey, true)));
+            String oldToken = jwtService().generateRefreshToken(UUID.randomUUID());
+
+            properties.setSigningKeys(List.of(
+                    keyProperties("ed-2", JwtAlgorithm.EdDSA.generateKeyPair(), true),
+                    keyProperties("ed-1", oldKey, false)));
+
+            // Act & Assert
+            assertThat(jwtService().isTokenValid(oldToken)).isTrue();
+        }
+
+        @Test
+        @DisplayName("should still accept legacy HS256 tokens without kid after switching algorithm")
+        void isTokenValid_LegacyHs256Token_Valid() {
+            // Arrange
+            String legacyToken = jwtService().generateRefreshToken(UUID.randomUUID());
+            properties.setAlgorithm(JwtAlgorithm.EdDSA);
+            properties.setAllowEphemeralKeys(true);
+
+            // Act & Assert
+            assertThat(jwtService().isTokenValid(legacyToken)).isTrue();
+        }
+
+        @Test
+        @DisplayName("should fail startup when an asymmetric algorithm has no configured keys")
+        void signingKeyRing_AsymmetricWithoutKeys_FailsFast() {
+            // Arrange
+            properties.setAlgorithm(JwtAlgorithm.ES256);
+
+            // Act & Assert: không âm thầm sinh key riêng cho từng instance
+            assertThatThrownBy(() -> new SigningKeyRing(properties))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("jwt.allow-ephemeral-keys");
+        }
+
+        @Test
+        @DisplayName("should reject token with unknown kid")
+        void isTokenValid_UnknownKid_Invalid() {
+            // Arrange
+            properties.setAlgorithm(JwtAlgorithm.ES256);
+            properties.setAllowEphemeralKeys(true);
+            String token = jwtService().generateAccessToken(UUID.randomUUID(), "user@example.com", "USER");
+
+            // Act & Assert: ring mới sinh key khác → kid cũ không còn
+            assertThat(jwtService().isTokenValid(token)).isFalse();
+        }
+
+        @Test
+        @DisplayName("should reject HS256 token forged with kid of an asymmetric key")
+        void isTokenValid_AlgorithmConfusion_Invalid() {
+            // Arrange
+            KeyPair pair = JwtAlgorithm.ES256.generateKeyPair();
+            properties.setAlgorithm(JwtAlgorithm.ES256);
+            properties.setSigningKeys(List.of(keyProperties("es-1", pair, true)));
+            String forged = Jwts.builder()
+                    .header().keyId("es-1").and()
+                    .subject(UUID.randomUUID().toString())
+                    .expiration(new Date(System.currentTimeMillis() + 60_000))
+                    .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                    .compact();
+
+            // Act & Assert
+            assertThat(jwtService().isTokenValid(forged)).isFalse();
+        }
+
+        @Test
+        @DisplayName("should publish only public key material in JWKS")
+        void publicJwks_ContainsPublicKeysOnly() {
+            // Arrange
+            properties.setAlgorithm(JwtAlgorithm.EdDSA);
+            properties.setSigningKeys(List.of(keyProperties("ed-1", JwtAlgorithm.EdDSA.generateKeyPair(), true)));
+
+            // Act
+            List<PublicJwk<?>> jwks = new SigningKeyRing(properties).publicJwks();
+
+            // Assert
+            assertThat(jwks).hasSize(1);
+            assertThat(jwks.get(0)).containsEntry("kid", "ed-1")
+                    .containsEntry("kty", "OKP")
+                    .containsEntry("crv", "Ed25519")
+                    .containsEntry("alg", "EdDSA")
+                    .containsKey("x")
+                    .doesNotContainKey("d");
+        }
+    }
+
+    @Nested
+    @DisplayName("Compact access token")
+    class CompactAccessTokenTests {
+
+        @BeforeEach
+        void useCompactFormat() {
+            properties.setAccessTokenFormat(AccessTokenFormat.COMPACT);
+        }
+
+        @Test
+        @DisplayName("should round-trip user id and role without email")
+        void parseAccessToken_Compact_RoundTrip() {
+            // Arrange
+            JwtService jwtService = jwtService();
+            UUID userId = UUID.randomUUID();
+
+            // Act
+            String token = jwtService.generateAccessToken(userId, "user@example.com", "ADMIN");
+            AccessTokenClaims claims = jwtService.parseAccessToken(token);
+
+            // Assert
+            assertThat(claims.userId()).isEqualTo(userId);
+            assertThat(claims.role()).isEqualTo(Role.ADMIN);
+            assertThat(claims.email()).isNull();
+            assertThat(claims.expiresAt()).isGreaterThan(System.currentTimeMillis());
+            assertThat(header(token)).contains("\"typ\":\"at\"");
+            assertThat(payload(token)).doesNotContain("email").doesNotContain(userId.toString());
+            // Các API cũ vẫn trả về giá trị như token STANDARD
+            assertThat(jwtService.extractUserId(token)).isEqualTo(userId.toString());
+            assertThat(jwtService.extractRole(token)).isEqualTo("ADMIN");
+            assertThat(jwtService.extractTokenType(token)).isEqualTo("access");
+        }
+
+        @Test
+        @DisplayName("should be markedly shorter than the standard token")
+        void generateAccessToken_Compact_ShorterThanStandard() {
+            // Arrange
+            UUID userId = UUID.randomUUID();
+            String email = "some.user.name@example.com";
+            String compact = jwtService().generateAccessToken(userId, email, "USER");
+            properties.setAccessTokenFormat(AccessTokenFormat.STANDARD);
+            String standard = jwtService().generateAccessToken(userId, email, "USER");
+
+            // Act
+            int standardHeader = "Bearer ".length() + standard.length();
+            int compactHeader = "Bearer ".length() + compact.length();
+
+            // Assert: ~268 → ~183 byte với email này
+            assertThat(compactHeader).isLessThan(200);
+            assertThat(standardHeader - compactHeader).isGreaterThan(standardHeader / 4);
+        }
+
+        @Test
+        @DisplayName("should reject compact token with tampered payload")
+        void parseAccessToken_TamperedPayload_Rejected() {
+            // Arrange
+            JwtService jwtService = jwtService();
+            String token = jwtService.generateAccessToken(UUID.randomUUID(), null, "USER");
+            String[] parts = token.split("\\.");
+            String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    payload(token).replace("\"r\":1", "\"r\":2").getBytes(StandardCharsets.UTF_8));
+            String forged = parts[0] + "." + forgedPayload + "." + parts[2];
+
+            // Act & Assert
+            assertThatThrownBy(() -> jwtService.parseAccessToken(forged)).isInstanceOf(JwtException.class);
+        }
+
+        @Test
+        @DisplayName("should reject compact signature whose last character has non-zero trailing bits")
+        void parseAccessToken_NonCanonicalSignature_Rejected() {
+            // Arrange
+            JwtService jwtService = jwtService();
+            String token = jwtService.generateAccessToken(UUID.randomUUID(), null, "USER");
+
+            // Act & Assert
+            assertThatThrownBy(() -> jwtService.parseAccessToken(nonCanonicalVariant(token)))
+                    .isInstanceOf(SignatureException.class);
+        }
+
+        @Test
+        @DisplayName("should reject expired compact token")
+        void parseAccessToken_Expired_Rejected() {
+            // Arrange
+            properties.setAccessTokenExpiration(-1_000);
+            JwtService jwtService = jwtService();
+            String token = jwtService.generateAccessToken(UUID.randomUUID(), null, "USER");
+
+            // Act & Assert
+            assertThatThrownBy(() -> jwtService.parseAccessToken(token)).isInstanceOf(ExpiredJwtException.class);
+        }
+
+        @Test
+        @DisplayName("should reject refresh token used as access token")
+        void parseAccessToken_RefreshToken_Rejected() {
+            // Arrange
+            JwtService jwtService = jwtService();
+            String refreshToken = jwtService.generateRefreshToken(UUID.randomUUID());
+
+            // Act & Assert
+            assertThatThrownBy(() -> jwtService.parseAccessToken(refreshToken)).isInstanceOf(JwtException.class);
+        }
+
+        @Test
+        @DisplayName("should defer compact tokens with nbf to JJWT like the standard fast path")
+        void parseAccessToken_CompactNotBefore_CheckedByJjwt() {
+            // Arrange: fast path tắt, token COMPACT vẫn đi cùng parser với STANDARD
+            String token = Jwts.builder()
+                    .header().type(CompactAccessTokenCodec.TOKEN_TYPE).and()
+                    .subject(CompactAccessTokenCodec.encodeSubject(UUID.randomUUID()))
+                    .claim(CompactAccessTokenCodec.ROLE_CLAIM, 1)
+                    .issuedAt(new Date())
+                    .notBefore(new Date(System.currentTimeMillis() + 60_000))
+                    .expiration(new Date(System.currentTimeMillis() + 120_000))
+                    .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), Jwts.SIG.HS256)
+                    .compact();
+
+            // Act & Assert
+            assertThatThrownBy(() -> jwtService().parseAccessToken(token))
+                    .isInstanceOf(PrematureJwtException.class);
+        }
+
+        @Test
+        @DisplayName("should parse compact EdDSA token through JJWT fallback")
+        void parseAccessToken_CompactEdDsa_Parsed() {
+            // Arrange
+            properties.setAlgorithm(JwtAlgorithm.EdDSA);
+            properties.setAllowEphemeralKeys(true);
+            JwtService jwtService = jwtService();
+            UUID userId = UUID.randomUUID();
+
+            // Act
+            AccessTokenClaims claims = jwtService.parseAccessToken(
+                    jwtService.generateAccessToken(userId, null, "USER"));
+
+            // Assert
+            assertThat(claims.userId()).isEqualTo(userId);
+            assertThat(claims.role()).isEqualTo(Role.USER);
+        }
+
+        @Test
+        @DisplayName("should still parse standard access tokens issued before switching format")
+        void parseAccessToken_Standard_Parsed() {
+            // Arrange
+            properties.setAccessTokenFormat(AccessTokenFormat.STANDARD);
+            UUID userId = UUID.randomUUID();
+            String standard = jwtService().generateAccessToken(userId, "user@example.com", "USER");
+            properties.setAccessTokenFormat(AccessTokenFormat.COMPACT);
+
+            // Act
+            AccessTokenClaims claims = jwtService().parseAccessToken(standard);
+
+            // Assert
+            assertThat(claims.userId()).isEqualTo(userId);
+            assertThat(claims.email()).isEqualTo("user@example.com");
+        }
+    }
+
+    @Nested
+    @DisplayName("Metrics")
+    class MetricsTests {
+
+        @Test
+        @DisplayName("should time sign and verify with low-cardinality outcome tags")
+        void parseAccessToken_Outcomes_Recorded() {
+            // Arrange
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            JwtService jwtService = new JwtService(properties, new SigningKeyRing(properties), meterRegistry);
+            UUID userId = UUID.randomUUID();
+            String accessToken = jwtService.generateAccessToken(userId, "user@example.com", "USER");
+            String refreshToken = jwtService.generateRefreshToken(userId);
+
+            // Act
+            jwtService.parseAccessToken(accessToken);
+            assertThatThrownBy(() -> jwtService.parseAccessToken(refreshToken)).isInstanceOf(JwtException.class);
+            assertThatThrownBy(() -> jwtService.parseAccessToken("not-a-jwt")).isInstanceOf(JwtException.class);
+            jwtService.isTokenValid(refreshToken);
+
+            // Assert
+            assertThat(count(meterRegistry, "sign", "access", "success")).isEqualTo(1);
+            assertThat(count(meterRegistry, "sign", "refresh", "success")).isEqualTo(1);
+            assertThat(count(meterRegistry, "verify", "access", "valid")).isEqualTo(1);
+            assertThat(count(meterRegistry, "verify", "access", "wrong_type")).isEqualTo(1);
+            assertThat(count(meterRegistry, "verify", "access", "invalid")).isEqualTo(1);
+            assertThat(count(meterRegistry, "verify", "refresh", "valid")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should tag expired tokens separately")
+        void parseAccessToken_Expired_Recorded() {
+            // Arrange
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            properties.setAccessTokenExpiration(-60_000);
+            JwtService jwtService = new JwtService(properties, new SigningKeyRing(properties), meterRegistry);
+            String token = jwtService.generateAccessToken(UUID.randomUUID(), "user@example.com", "USER");
+
+            // Act & Assert
+            assertThatThrownBy(() -> jwtService.parseAccessToken(token)).isInstanceOf(ExpiredJwtException.class);
+            assertThat(count(meterRegistry, "verify", "access", "expired")).isEqualTo(1);
+        }
+
+        private long count(SimpleMeterRegistry meterRegistry, String operation, String type, String outcome) {
+            return meterRegistry.get("auth.jwt")
+                    .tags("operation", operation, "type", type, "outcome", outcome)
+                    .timer().count();
+        }
+    }
+
+    @Nested
+    @DisplayName("HS256 fast path")
+    class FastPathTests {
+
+        @BeforeEach
+        void enableFastPath() {
+            properties.setFastPathEnabled(true);
+        }
+
+        @Test
+        @DisplayName("should reject signature whose last character has non-zero trailing bits")
+        void parseAccessToken_NonCanonicalSignature_Rejected() {
+            // Arrange
+            JwtService jwtService = jwtService();
+            String token = jwtService.generateAccessToken(UUID.randomUUID(), "user@example.com", "USER");
+            String variant = nonCanonicalVariant(token);
+
+            // Act & Assert
+            assertThat(jwtService.parseAccessToken(token)).isNotNull();
+            assertThatThrownBy(() -> jwtService.parseAccessToken(variant)).isInstanceOf(JwtException.class);
+        }
+
+        @Test
+        @DisplayName("should verify compact token without going through JJWT")
+        void parseAccessToken_Compact_Verified() {
+            // Arrange
+            properties.setAccessTokenFormat(AccessTokenFormat.COMPACT);
+            JwtService jwtService = jwtService();
+            UUID userId = UUID.randomUUID();
+            String token = jwtService.generateAccessToken(userId, null, "ADMIN");
+
+            // Act
+            AccessTokenClaims claims = jwtService.parseAccessToken(token);
+
+            // Assert
+            assertThat(claims.userId()).isEqualTo(userId);
+            assertThat(claims.role()).isEqualTo(Role.ADMIN);
+            assertThatThrownBy(() -> jwtService.parseAccessToken(nonCanonicalVariant(token)))
+                    .isInstanceOf(JwtException.class);
+        }
+
+        @Test
+        @DisplayName("should read standard token claims like JJWT, including non-ASCII email")
+        void parseAccessToken_Standard_MatchesJjwt() {
+            // Arrange
+            JwtService jwtService = jwtService();
+            UUID userId = UUID.randomUUID();
+            String token = jwtService.generateAccessToken(userId, "người.dùng@example.com", "ADMIN");
+
+            // Act
+            AccessTokenClaims claims = jwtService.parseAccessToken(token);
+
+            // Assert
+            assertThat(claims.userId()).isEqualTo(userId);
+            assertThat(claims.role()).isEqualTo(Role.ADMIN);
+            assertThat(claims.email()).isEqualTo("người.dùng@example.com");
+            assertThat(claims.expiresAt()).isEqualTo(jwtService.extractExpiration(token).getTime());
+        }
+
+        @Test
+        @DisplayName("should reject standard token with tampered role")
+        void parseAccessToken_TamperedRole_Rejected() {
+            // Arrange
+            JwtService jwtService = jwtService();
+            String token = jwtService.generateAccessToken(UUID.randomUUID(), "user@example.com", "USER");
+            String[] parts = token.split("\\.");
+            String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    payload(token).replace("\"USER\"", "\"ADMIN\"").getBytes(StandardCharsets.UTF_8));
+            String forged = parts[0] + "." + forgedPayload + "." + parts[2];
+
+            // Act & Assert
+            assertThatThrownBy(() -> jwtService.parseAccessToken(forged)).isInstanceOf(JwtException.class);
+        }
+
+        @Test
+        @DisplayName("should reject token signed with another secret")
+        void parseAccessToken_OtherSecret_Rejected() {
+            // Arrange
+            String token = jwtService().generateAccessToken(UUID.randomUUID(), "user@example.com", "USER");
+            properties.setSecretKey("another-secret-key-another-secret-key-0123");
+
+            // Act & Assert
+            assertThatThrownBy(() -> jwtService().parseAccessToken(token)).isInstanceOf(JwtException.class);
+        }
+
+        @Test
+        @DisplayName("should reject token with invalid base64url characters")
+        void parseAccessToken_InvalidBase64_Rejected() {
+            // Arrange
+            JwtService jwtService = jwtService();
+            String token = jwtService.generateAccessToken(UUID.randomUUID(), "user@example.com", "USER");
+            String invalid = token.substring(0, token.length() - 1) + "=";
+
+            // Act & Assert
+            assertThatThrownBy(() -> jwtService.parseAccessToken(invalid)).isInstanceOf(JwtException.class);
+        }
+
+        @Test
+        @DisplayName("should defer tokens with nbf to JJWT")
+        void parseAccessToken_NotBefore_CheckedByJjwt() {
+            // Arrange
+            String token = Jwts.builder()
+                    .claims(Map.of("type", "access", "email", "", "role", "USER"))
+                    .subject(UUID.randomUUID().toString())
+                    .issuedAt(new Date())
+                    .notBefore(new Date(System.currentTimeMillis() + 60_000))
+                    .expiration(new Date(System.currentTimeMillis() + 120_000))
+                    .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), Jwts.SIG.HS256)
+                    .compact();
+
+            // Act & Assert
+            assertThatThrownBy(() -> jwtService().parseAccessToken(token))
+                    .isInstanceOf(PrematureJwtException.class);
+        }
+
+        @Test
+        @DisplayName("should verify tokens of both keys after HS256 rotation")
+        void parseAccessToken_AfterRotation_BothKeysVerified() {
+            // Arrange
+            properties.setKeyGracePeriod(Duration.ofHours(1));
+            SigningKeyRing ring = new SigningKeyRing(properties);
+            JwtService jwtService = new JwtService(properties, ring, new SimpleMeterRegistry());
+            UUID oldUser = UUID.randomUUID();
+            String oldToken = jwtService.generateAccessToken(oldUser, null, "USER");
+            ring.reload(List.of(hsKey("hs-2")));
+            UUID newUser = UUID.randomUUID();
+            String newToken = jwtService.generateAccessToken(newUser, null, "USER");
+
+            // Act & Assert: xen kẽ để Mac phải init lại theo key
+            assertThat(jwtService.parseAccessToken(newToken).userId()).isEqualTo(newUser);
+            assertThat(jwtService.parseAccessToken(oldToken).userId()).isEqualTo(oldUser);
+            assertThat(jwtService.parseAccessToken(newToken).userId()).isEqualTo(newUser);
+        }
+    }
+
+    @Nested
+    @DisplayName("Key rotation")
+    class RotationTests {
+
+        private final MutableClock clock = new MutableClock();
+
+        @BeforeEach
+        void setUpRing() {
+            properties.setKeyGracePeriod(Duration.ofHours(1));
+        }
+
+        @Test
+        @DisplayName("reload should sign with new kid and keep verifying tokens of previous key")
+        void reload_NewKid_OldTokensStillValid() {
+            // Arrange
+            properties.setAlgorithm(JwtAlgorithm.EdDSA);
+            properties.setAllowEphemeralKeys(true);
+            SigningKeyRing ring = new SigningKeyRing(properties, clock);
+            JwtService jwtService = new JwtService(properties, ring, new SimpleMeterRegistry());
+            String oldKid = ring.activeKey().kid();
+            String oldToken = jwtService.generateRefreshToken(UUID.randomUUID());
+
+            // Act
+            ring.reload(List.of(keyProperties("ed-2", JwtAlgorithm.EdDSA.generateKeyPair(), true)));
+            String newToken = jwtService.generateRefreshToken(UUID.randomUUID());
+
+            // Assert
+            assertThat(header(newToken)).contains("\"kid\":\"ed-2\"");
+            assertThat(jwtService.isTokenValid(oldToken)).isTrue();
+            assertThat(jwtService.isTokenValid(newToken)).isTrue();
+            assertThat(ring.keys()).extracting(SigningKey::kid).containsExactly("ed-2", oldKid, null);
+        }
+
+        @Test
+        @DisplayName("retired key should stop verifying after grace period")
+        void reload_GracePeriodElapsed_OldTokenInvalid() {
+            // Arrange: HS256 mặc định, token cũ không có kid
+            properties.setRefreshTokenExpiration(Duration.ofDays(2).toMillis());
+            SigningKeyRing ring = new SigningKeyRing(properties, clock);
+            JwtService jwtService = new JwtService(properties, ring, new SimpleMeterRegistry());
+            String legacyToken = jwtService.generateRefreshToken(UUID.randomUUID());
+            ring.reload(List.of(hsKey("hs-1")));
+
+            // Act & Assert
+            clock.advance(Duration.ofMinutes(59));
+            assertThat(jwtService.isTokenValid(legacyToken)).isTrue();
+
+            clock.advance(Duration.ofMinutes(2));
+            assertThatThrownBy(() -> ring.verificationKey(null))
+                    .hasMessageContaining("grace period");
+            assertThat(ring.keys()).extracting(SigningKey::kid).doesNotContainNull();
+        }
+
+        @Test
+        @DisplayName("reload should activate first key and retire keys removed from the list")
+        void reload_RemovedKey_RetiredWithGrace() {
+            // Arrange
+            properties.setAlgorithm(JwtAlgorithm.ES256);
+            KeyPair first = JwtAlgorithm.ES256.generateKeyPair();
+            properties.setSigningKeys(List.of(keyProperties("es-1", first, true)));
+            SigningKeyRing ring = new SigningKeyRing(properties, clock);
+            String token = new JwtService(properties, ring, new SimpleMeterRegistry()).generateRefreshToken(UUID.randomUUID());
+
+            // Act
+            ring.reload(List.of(keyProperties("es-2", JwtAlgorithm.ES256.generateKeyPair(), true)));
+
+            // Assert
+            assertThat(ring.activeKey().kid()).isEqualTo("es-2");
+            assertThat(ring.keys()).filteredOn(key -> "es-1".equals(key.kid()))
+                    .singleElement()
+                    .satisfies(key -> assertThat(key.verifyUntil()).isEqualTo(clock.instant().plus(Duration.ofHours(1))));
+            assertThat(new JwtService(properties, ring, new SimpleMeterRegistry()).isTokenValid(token)).isTrue();
+        }
+
+        @Test
+        @DisplayName("reload should reject a key list whose first key cannot sign")
+        void reload_FirstKeyVerifyOnly_Rejected() {
+            // Arrange
+            properties.setAlgorithm(JwtAlgorithm.ES256);
+            properties.setAllowEphemeralKeys(true);
+            SigningKeyRing ring = new SigningKeyRing(properties, clock);
+            String activeKid = ring.activeKey().kid();
+
+            // Act & Assert
+            assertThatThrownBy(() -> ring.reload(List.of(
+                    keyProperties("es-9", JwtAlgorithm.ES256.generateKeyPair(), false))))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThat(ring.activeKey().kid()).isEqualTo(activeKid);
+        }
+
+        @Test
+        @DisplayName("key file watcher should reload only when file content changes")
+        void keyFileWatcher_ContentChanged_Reloads(@TempDir Path dir) throws Exception {
+            // Arrange
+            Path keyFile = dir.resolve("jwt-keys.json");
+            Files.writeString(keyFile, keyFileJson("hs-1"));
+            properties.setKeyFile(keyFile.toString());
+            SigningKeyRing ring = new SigningKeyRing(properties, clock);
+            SigningKeyFileWatcher watcher = new SigningKeyFileWatcher(ring, new ObjectMapper(), properties);
+            watcher.init();
+            assertThat(ring.activeKey().kid()).isEqualTo("hs-1");
+
+            // Act
+            watcher.poll();
+            List<SigningKey> unchanged = ring.keys();
+            Files.writeString(keyFile, keyFileJson("hs-2"));
+            watcher.poll();
+
+            // Assert
+            assertThat(unchanged).extracting(SigningKey::kid).containsExactly("hs-1", null);
+            assertThat(ring.activeKey().kid()).isEqualTo("hs-2");
+            assertThat(ring.keys()).extracting(SigningKey::kid).containsExactly("hs-2", "hs-1", null);
+        }
+
+        @Test
+        @DisplayName("key file watcher should keep current keys when file is invalid")
+        void keyFileWatcher_InvalidFile_KeepsCurrentKeys(@TempDir Path dir) throws Exception {
+            // Arrange
+            Path keyFile = dir.resolve("jwt-keys.json");
+            Files.writeString(keyFile, keyFileJson("hs-1"));
+            properties.setKeyFile(keyFile.toString());
+            SigningKeyRing ring = new SigningKeyRing(properties, clock);
+            SigningKeyFileWatcher watcher = new SigningKeyFileWatcher(ring, new ObjectMapper(), properties);
+            watcher.init();
+
+            // Act
+            Files.writeString(keyFile, "{\"keys\": [");
+            watcher.poll();
+
+            // Assert
+            assertThat(ring.activeKey().kid()).isEqualTo("hs-1");
+        }
+
+        private String keyFileJson(String kid) throws Exception {
+            return new ObjectMapper().writeValueAsString(Map.of("keys", List.of(Map.of(
+                    "kid", kid,
+                    "algorithm", "HS256",
+                    "secret", kid + "-secret-key-secret-key-secret-key-0123"))));
+        }
+    }
+
+    /**
+     * Clock cho phép tua thời gian để kiểm tra grace window
+     */
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-06-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private static SigningKeyProperties keyProperties(String kid, KeyPair pair, boolean withPrivateKey) {
+        SigningKeyProperties key = new SigningKeyProperties();
+        key.setKid(kid);
+        key.setPublicKey(pem("PUBLIC KEY", pair.getPublic().getEncoded()));
+        if (withPrivateKey) {
+            key.setPrivateKey(pem("PRIVATE KEY", pair.getPrivate().getEncoded()));
+        }
+        return key;
+    }
+
+    private static SigningKeyProperties hsKey(String kid) {
+        SigningKeyProperties key = new SigningKeyProperties();
+        key.setKid(kid);
+        key.setAlgorithm(JwtAlgorithm.HS256);
+        key.setSecret(kid + "-secret-key-secret-key-secret-key-0123");
+        return key;
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.UTF_8)).encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+    }
+
+    /**
+     * Đổi bit thấp nhất của ký tự cuối: 43 ký tự = 258 bit cho 256 bit chữ ký, decode lỏng vẫn ra cùng byte
+     */
+    static String nonCanonicalVariant(String token) {
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        char last = token.charAt(token.length() - 1);
+        return token.substring(0, token.length() - 1) + alphabet.charAt(alphabet.indexOf(last) ^ 1);
+    }
+
+    private static String header(String token) {
+        return new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))),
+                StandardCharsets.UTF_8);
+    }
+
+    private static String payload(String token) {
+        return new String(Base64.getUrlDecoder().decode(token.split("\\.")[1]), StandardCharsets.UTF_8);
+    }
+}
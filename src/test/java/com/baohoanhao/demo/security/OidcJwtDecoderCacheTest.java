@@ -0,0 +1,251 @@
+package com.baohoanhao.demo.security;
+
+import com.baohoanhao.demo.config.OAuthProperties;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("OidcJwtDecoderCache Tests")
+class OidcJwtDecoderCacheTest {
+
+    private static final String CLIENT_ID = "google-client-id";
+
+    private HttpServer server;
+    private String issuer;
+    private final AtomicInteger discoveryHits = new AtomicInteger();
+    private final AtomicInteger jwksHits = new AtomicInteger();
+    private volatile JWKSet published;
+    private volatile String signingAlgorithms = "[\"RS256\"]";
+
+    private SimpleMeterRegistry meterRegistry;
+    private OidcJwtDecoderCache cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Stub issuer: discovery + JWKS, đếm số request
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        issuer = "http://127.0.0.1:" + server.getAddress().getPort();
+        server.createContext("/.well-known/openid-configuration", exchange -> {
+            discoveryHits.incrementAndGet();
+            respond(exchange, discoveryDocument());
+        });
+        server.createContext("/certs", exchange -> {
+            jwksHits.incrementAndGet();
+            respond(exchange, published.toString());
+        });
+        server.start();
+
+        OAuthProperties properties = new OAuthProperties();
+        properties.getIssuerUri().put("google", issuer);
+        properties.getJwks().setRateLimitMinInterval(Duration.ofMillis(1));
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new OidcJwtDecoderCache(properties, meterRegistry, ObservationRegistry.NOOP);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        cache.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("should run discovery and fetch JWKS once across many logins")
+    void decoderFor_RepeatedLogins_FetchesOnce() throws Exception {
+        // Arrange
+        RSAKey key = rsaKey("key-1");
+        published = new JWKSet(key.toPublicJWK());
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            Jwt jwt = cache.decoderFor(registration()).decode(idToken(key, CLIENT_ID));
+            assertThat(jwt.getClaimAsString("email")).isEqualTo("user@example.com");
+        }
+
+        // Assert
+        assertThat(discoveryHits).hasValue(1);
+        assertThat(jwksHits).hasValue(1);
+        assertThat(cache.decoderFor(registration())).isSameAs(cache.decoderFor(registration()));
+        assertThat(meterRegistry.get("oauth.jwks.fetch").tag("registration", "google").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should refetch JWKS when token is signed with an unknown kid")
+    void decode_UnknownKid_RefetchesJwks() throws Exception {
+        // Arrange
+        RSAKey oldKey = rsaKey("key-1");
+        published = new JWKSet(oldKey.toPublicJWK());
+        JwtDecoder decoder = cache.decoderFor(registration());
+        decoder.decode(idToken(oldKey, CLIENT_ID));
+
+        // Provider rotate key
+        RSAKey newKey = rsaKey("key-2");
+        published = new JWKSet(List.of(newKey.toPublicJWK(), oldKey.toPublicJWK()));
+        Thread.sleep(5);
+
+        // Act
+        Jwt jwt = decoder.decode(idToken(newKey, CLIENT_ID));
+
+        // Assert
+        assertThat(jwt.getSubject()).isEqualTo("google-sub");
+        assertThat(jwksHits).hasValue(2);
+        assertThat(discoveryHits).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("should reject id_token issued for another client")
+    void decode_AudienceMismatch_Rejected() throws Exception {
+        // Arrange
+        RSAKey key = rsaKey("key-1");
+        published = new JWKSet(key.toPublicJWK());
+
+        // Act & Assert
+        assertThatThrownBy(() -> cache.decoderFor(registration()).decode(idToken(key, "other-client")))
+                .isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    @DisplayName("should reject id_token issued by another issuer")
+    void decode_IssuerMismatch_Rejected() throws Exception {
+        // Arrange
+        RSAKey key = rsaKey("key-1");
+        published = new JWKSet(key.toPublicJWK());
+
+        // Act & Assert
+        assertThatThrownBy(() -> cache.decoderFor(registration())
+                .decode(idToken(key, JWSAlgorithm.RS256, "https://evil.example.com", CLIENT_ID)))
+                .isInstanceOf(JwtException.class)
+                .hasMessageContaining("iss");
+    }
+
+    @Test
+    @DisplayName("should accept only the signing algorithms advertised by discovery")
+    void decode_AlgorithmsFromDiscovery_Enforced() throws Exception {
+        // Arrange: provider chỉ ký ES256
+        signingAlgorithms = "[\"ES256\"]";
+        ECKey ecKey = new ECKeyGenerator(Curve.P_256).keyID("ec-1").generate();
+        RSAKey rsaKey = rsaKey("rsa-1");
+        published = new JWKSet(List.of(ecKey.toPublicJWK(), rsaKey.toPublicJWK()));
+        JwtDecoder decoder = cache.decoderFor(registration());
+
+        // Act
+        Jwt jwt = decoder.decode(idToken(ecKey, JWSAlgorithm.ES256, issuer, CLIENT_ID));
+
+        // Assert
+        assertThat(jwt.getSubject()).isEqualTo("google-sub");
+        assertThatThrownBy(() -> decoder.decode(idToken(rsaKey, CLIENT_ID))).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    @DisplayName("should refuse providers that only advertise unsigned or symmetric id_tokens")
+    void decoderFor_NoAsymmetricAlgorithm_Fails() {
+        // Arrange
+        signingAlgorithms = "[\"none\",\"HS256\"]";
+
+        // Act & Assert
+        assertThatThrownBy(() -> cache.decoderFor(registration())).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("should not cache decoder when discovery fails")
+    void decoderFor_DiscoveryFails_RetriedNextTime() throws Exception {
+        // Arrange
+        RSAKey key = rsaKey("key-1");
+        published = new JWKSet(key.toPublicJWK());
+        server.removeContext("/.well-known/openid-configuration");
+
+        // Act & Assert
+        assertThatThrownBy(() -> cache.decoderFor(registration())).isInstanceOf(IllegalStateException.class);
+
+        server.createContext("/.well-known/openid-configuration", exchange -> {
+            discoveryHits.incrementAndGet();
+            respond(exchange, discoveryDocument());
+        });
+        assertThat(cache.decoderFor(registration()).decode(idToken(key, CLIENT_ID)).getSubject())
+                .isEqualTo("google-sub");
+    }
+
+    private static ClientRegistration registration() {
+        return ClientRegistration.withRegistrationId("google")
+                .clientId(CLIENT_ID)
+                .clientSecret("google-client-secret")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("{baseUrl}/api/auth/oauth2/callback/{registrationId}")
+                .authorizationUri("https://accounts.google.com/o/oauth2/v2/auth")
+                .tokenUri("https://oauth2.googleapis.com/token")
+                .build();
+    }
+
+    private String discoveryDocument() {
+        return "{\"issuer\":\"" + issuer + "\",\"jwks_uri\":\"" + issuer + "/certs\","
+                + "\"id_token_signing_alg_values_supported\":" + signingAlgorithms + "}";
+    }
+
+    private String idToken(RSAKey key, String audience) throws JOSEException {
+        return idToken(key, JWSAlgorithm.RS256, issuer, audience);
+    }
+
+    private String idToken(JWK key, JWSAlgorithm algorithm, String tokenIssuer, String audience) throws JOSEException {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(tokenIssuer)
+                .subject("google-sub")
+                .audience(audience)
+                .claim("email", "user@example.com")
+                .issueTime(new Date())
+                .expirationTime(new Date(System.currentTimeMillis() + 60_000))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(algorithm).keyID(key.getKeyID()).build(), claims);
+        JWSSigner signer = key instanceof ECKey ecKey ? new ECDSASigner(ecKey) : new RSASSASigner(key.toRSAKey());
+        jwt.sign(signer);
+        return jwt.serialize();
+    }
+
+    private static RSAKey rsaKey(String kid) throws JOSEException {
+        return new RSAKeyGenerator(2048).keyID(kid).generate();
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
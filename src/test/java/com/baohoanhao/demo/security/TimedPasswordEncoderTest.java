@@ -0,0 +1,76 @@
+package com.baohoanhao.demo.security;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("TimedPasswordEncoder Tests")
+class TimedPasswordEncoderTest {
+
+    private final PasswordEncoder delegate = mock(PasswordEncoder.class);
+
+    private SimpleMeterRegistry meterRegistry;
+    private TimedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        meterRegistry.config().meterFilter(TimedPasswordEncoder.meterFilter());
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        encoder = new TimedPasswordEncoder(delegate, observationRegistry);
+    }
+
+    @Test
+    @DisplayName("should tag matches outcome and keep the meter description")
+    void matches_Mismatch_TaggedWithDescription() {
+        // Arrange
+        when(delegate.matches(any(), anyString())).thenReturn(false);
+
+        // Act
+        boolean matches = encoder.matches("password", "hash");
+
+        // Assert
+        assertThat(matches).isFalse();
+        Timer timer = meterRegistry.get("auth.password").tag("operation", "matches").tag("outcome", "mismatch").timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.getId().getDescription()).isEqualTo("Latency hash / verify mật khẩu (bcrypt)");
+    }
+
+    @Test
+    @DisplayName("should record outcome=error when the delegate throws")
+    void matches_DelegateThrows_OutcomeError() {
+        // Arrange
+        when(delegate.matches(any(), anyString())).thenThrow(new IllegalArgumentException("bad hash"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> encoder.matches("password", "hash")).isInstanceOf(IllegalArgumentException.class);
+        Timer timer = meterRegistry.get("auth.password").tag("operation", "matches").tag("outcome", "error").timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.getId().getTag("error")).isEqualTo("IllegalArgumentException");
+    }
+
+    @Test
+    @DisplayName("should not report a failed encode as success")
+    void encode_DelegateThrows_OutcomeError() {
+        // Arrange
+        when(delegate.encode(any())).thenThrow(new IllegalStateException("rng"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> encoder.encode("password")).isInstanceOf(IllegalStateException.class);
+        assertThat(meterRegistry.find("auth.password").tag("outcome", "success").timer()).isNull();
+        assertThat(meterRegistry.get("auth.password").tag("operation", "encode").tag("outcome", "error").timer().count())
+                .isEqualTo(1);
+    }
+}
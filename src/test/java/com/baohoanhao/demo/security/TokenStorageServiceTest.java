@@ -0,0 +1,130 @@
+package com.baohoanhao.demo.security;
+
+import com.baohoanhao.demo.config.JwtProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("TokenStorageService Tests")
+class TokenStorageServiceTest {
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
+    private JwtProperties properties;
+    private TokenStorageService tokenStorageService;
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        properties = new JwtProperties();
+        properties.setSecretKey("test-secret-key-test-secret-key-0123456789");
+        properties.setAccessTokenExpiration(900_000);
+        properties.setRefreshTokenExpiration(604_800_000);
+        jwtService = new JwtService(properties, new SigningKeyRing(properties), new SimpleMeterRegistry());
+        tokenStorageService = new TokenStorageService(redisTemplate, new SimpleMeterRegistry(), properties);
+    }
+
+    @Test
+    @DisplayName("should block a logged-out token whose signature was re-encoded")
+    void isTokenBlacklisted_SignatureVariant_SameKey() {
+        // Arrange
+        String token = jwtService.generateAccessToken(UUID.randomUUID(), "user@example.com", "USER");
+        String variant = JwtServiceTest.nonCanonicalVariant(token);
+        properties.setAccessTokenExpiration(0);
+        tokenStorageService = new TokenStorageService(redisTemplate, new SimpleMeterRegistry(), properties);
+        tokenStorageService.blacklistToken(token, 60_000);
+        String blacklistKey = TokenStorageService.blacklistKey(token);
+        verify(valueOperations).set(blacklistKey, "revoked", 60_000, TimeUnit.MILLISECONDS);
+        when(redisTemplate.hasKey(blacklistKey)).thenReturn(true);
+
+        // Act
+        boolean blacklisted = tokenStorageService.isTokenBlacklisted(variant);
+
+        // Assert
+        assertThat(blacklisted).isTrue();
+    }
+
+    @Test
+    @DisplayName("should still block tokens revoked under the legacy key format right after deploy")
+    void isTokenBlacklisted_LegacyKeyWithinTtl_Blocked() {
+        // Arrange: token logout bởi bản cũ, key = 32 ký tự cuối
+        String token = jwtService.generateAccessToken(UUID.randomUUID(), "user@example.com", "USER");
+        List<String> keys = List.of(TokenStorageService.blacklistKey(token), "blacklist:" + token.substring(token.length() - 32));
+        when(redisTemplate.countExistingKeys(keys)).thenReturn(1L);
+
+        // Act
+        boolean blacklisted = tokenStorageService.isTokenBlacklisted(token);
+
+        // Assert
+        assertThat(blacklisted).isTrue();
+        verify(redisTemplate, never()).hasKey(anyString());
+    }
+
+    @Test
+    @DisplayName("should write both key formats on logout while legacy keys can still exist")
+    void blacklistToken_WithinLegacyWindow_WritesBothKeys() {
+        // Arrange
+        String token = jwtService.generateAccessToken(UUID.randomUUID(), "user@example.com", "USER");
+
+        // Act
+        tokenStorageService.blacklistToken(token, 60_000);
+
+        // Assert
+        verify(valueOperations).set(TokenStorageService.blacklistKey(token), "revoked", 60_000, TimeUnit.MILLISECONDS);
+        verify(valueOperations).set(TokenStorageService.legacyBlacklistKey(token), "revoked", 60_000,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    @DisplayName("should only check the new key once the legacy window is over")
+    void isTokenBlacklisted_AfterLegacyWindow_SingleKey() {
+        // Arrange
+        properties.setAccessTokenExpiration(0);
+        tokenStorageService = new TokenStorageService(redisTemplate, new SimpleMeterRegistry(), properties);
+        String token = jwtService.generateAccessToken(UUID.randomUUID(), "user@example.com", "USER");
+
+        // Act
+        boolean blacklisted = tokenStorageService.isTokenBlacklisted(token);
+
+        // Assert
+        assertThat(blacklisted).isFalse();
+        verify(redisTemplate).hasKey(TokenStorageService.blacklistKey(token));
+        verify(redisTemplate, never()).countExistingKeys(anyCollection());
+    }
+
+    @Test
+    @DisplayName("should key by SHA-256 of header.payload and separate different tokens")
+    void blacklistKey_DifferentPayload_DifferentKey() throws Exception {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        String first = jwtService.generateAccessToken(userId, "user@example.com", "USER");
+        String second = jwtService.generateAccessToken(userId, "user@example.com", "ADMIN");
+        String signedPart = first.substring(0, first.lastIndexOf('.'));
+        String expected = HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(signedPart.getBytes(StandardCharsets.US_ASCII)));
+
+        // Act & Assert
+        assertThat(TokenStorageService.blacklistKey(first))
+                .isEqualTo("blacklist:" + expected)
+                .isEqualTo(TokenStorageService.blacklistKey(first))
+                .isNotEqualTo(TokenStorageService.blacklistKey(second));
+    }
+}
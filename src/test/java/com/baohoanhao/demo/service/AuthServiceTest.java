@@ -1,6 +1,7 @@
 package com.baohoanhao.demo.service;
 
 import com.baohoanhao.demo.config.JwtProperties;
+import com.baohoanhao.demo.config.ReadYourWritesTracker;
 import com.baohoanhao.demo.dto.request.LoginRequest;
 import com.baohoanhao.demo.dto.request.RefreshTokenRequest;
 import com.baohoanhao.demo.dto.request.RegisterRequest;
@@ -11,6 +12,7 @@ import com.baohoanhao.demo.exception.BadRequestException;
 import com.baohoanhao.demo.exception.ConflictException;
 import com.baohoanhao.demo.exception.UnauthorizedException;
 import com.baohoanhao.demo.repository.UserRepository;
+import com.baohoanhao.demo.security.AuthenticatedUser;
 import com.baohoanhao.demo.security.JwtService;
 import com.baohoanhao.demo.security.TokenStorageService;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,11 +20,13 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDateTime;
@@ -53,6 +57,9 @@ class AuthServiceTest {
     @Mock
     private JwtProperties jwtProperties;
 
+    @Mock
+    private ReadYourWritesTracker readYourWritesTracker;
+
     @InjectMocks
     private AuthService authService;
 
@@ -76,9 +83,9 @@ class AuthServiceTest {
             RegisterRequest request = fixtures.createRegisterRequest("test@example.com", null);
             User savedUser = fixtures.createUser("test@example.com", null);
 
-            when(userRepository.existsByEmail(request.getEmail())).thenReturn(false);
+            when(userRepository.findContactConflicts(request.getEmail(), null)).thenReturn(List.of());
             when(passwordEncoder.encode(request.getPassword())).thenReturn("hashed-password");
-            when(userRepository.save(any(User.class))).thenReturn(savedUser);
+            when(userRepository.saveAndFlush(any(User.class))).thenReturn(savedUser);
             when(jwtService.generateAccessToken(any(), anyString(), anyString())).thenReturn("access-token");
             when(jwtService.generateRefreshToken(any())).thenReturn("refresh-token");
 
@@ -91,8 +98,9 @@ class AuthServiceTest {
             assertThat(response.getRefreshToken()).isEqualTo("refresh-token");
             assertThat(response.getTokenType()).isEqualTo("Bearer");
             assertThat(response.getUser().getEmail()).isEqualTo("test@example.com");
-            verify(userRepository).save(any(User.class));
+            verify(userRepository).saveAndFlush(any(User.class));
             verify(tokenStorageService).storeRefreshToken(anyString(), eq("refresh-token"), anyLong());
+            verify(readYourWritesTracker).markWrite(savedUser.getId().toString());
         }
 
         @Test
@@ -102,9 +110,9 @@ class AuthServiceTest {
             RegisterRequest request = fixtures.createRegisterRequest(null, "0912345678");
             User savedUser = fixtures.createUser(null, "0912345678");
 
-            when(userRepository.existsByPhone(request.getPhone())).thenReturn(false);
+            when(userRepository.findContactConflicts(null, request.getPhone())).thenReturn(List.of());
             when(passwordEncoder.encode(request.getPassword())).thenReturn("hashed-password");
-            when(userRepository.save(any(User.class))).thenReturn(savedUser);
+            when(userRepository.saveAndFlush(any(User.class))).thenReturn(savedUser);
             when(jwtService.generateAccessToken(any(), any(), anyString())).thenReturn("access-token");
             when(jwtService.generateRefreshToken(any())).thenReturn("refresh-token");
 
@@ -114,7 +122,7 @@ class AuthServiceTest {
             // Assert
             assertThat(response).isNotNull();
             assertThat(response.getUser().getPhone()).isEqualTo("0912345678");
-            verify(userRepository).save(any(User.class));
+            verify(userRepository).saveAndFlush(any(User.class));
         }
 
         @Test
@@ -128,7 +136,7 @@ class AuthServiceTest {
                 .isInstanceOf(BadRequestException.class)
                 .hasMessageContaining("Cần cung cấp Email hoặc Số điện thoại");
 
-            verify(userRepository, never()).save(any(User.class));
+            verify(userRepository, never()).saveAndFlush(any(User.class));
         }
 
         @Test
@@ -136,13 +144,16 @@ class AuthServiceTest {
         void register_DuplicateEmail_ThrowsConflictException() {
             // Arrange
             RegisterRequest request = fixtures.createRegisterRequest("duplicate@example.com", null);
-            when(userRepository.existsByEmail("duplicate@example.com")).thenReturn(true);
+            when(userRepository.findContactConflicts("duplicate@example.com", null))
+                .thenReturn(List.of(fixtures.contact("duplicate@example.com", null)));
 
             // Act & Assert
             assertThatThrownBy(() -> authService.register(request))
-                .isInstanceOf(ConflictException.class);
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("email");
 
-            verify(userRepository, never()).save(any(User.class));
+            verify(userRepository, never()).saveAndFlush(any(User.class));
+            verify(passwordEncoder, never()).encode(anyString());
         }
 
         @Test
@@ -150,13 +161,65 @@ class AuthServiceTest {
         void register_DuplicatePhone_ThrowsConflictException() {
             // Arrange
             RegisterRequest request = fixtures.createRegisterRequest(null, "0912345678");
-            when(userRepository.existsByPhone("0912345678")).thenReturn(true);
+            when(userRepository.findContactConflicts(null, "0912345678"))
+                .thenReturn(List.of(fixtures.contact(null, "0912345678")));
+
+            // Act & Assert
+            assertThatThrownBy(() -> authService.register(request))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("phone");
+
+            verify(userRepository, never()).saveAndFlush(any(User.class));
+        }
+
+        @Test
+        @DisplayName("should check email and phone duplicates in a single query")
+        void register_EmailAndPhone_SingleDuplicateCheckQuery() {
+            // Arrange
+            RegisterRequest request = fixtures.createRegisterRequest("test@example.com", "0912345678");
+            User savedUser = fixtures.createUser("test@example.com", "0912345678");
+
+            when(passwordEncoder.encode(request.getPassword())).thenReturn("hashed-password");
+            when(userRepository.saveAndFlush(any(User.class))).thenReturn(savedUser);
+            when(jwtService.generateAccessToken(any(), anyString(), anyString())).thenReturn("access-token");
+            when(jwtService.generateRefreshToken(any())).thenReturn("refresh-token");
+
+            // Act
+            authService.register(request);
+
+            // Assert
+            verify(userRepository, times(1)).findContactConflicts("test@example.com", "0912345678");
+        }
+
+        @Test
+        @DisplayName("should translate concurrent phone unique violation to ConflictException")
+        void register_PhoneConstraintViolation_ThrowsConflictException() {
+            // Arrange: pre-check không thấy trùng nhưng request khác insert trước
+            RegisterRequest request = fixtures.createRegisterRequest("test@example.com", "0912345678");
+            when(passwordEncoder.encode(request.getPassword())).thenReturn("hashed-password");
+            when(userRepository.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException(
+                "Duplicate entry '0912345678' for key 'users.uk_users_phone'"));
 
             // Act & Assert
             assertThatThrownBy(() -> authService.register(request))
-                .isInstanceOf(ConflictException.class);
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("phone")
+                .hasMessageContaining("0912345678");
 
-            verify(userRepository, never()).save(any(User.class));
+            verify(tokenStorageService, never()).storeRefreshToken(anyString(), anyString(), anyLong());
+        }
+
+        @Test
+        @DisplayName("should rethrow unrelated integrity violations unchanged")
+        void register_OtherConstraintViolation_Rethrows() {
+            // Arrange
+            RegisterRequest request = fixtures.createRegisterRequest("test@example.com", null);
+            DataIntegrityViolationException violation = new DataIntegrityViolationException("Column 'full_name' cannot be null");
+            when(passwordEncoder.encode(request.getPassword())).thenReturn("hashed-password");
+            when(userRepository.saveAndFlush(any(User.class))).thenThrow(violation);
+
+            // Act & Assert
+            assertThatThrownBy(() -> authService.register(request)).isSameAs(violation);
         }
     }
 
@@ -319,35 +382,37 @@ class AuthServiceTest {
     class LogoutTests {
 
         @Test
-        @DisplayName("should logout successfully and blacklist token")
+        @DisplayName("should blacklist token for its remaining lifetime without re-parsing it")
         void logout_ValidToken_Success() {
             // Arrange
             String accessToken = "valid-access-token";
-            String userId = UUID.randomUUID().toString();
-
-            when(jwtService.isTokenValid(accessToken)).thenReturn(true);
-            when(jwtService.getTimeToLive(accessToken)).thenReturn(3600L);
+            AuthenticatedUser user = new AuthenticatedUser(UUID.randomUUID(), "test@example.com", Role.USER,
+                    System.currentTimeMillis() + 3_600_000);
 
             // Act
-            authService.logout(accessToken, userId);
+            authService.logout(user, accessToken);
 
             // Assert
-            verify(tokenStorageService).blacklistToken(accessToken, 3600L);
-            verify(tokenStorageService).deleteRefreshToken(userId);
+            ArgumentCaptor<Long> ttl = ArgumentCaptor.forClass(Long.class);
+            verify(tokenStorageService).blacklistToken(eq(accessToken), ttl.capture());
+            assertThat(ttl.getValue()).isBetween(3_500_000L, 3_600_000L);
+            verify(tokenStorageService).deleteRefreshToken(user.id().toString());
+            verifyNoInteractions(jwtService);
         }
 
         @Test
         @DisplayName("should handle null access token gracefully")
         void logout_NullToken_HandlesGracefully() {
             // Arrange
-            String userId = UUID.randomUUID().toString();
+            AuthenticatedUser user = new AuthenticatedUser(UUID.randomUUID(), null, Role.USER,
+                    System.currentTimeMillis() + 3_600_000);
 
             // Act
-            authService.logout(null, userId);
+            authService.logout(user, null);
 
             // Assert
             verify(tokenStorageService, never()).blacklistToken(anyString(), anyLong());
-            verify(tokenStorageService).deleteRefreshToken(userId);
+            verify(tokenStorageService).deleteRefreshToken(user.id().toString());
         }
     }
 
@@ -359,13 +424,13 @@ class AuthServiceTest {
         @DisplayName("should revoke all user tokens")
         void logoutAll_Success() {
             // Arrange
-            String userId = UUID.randomUUID().toString();
+            UUID userId = UUID.randomUUID();
 
             // Act
             authService.logoutAll(userId);
 
             // Assert
-            verify(tokenStorageService).revokeAllUserTokens(userId);
+            verify(tokenStorageService).revokeAllUserTokens(userId.toString());
         }
     }
 
@@ -383,7 +448,7 @@ class AuthServiceTest {
             when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
 
             // Act
-            Map<String, Object> profile = authService.getCurrentUserProfile(user.getId().toString(), authorities);
+            Map<String, Object> profile = authService.getCurrentUserProfile(user.getId(), authorities);
 
             // Assert
             assertThat(profile).isNotNull();
@@ -395,19 +460,6 @@ class AuthServiceTest {
             assertThat(profile.get("authorities")).isEqualTo(authorities);
         }
 
-        @Test
-        @DisplayName("should throw UnauthorizedException when userId format is invalid")
-        void getCurrentUserProfile_InvalidUuidFormat_ThrowsUnauthorizedException() {
-            // Arrange
-            String invalidUserId = "invalid-uuid";
-            Collection<String> authorities = Arrays.asList("ROLE_USER");
-
-            // Act & Assert
-            assertThatThrownBy(() -> authService.getCurrentUserProfile(invalidUserId, authorities))
-                .isInstanceOf(UnauthorizedException.class)
-                .hasMessageContaining("Định dạng User ID không hợp lệ");
-        }
-
         @Test
         @DisplayName("should throw UnauthorizedException when user not found")
         void getCurrentUserProfile_UserNotFound_ThrowsUnauthorizedException() {
@@ -418,7 +470,7 @@ class AuthServiceTest {
             when(userRepository.findById(userId)).thenReturn(Optional.empty());
 
             // Act & Assert
-            assertThatThrownBy(() -> authService.getCurrentUserProfile(userId.toString(), authorities))
+            assertThatThrownBy(() -> authService.getCurrentUserProfile(userId, authorities))
                 .isInstanceOf(UnauthorizedException.class)
                 .hasMessageContaining("User không tồn tại");
         }
@@ -426,6 +478,26 @@ class AuthServiceTest {
 
     static class TestFixtures {
 
+        UserRepository.ContactView contact(String email, String phone) {
+            UUID id = UUID.randomUUID();
+            return new UserRepository.ContactView() {
+                @Override
+                public UUID getId() {
+                    return id;
+                }
+
+                @Override
+                public String getEmail() {
+                    return email;
+                }
+
+                @Override
+                public String getPhone() {
+                    return phone;
+                }
+            };
+        }
+
         RegisterRequest createRegisterRequest(String email, String phone) {
             RegisterRequest request = new RegisterRequest();
             request.setEmail(email);
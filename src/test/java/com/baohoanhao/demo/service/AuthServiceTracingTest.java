@@ -0,0 +1,135 @@
+package com.baohoanhao.demo.service;
+
+import com.baohoanhao.demo.config.JwtProperties;
+import com.baohoanhao.demo.config.ReadYourWritesTracker;
+import com.baohoanhao.demo.dto.request.LoginRequest;
+import com.baohoanhao.demo.entity.Role;
+import com.baohoanhao.demo.entity.User;
+import com.baohoanhao.demo.exception.UnauthorizedException;
+import com.baohoanhao.demo.repository.UserRepository;
+import com.baohoanhao.demo.security.JwtService;
+import com.baohoanhao.demo.security.TimedPasswordEncoder;
+import com.baohoanhao.demo.security.TokenStorageService;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Span của login: OTel SDK thật, export vào InMemorySpanExporter thay cho OTLP collector
+ */
+@DisplayName("AuthService tracing Tests")
+class AuthServiceTracingTest {
+
+    private final InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    private SdkTracerProvider tracerProvider;
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build();
+        OtelTracer tracer = new OtelTracer(tracerProvider.get("test"), new OtelCurrentTraceContext(), event -> { });
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new DefaultTracingObservationHandler(tracer));
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        User user = User.builder()
+                .id(UUID.randomUUID())
+                .email("test@example.com")
+                .fullName("Test User")
+                .passwordHash(bcrypt.encode("password123"))
+                .role(Role.USER)
+                .active(true)
+                .build();
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByIdentifier("test@example.com")).thenReturn(Optional.of(user));
+        JwtService jwtService = mock(JwtService.class);
+        when(jwtService.generateAccessToken(any(), anyString(), anyString())).thenReturn("access-token");
+        when(jwtService.generateRefreshToken(any())).thenReturn("refresh-token");
+
+        // Proxy + ObservedAspect như Spring AOP làm với @Observed
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new AuthService(userRepository,
+                new TimedPasswordEncoder(bcrypt, observationRegistry), jwtService,
+                mock(TokenStorageService.class), new JwtProperties(), mock(ReadYourWritesTracker.class)));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new ObservedAspect(observationRegistry));
+        authService = proxyFactory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Test
+    @DisplayName("should export login span with bcrypt span as child")
+    void login_ValidCredentials_BcryptSpanUnderLogin() {
+        // Arrange
+        LoginRequest request = loginRequest("password123");
+
+        // Act
+        authService.login(request);
+
+        // Assert
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        SpanData login = span(spans, "auth-service#login");
+        SpanData bcrypt = span(spans, "password matches");
+        assertThat(bcrypt.getTraceId()).isEqualTo(login.getTraceId());
+        assertThat(bcrypt.getParentSpanId()).isEqualTo(login.getSpanId());
+        assertThat(bcrypt.getAttributes().asMap().values()).contains("matches", "match");
+        assertThat(login.getStatus().getStatusCode()).isNotEqualTo(StatusCode.ERROR);
+    }
+
+    @Test
+    @DisplayName("should mark login span as error on wrong password")
+    void login_WrongPassword_ErrorSpan() {
+        // Arrange
+        LoginRequest request = loginRequest("wrong-password");
+
+        // Act
+        assertThatThrownBy(() -> authService.login(request)).isInstanceOf(UnauthorizedException.class);
+
+        // Assert
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        assertThat(span(spans, "password matches").getAttributes().asMap().values()).contains("mismatch");
+        assertThat(span(spans, "auth-service#login").getStatus().getStatusCode()).isEqualTo(StatusCode.ERROR);
+    }
+
+    private static LoginRequest loginRequest(String password) {
+        LoginRequest request = new LoginRequest();
+        request.setIdentifier("test@example.com");
+        request.setPassword(password);
+        return request;
+    }
+
+    private static SpanData span(List<SpanData> spans, String name) {
+        return spans.stream()
+                .filter(span -> span.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Không có span " + name + " trong " + spans));
+    }
+}
@@ -1,14 +1,22 @@
 package com.baohoanhao.demo.service;
 
 import com.baohoanhao.demo.config.JwtProperties;
+import com.baohoanhao.demo.config.OAuthHttpClients;
+import com.baohoanhao.demo.config.OAuthProperties;
 import com.baohoanhao.demo.dto.response.AuthResponse;
 import com.baohoanhao.demo.entity.Role;
 import com.baohoanhao.demo.entity.User;
 import com.baohoanhao.demo.exception.BadRequestException;
+import com.baohoanhao.demo.exception.ServiceUnavailableException;
 import com.baohoanhao.demo.exception.UnauthorizedException;
 import com.baohoanhao.demo.repository.UserRepository;
 import com.baohoanhao.demo.security.JwtService;
 import com.baohoanhao.demo.security.TokenStorageService;
+import com.baohoanhao.demo.service.oauth.OAuthIdentityService;
+import com.baohoanhao.demo.service.oauth.OAuthProfile;
+import com.baohoanhao.demo.service.oauth.OAuthProfileResolvers;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -16,9 +24,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.client.registration.ClientRegistration;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
@@ -29,6 +39,9 @@ import org.springframework.web.client.RestTemplate;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -60,6 +73,21 @@ class Oauth2LoginServiceTest {
     @Mock
     private RestTemplate restTemplate;
 
+    @Mock
+    private OAuthHttpClients httpClients;
+
+    @Mock
+    private OAuthProfileResolvers profileResolvers;
+
+    @Mock
+    private OAuthIdentityService identityService;
+
+    @Spy
+    private OAuthProperties oauthProperties = new OAuthProperties();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private Oauth2LoginService oauth2LoginService;
 
@@ -70,6 +98,7 @@ class Oauth2LoginServiceTest {
         fixtures = new TestFixtures();
         when(jwtProperties.getAccessTokenExpiration()).thenReturn(3600000L);
         when(jwtProperties.getRefreshTokenExpiration()).thenReturn(86400000L);
+        when(httpClients.forProvider(anyString())).thenReturn(restTemplate);
     }
 
     @Nested
@@ -90,6 +119,27 @@ class Oauth2LoginServiceTest {
                 .isInstanceOf(BadRequestException.class)
                 .hasMessageContaining("Provider không hợp lệ");
         }
+
+        @Test
+        @DisplayName("should record unknown providers under a single oauth.login series")
+        void handleCallback_InvalidProvider_RecordsFailureLatency() {
+            // Arrange
+            when(clientRegistrationRepository.findByRegistrationId(anyString())).thenReturn(null);
+
+            // Act
+            for (String path : new String[]{"invalid-provider", "random-1", "random-2"}) {
+                assertThatThrownBy(() -> oauth2LoginService.handleCallback(path, "code", "http://localhost"))
+                    .isInstanceOf(BadRequestException.class);
+            }
+
+            // Assert
+            assertThat(meterRegistry.get("oauth.login").timers()).singleElement()
+                .satisfies(timer -> {
+                    assertThat(timer.getId().getTag("provider")).isEqualTo("unknown");
+                    assertThat(timer.getId().getTag("outcome")).isEqualTo("failure");
+                    assertThat(timer.count()).isEqualTo(3);
+                });
+        }
     }
 
     @Nested
@@ -245,6 +295,152 @@ class Oauth2LoginServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("handleCallbackAsync() admission control")
+    class AdmissionControlTests {
+
+        @Test
+        @DisplayName("should reject callbacks with 503 once max-concurrent-callbacks are in flight")
+        void handleCallbackAsync_LimitReached_ThrowsServiceUnavailable() throws Exception {
+            // Arrange: limit 1, callback đầu tiên bị giữ lại ở token exchange
+            OAuthProperties limited = new OAuthProperties();
+            limited.setMaxConcurrentCallbacks(1);
+            Oauth2LoginService service = new Oauth2LoginService(clientRegistrationRepository, userRepository,
+                passwordEncoder, jwtService, tokenStorageService, jwtProperties, httpClients, profileResolvers,
+                identityService, limited, meterRegistry);
+            CountDownLatch providerStarted = new CountDownLatch(1);
+            CountDownLatch providerRelease = new CountDownLatch(1);
+            when(clientRegistrationRepository.findByRegistrationId("google"))
+                .thenReturn(fixtures.createGoogleRegistration());
+            when(restTemplate.postForObject(anyString(), any(), eq(java.util.Map.class))).thenAnswer(invocation -> {
+                providerStarted.countDown();
+                providerRelease.await();
+                return null;
+            });
+
+            try {
+                // Act
+                CompletableFuture<AuthResponse> inFlight = service.handleCallbackAsync("google", "code", "http://localhost");
+                assertThat(providerStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+                // Assert
+                assertThatThrownBy(() -> service.handleCallbackAsync("google", "code", "http://localhost"))
+                    .isInstanceOf(ServiceUnavailableException.class)
+                    .extracting("status")
+                    .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+
+                // Callback xong (kể cả lỗi) thì trả permit
+                providerRelease.countDown();
+                assertThatThrownBy(() -> inFlight.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(UnauthorizedException.class);
+                CompletableFuture<AuthResponse> next = service.handleCallbackAsync("google", "code", "http://localhost");
+                assertThatThrownBy(() -> next.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(UnauthorizedException.class);
+            } finally {
+                providerRelease.countDown();
+                service.shutdown();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Linked identities")
+    class LinkedIdentityTests {
+
+        private final OAuthProfile profile =
+                new OAuthProfile("google", "google-sub", "changed@example.com", true, "Test User", null);
+
+        @BeforeEach
+        void setUpCallback() {
+            ClientRegistration registration = fixtures.createGoogleRegistration();
+            when(clientRegistrationRepository.findByRegistrationId("google")).thenReturn(registration);
+            when(restTemplate.postForObject(anyString(), any(), eq(java.util.Map.class)))
+                .thenReturn(java.util.Map.of("access_token", "token", "id_token", "id-token"));
+            when(profileResolvers.resolve(eq(registration), anyMap())).thenReturn(profile);
+            when(jwtService.generateAccessToken(any(UUID.class), anyString(), anyString())).thenReturn("access-token");
+            when(jwtService.generateRefreshToken(any(UUID.class))).thenReturn("refresh-token");
+        }
+
+        @Test
+        @DisplayName("should sign in linked user by provider subject without email lookup")
+        void handleCallback_LinkedIdentity_SkipsEmailLookup() {
+            // Arrange
+            User user = fixtures.createUser("test@example.com");
+            when(identityService.findLinkedUser(profile)).thenReturn(Optional.of(user));
+
+            // Act
+            AuthResponse response = oauth2LoginService.handleCallback("google", "code", "http://localhost");
+
+            // Assert
+            assertThat(response.getUser().getEmail()).isEqualTo("test@example.com");
+            verify(userRepository, never()).findByEmail(anyString());
+            verify(userRepository, never()).save(any(User.class));
+            verify(identityService, never()).link(any(), any());
+        }
+
+        @Test
+        @DisplayName("should link identity to account with the same email on first provider login")
+        void handleCallback_FirstLogin_LinksExistingAccount() {
+            // Arrange
+            User user = fixtures.createUser("changed@example.com");
+            when(identityService.findLinkedUser(profile)).thenReturn(Optional.empty());
+            when(userRepository.findByEmail("changed@example.com")).thenReturn(Optional.of(user));
+
+            // Act
+            oauth2LoginService.handleCallback("google", "code", "http://localhost");
+
+            // Assert
+            verify(identityService).link(user, profile);
+            verify(userRepository, never()).save(any(User.class));
+        }
+
+        @Test
+        @DisplayName("should not link or create account by unverified email")
+        void handleCallback_UnverifiedEmail_ThrowsUnauthorizedException() {
+            // Arrange
+            OAuthProfile unverified =
+                new OAuthProfile("google", "google-sub", "changed@example.com", false, "Test User", null);
+            when(profileResolvers.resolve(any(ClientRegistration.class), anyMap())).thenReturn(unverified);
+            when(identityService.findLinkedUser(unverified)).thenReturn(Optional.empty());
+            when(userRepository.findByEmail("changed@example.com"))
+                .thenReturn(Optional.of(fixtures.createUser("changed@example.com")));
+
+            // Act & Assert
+            assertThatThrownBy(() -> oauth2LoginService.handleCallback("google", "code", "http://localhost"))
+                .isInstanceOf(UnauthorizedException.class)
+                .hasMessageContaining("xác minh");
+            verify(identityService, never()).link(any(), any());
+            verify(userRepository, never()).save(any(User.class));
+        }
+
+        @Test
+        @DisplayName("should sign in already linked identity even if email is unverified")
+        void handleCallback_LinkedIdentityUnverifiedEmail_SignsIn() {
+            // Arrange
+            OAuthProfile unverified =
+                new OAuthProfile("google", "google-sub", "changed@example.com", false, "Test User", null);
+            when(profileResolvers.resolve(any(ClientRegistration.class), anyMap())).thenReturn(unverified);
+            when(identityService.findLinkedUser(unverified))
+                .thenReturn(Optional.of(fixtures.createUser("test@example.com")));
+
+            // Act
+            AuthResponse response = oauth2LoginService.handleCallback("google", "code", "http://localhost");
+
+            // Assert
+            assertThat(response.getUser().getEmail()).isEqualTo("test@example.com");
+        }
+
+        @Test
+        @DisplayName("should reject linked user that was deactivated")
+        void handleCallback_LinkedInactiveUser_ThrowsUnauthorizedException() {
+            // Arrange
+            when(identityService.findLinkedUser(profile)).thenReturn(Optional.of(fixtures.createInactiveUser()));
+
+            // Act & Assert
+            assertThatThrownBy(() -> oauth2LoginService.handleCallback("google", "code", "http://localhost"))
+                .isInstanceOf(UnauthorizedException.class)
+                .hasMessageContaining("vô hiệu hóa");
+        }
+    }
+
     @Nested
     @DisplayName("Token Response Validation")
     class TokenResponseValidationTests {
@@ -0,0 +1,173 @@
+package com.baohoanhao.demo.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserExportService Tests")
+class UserExportServiceTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private UserExportService userExportService;
+
+    private final List<Row> table = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        userExportService = new UserExportService(jdbcTemplate, new ObjectMapper(), BATCH_SIZE);
+
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 10, 0);
+        table.add(new Row(UUID.randomUUID(), "User 1", base));
+        table.add(new Row(UUID.randomUUID(), "User 2", base.plusMinutes(1)));
+        table.add(new Row(UUID.randomUUID(), "User 3", base.plusMinutes(2)));
+    }
+
+    @Test
+    @DisplayName("should stream every user as one NDJSON line using keyset pages")
+    void exportTo_MultiplePages_WritesAllRowsAsNdjson() throws Exception {
+        // Arrange: mỗi lần query trả về trang kế tiếp
+        List<List<Row>> pages = List.of(table.subList(0, 2), table.subList(2, 3));
+        int[] call = {0};
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Row row : pages.get(call[0]++)) {
+                handler.processRow(row.toResultSet());
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long exported = userExportService.exportTo(out);
+
+        // Assert
+        assertThat(exported).isEqualTo(3);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(3);
+
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertThat(first.get("id").asText()).isEqualTo(table.get(0).id().toString());
+        assertThat(first.get("fullName").asText()).isEqualTo("User 1");
+        assertThat(first.get("createdAt").asText()).isEqualTo("2024-01-01T10:00:00");
+        assertThat(first.has("passwordHash")).isFalse();
+        verify(jdbcTemplate, times(2)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    @DisplayName("should use last row of previous page as keyset cursor")
+    void exportTo_SecondPage_BindsCursorFromLastRow() throws Exception {
+        // Arrange
+        ArgumentCaptor<PreparedStatementCreator> creators = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        int[] call = {0};
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            if (call[0]++ == 0) {
+                handler.processRow(table.get(0).toResultSet());
+                handler.processRow(table.get(1).toResultSet());
+            }
+            return null;
+        }).when(jdbcTemplate).query(creators.capture(), any(RowCallbackHandler.class));
+
+        // Act
+        long exported = userExportService.exportTo(new ByteArrayOutputStream());
+
+        // Assert
+        assertThat(exported).isEqualTo(2);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+
+        creators.getAllValues().get(1).createPreparedStatement(connection);
+
+        Row last = table.get(1);
+        verify(connection).prepareStatement(contains("WHERE created_at > ? OR (created_at = ? AND id > ?)"));
+        verify(statement, never()).setFetchSize(anyInt());
+        verify(statement).setObject(1, last.createdAt());
+        verify(statement).setObject(2, last.createdAt());
+        verify(statement).setObject(eq(3), argThat(value -> value instanceof byte[] bytes
+                && ByteBuffer.wrap(bytes).getLong() == last.id().getMostSignificantBits()));
+        verify(statement).setObject(4, BATCH_SIZE);
+    }
+
+    @Test
+    @DisplayName("should fail loudly instead of truncating when the cursor row has no created_at")
+    void exportTo_NullCreatedAtCursor_Throws() {
+        // Arrange
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(table.get(0).toResultSet());
+            handler.processRow(new Row(UUID.randomUUID(), "Legacy", null).toResultSet());
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        // Act & Assert
+        assertThatThrownBy(() -> userExportService.exportTo(new ByteArrayOutputStream()))
+                .isInstanceOf(IllegalStateException.class);
+        verify(jdbcTemplate, times(1)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    @DisplayName("should stop after first page when table is empty")
+    void exportTo_EmptyTable_WritesNothing() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long exported = userExportService.exportTo(out);
+
+        // Assert
+        assertThat(exported).isZero();
+        assertThat(out.size()).isZero();
+        verify(jdbcTemplate, times(1)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    private record Row(UUID id, String fullName, LocalDateTime createdAt) {
+
+        ResultSet toResultSet() throws Exception {
+            ResultSet rs = mock(ResultSet.class);
+            ByteBuffer buffer = ByteBuffer.allocate(16);
+            buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+            when(rs.getBytes("id")).thenReturn(buffer.array());
+            when(rs.getObject("created_at", LocalDateTime.class)).thenReturn(createdAt);
+            when(rs.getObject("updated_at", LocalDateTime.class)).thenReturn(createdAt);
+            when(rs.getString("full_name")).thenReturn(fullName);
+            when(rs.getString("email")).thenReturn(fullName.replace(" ", "").toLowerCase() + "@example.com");
+            when(rs.getString("phone")).thenReturn(null);
+            when(rs.getString("role")).thenReturn("USER");
+            when(rs.getBoolean("active")).thenReturn(true);
+            return rs;
+        }
+    }
+}
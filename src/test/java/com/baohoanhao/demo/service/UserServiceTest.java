@@ -1,11 +1,13 @@
 package com.baohoanhao.demo.service;
 
+import com.baohoanhao.demo.config.ReadYourWritesTracker;
 import com.baohoanhao.demo.dto.request.DeleteAccountRequest;
 import com.baohoanhao.demo.dto.request.UpdateProfileRequest;
 import com.baohoanhao.demo.dto.response.UserProfileResponse;
 import com.baohoanhao.demo.entity.Role;
 import com.baohoanhao.demo.entity.User;
 import com.baohoanhao.demo.exception.BadRequestException;
+import com.baohoanhao.demo.exception.ConflictException;
 import com.baohoanhao.demo.exception.ForbiddenException;
 import com.baohoanhao.demo.exception.ResourceNotFoundException;
 import com.baohoanhao.demo.repository.UserRepository;
@@ -19,9 +21,11 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -42,6 +46,9 @@ class UserServiceTest {
     @Mock
     private TokenStorageService tokenStorageService;
 
+    @Mock
+    private ReadYourWritesTracker readYourWritesTracker;
+
     @InjectMocks
     private UserService userService;
 
@@ -64,15 +71,52 @@ class UserServiceTest {
             UpdateProfileRequest request = fixtures.createUpdateRequest("New Name", user.getEmail(), user.getPhone());
 
             when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-            when(userRepository.save(any(User.class))).thenReturn(user);
+            when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
 
             // Act
-            UserProfileResponse response = userService.updateProfile(user.getId().toString(), request);
+            UserProfileResponse response = userService.updateProfile(user.getId(), request);
 
             // Assert
             assertThat(response).isNotNull();
             assertThat(response.getFullName()).isEqualTo("New Name");
-            verify(userRepository).save(argThat(u -> u.getFullName().equals("New Name")));
+            verify(userRepository).saveAndFlush(argThat(u -> u.getFullName().equals("New Name")));
+        }
+
+        @Test
+        @DisplayName("should mark user as recently written for read-your-writes routing")
+        void updateProfile_Success_MarksReadYourWrites() {
+            // Arrange
+            User user = fixtures.createActiveUser();
+            UpdateProfileRequest request = fixtures.createUpdateRequest("New Name", user.getEmail(), user.getPhone());
+
+            when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+            when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
+
+            // Act
+            userService.updateProfile(user.getId(), request);
+
+            // Assert
+            verify(readYourWritesTracker).markWrite(user.getId().toString());
+        }
+
+        @Test
+        @DisplayName("should skip UPDATE when submitted profile is unchanged")
+        void updateProfile_NoChanges_SkipsWrite() {
+            // Arrange
+            User user = fixtures.createActiveUser();
+            UpdateProfileRequest request = fixtures.createUpdateRequest(
+                user.getFullName(), user.getEmail(), user.getPhone());
+
+            when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+            // Act
+            UserProfileResponse response = userService.updateProfile(user.getId(), request);
+
+            // Assert
+            assertThat(response.getFullName()).isEqualTo(user.getFullName());
+            verify(userRepository, never()).saveAndFlush(any(User.class));
+            verify(userRepository, never()).findContactConflicts(any(), any());
+            verifyNoInteractions(readYourWritesTracker);
         }
 
         @Test
@@ -87,21 +131,21 @@ class UserServiceTest {
             );
 
             when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-            when(userRepository.existsByEmail("newemail@example.com")).thenReturn(false);
-            when(userRepository.save(any(User.class))).thenReturn(user);
+            when(userRepository.findContactConflicts("newemail@example.com", null)).thenReturn(List.of());
+            when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
 
             // Act
-            UserProfileResponse response = userService.updateProfile(user.getId().toString(), request);
+            UserProfileResponse response = userService.updateProfile(user.getId(), request);
 
             // Assert
             assertThat(response).isNotNull();
-            verify(userRepository).existsByEmail("newemail@example.com");
-            verify(userRepository).save(any(User.class));
+            verify(userRepository).findContactConflicts("newemail@example.com", null);
+            verify(userRepository).saveAndFlush(any(User.class));
         }
 
         @Test
-        @DisplayName("should throw BadRequestException when email already exists")
-        void updateProfile_DuplicateEmail_ThrowsBadRequestException() {
+        @DisplayName("should throw ConflictException when email already exists")
+        void updateProfile_DuplicateEmail_ThrowsConflictException() {
             // Arrange
             User user = fixtures.createActiveUser();
             UpdateProfileRequest request = fixtures.createUpdateRequest(
@@ -111,14 +155,15 @@ class UserServiceTest {
             );
 
             when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-            when(userRepository.existsByEmail("duplicate@example.com")).thenReturn(true);
+            when(userRepository.findContactConflicts("duplicate@example.com", null))
+                .thenReturn(List.of(fixtures.contact(UUID.randomUUID(), "duplicate@example.com", null)));
 
             // Act & Assert
-            assertThatThrownBy(() -> userService.updateProfile(user.getId().toString(), request))
-                .isInstanceOf(BadRequestException.class)
-                .hasMessageContaining("Email đã được sử dụng");
+            assertThatThrownBy(() -> userService.updateProfile(user.getId(), request))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("Email đã tồn tại");
 
-            verify(userRepository, never()).save(any(User.class));
+            verify(userRepository, never()).saveAndFlush(any(User.class));
         }
 
         @Test
@@ -133,13 +178,13 @@ class UserServiceTest {
             );
 
             when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-            when(userRepository.save(any(User.class))).thenReturn(user);
+            when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
 
             // Act
-            userService.updateProfile(user.getId().toString(), request);
+            userService.updateProfile(user.getId(), request);
 
             // Assert
-            verify(userRepository, never()).existsByEmail(anyString());
+            verify(userRepository, never()).findContactConflicts(any(), any());
         }
 
         @Test
@@ -154,21 +199,21 @@ class UserServiceTest {
             );
 
             when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-            when(userRepository.existsByPhone("0987654321")).thenReturn(false);
-            when(userRepository.save(any(User.class))).thenReturn(user);
+            when(userRepository.findContactConflicts(null, "0987654321")).thenReturn(List.of());
+            when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
 
             // Act
-            UserProfileResponse response = userService.updateProfile(user.getId().toString(), request);
+            UserProfileResponse response = userService.updateProfile(user.getId(), request);
 
             // Assert
             assertThat(response).isNotNull();
-            verify(userRepository).existsByPhone("0987654321");
-            verify(userRepository).save(any(User.class));
+            verify(userRepository).findContactConflicts(null, "0987654321");
+            verify(userRepository).saveAndFlush(any(User.class));
         }
 
         @Test
-        @DisplayName("should throw BadRequestException when phone already exists")
-        void updateProfile_DuplicatePhone_ThrowsBadRequestException() {
+        @DisplayName("should throw ConflictException when phone already exists")
+        void updateProfile_DuplicatePhone_ThrowsConflictException() {
             // Arrange
             User user = fixtures.createActiveUser();
             UpdateProfileRequest request = fixtures.createUpdateRequest(
@@ -178,14 +223,15 @@ class UserServiceTest {
             );
 
             when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-            when(userRepository.existsByPhone("0999999999")).thenReturn(true);
+            when(userRepository.findContactConflicts(null, "0999999999"))
+                .thenReturn(List.of(fixtures.contact(UUID.randomUUID(), null, "0999999999")));
 
             // Act & Assert
-            assertThatThrownBy(() -> userService.updateProfile(user.getId().toString(), request))
-                .isInstanceOf(BadRequestException.class)
-                .hasMessageContaining("Số điện thoại đã được sử dụng");
+            assertThatThrownBy(() -> userService.updateProfile(user.getId(), request))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("Số điện thoại đã tồn tại");
 
-            verify(userRepository, never()).save(any(User.class));
+            verify(userRepository, never()).saveAndFlush(any(User.class));
         }
 
         @Test
@@ -200,40 +246,74 @@ class UserServiceTest {
             );
 
             when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-            when(userRepository.save(any(User.class))).thenReturn(user);
+            when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
 
             // Act
-            userService.updateProfile(user.getId().toString(), request);
+            userService.updateProfile(user.getId(), request);
 
             // Assert
-            verify(userRepository, never()).existsByPhone(anyString());
+            verify(userRepository, never()).findContactConflicts(any(), any());
         }
 
         @Test
-        @DisplayName("should throw ResourceNotFoundException when user not found")
-        void updateProfile_UserNotFound_ThrowsResourceNotFoundException() {
+        @DisplayName("should not treat own row as duplicate when only email case changes")
+        void updateProfile_OwnEmailDifferentCase_NotDuplicate() {
             // Arrange
-            UUID userId = UUID.randomUUID();
-            UpdateProfileRequest request = fixtures.createUpdateRequest("Name", "email@test.com", "0912345678");
+            User user = fixtures.createActiveUser();
+            UpdateProfileRequest request = fixtures.createUpdateRequest(
+                user.getFullName(),
+                "TEST@example.com",
+                user.getPhone()
+            );
 
-            when(userRepository.findById(userId)).thenReturn(Optional.empty());
+            when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+            when(userRepository.findContactConflicts("TEST@example.com", null))
+                .thenReturn(List.of(fixtures.contact(user.getId(), user.getEmail(), user.getPhone())));
+            when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
+
+            // Act
+            UserProfileResponse response = userService.updateProfile(user.getId(), request);
+
+            // Assert
+            assertThat(response.getEmail()).isEqualTo("TEST@example.com");
+        }
+
+        @Test
+        @DisplayName("should translate concurrent email unique violation to ConflictException")
+        void updateProfile_EmailConstraintViolation_ThrowsConflictException() {
+            // Arrange
+            User user = fixtures.createActiveUser();
+            UpdateProfileRequest request = fixtures.createUpdateRequest(
+                user.getFullName(),
+                "race@example.com",
+                user.getPhone()
+            );
+
+            when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+            when(userRepository.findContactConflicts("race@example.com", null)).thenReturn(List.of());
+            when(userRepository.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException(
+                "Duplicate entry 'race@example.com' for key 'users.uk_users_email'"));
 
             // Act & Assert
-            assertThatThrownBy(() -> userService.updateProfile(userId.toString(), request))
-                .isInstanceOf(ResourceNotFoundException.class)
-                .hasMessageContaining("Không tìm thấy thông tin người dùng");
+            assertThatThrownBy(() -> userService.updateProfile(user.getId(), request))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("email")
+                .hasMessageContaining("race@example.com");
         }
 
         @Test
-        @DisplayName("should throw BadRequestException when userId is invalid UUID")
-        void updateProfile_InvalidUserId_ThrowsBadRequestException() {
+        @DisplayName("should throw ResourceNotFoundException when user not found")
+        void updateProfile_UserNotFound_ThrowsResourceNotFoundException() {
             // Arrange
+            UUID userId = UUID.randomUUID();
             UpdateProfileRequest request = fixtures.createUpdateRequest("Name", "email@test.com", "0912345678");
 
+            when(userRepository.findById(userId)).thenReturn(Optional.empty());
+
             // Act & Assert
-            assertThatThrownBy(() -> userService.updateProfile("invalid-uuid", request))
-                .isInstanceOf(BadRequestException.class)
-                .hasMessageContaining("ID người dùng không hợp lệ");
+            assertThatThrownBy(() -> userService.updateProfile(userId, request))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Không tìm thấy thông tin người dùng");
         }
     }
 
@@ -254,7 +334,7 @@ class UserServiceTest {
             when(userRepository.save(any(User.class))).thenReturn(user);
 
             // Act
-            userService.deleteAccount(user.getId().toString(), request);
+            userService.deleteAccount(user.getId(), request);
 
             // Assert
             ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
@@ -275,10 +355,11 @@ class UserServiceTest {
             when(userRepository.save(any(User.class))).thenReturn(user);
 
             // Act
-            userService.deleteAccount(user.getId().toString(), request);
+            userService.deleteAccount(user.getId(), request);
 
             // Assert
             verify(tokenStorageService).revokeAllUserTokens(user.getId().toString());
+            verify(readYourWritesTracker).markWrite(user.getId().toString());
         }
 
         @Test
@@ -293,7 +374,7 @@ class UserServiceTest {
             when(passwordEncoder.matches("wrongPassword", user.getPasswordHash())).thenReturn(false);
 
             // Act & Assert
-            assertThatThrownBy(() -> userService.deleteAccount(user.getId().toString(), request))
+            assertThatThrownBy(() -> userService.deleteAccount(user.getId(), request))
                 .isInstanceOf(BadRequestException.class)
                 .hasMessageContaining("Mật khẩu không chính xác");
 
@@ -313,7 +394,7 @@ class UserServiceTest {
             when(passwordEncoder.matches("correctPassword", adminUser.getPasswordHash())).thenReturn(true);
 
             // Act & Assert
-            assertThatThrownBy(() -> userService.deleteAccount(adminUser.getId().toString(), request))
+            assertThatThrownBy(() -> userService.deleteAccount(adminUser.getId(), request))
                 .isInstanceOf(ForbiddenException.class)
                 .hasMessageContaining("Không thể xóa tài khoản quản trị viên");
 
@@ -331,27 +412,33 @@ class UserServiceTest {
             when(userRepository.findById(userId)).thenReturn(Optional.empty());
 
             // Act & Assert
-            assertThatThrownBy(() -> userService.deleteAccount(userId.toString(), request))
+            assertThatThrownBy(() -> userService.deleteAccount(userId, request))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("Không tìm thấy thông tin người dùng");
         }
+    }
 
-        @Test
-        @DisplayName("should throw BadRequestException when userId is invalid UUID")
-        void deleteAccount_InvalidUserId_ThrowsBadRequestException() {
-            // Arrange
-            DeleteAccountRequest request = new DeleteAccountRequest();
-            request.setPassword("password");
+    static class TestFixtures {
 
-            // Act & Assert
-            assertThatThrownBy(() -> userService.deleteAccount("invalid-uuid", request))
-                .isInstanceOf(BadRequestException.class)
-                .hasMessageContaining("ID người dùng không hợp lệ");
+        UserRepository.ContactView contact(UUID id, String email, String phone) {
+            return new UserRepository.ContactView() {
+                @Override
+                public UUID getId() {
+                    return id;
+                }
+
+                @Override
+                public String getEmail() {
+                    return email;
+                }
+
+                @Override
+                public String getPhone() {
+                    return phone;
+                }
+            };
         }
-    }
 
-    static class TestFixtures {
-        
         User createActiveUser() {
             return User.builder()
                 .id(UUID.randomUUID())
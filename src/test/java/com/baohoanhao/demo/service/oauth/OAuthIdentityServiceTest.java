@@ -0,0 +1,192 @@
+package com.baohoanhao.demo.service.oauth;
+
+import com.baohoanhao.demo.config.OAuthProperties;
+import com.baohoanhao.demo.entity.Role;
+import com.baohoanhao.demo.entity.User;
+import com.baohoanhao.demo.entity.UserIdentity;
+import com.baohoanhao.demo.repository.UserIdentityRepository;
+import com.baohoanhao.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("OAuthIdentityService Tests")
+class OAuthIdentityServiceTest {
+
+    private static final String CACHE_KEY = "oauth_identity:google:google-sub";
+
+    @Mock
+    private UserIdentityRepository identityRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private OAuthIdentityService identityService;
+    private User user;
+    private OAuthProfile profile;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        identityService = new OAuthIdentityService(identityRepository, userRepository, redisTemplate,
+                new OAuthProperties());
+        user = User.builder()
+                .id(UUID.randomUUID())
+                .email("user@example.com")
+                .fullName("User")
+                .passwordHash("hash")
+                .role(Role.USER)
+                .active(true)
+                .build();
+        profile = new OAuthProfile("google", "google-sub", "user@example.com", true, "User", "https://pic");
+    }
+
+    @Nested
+    @DisplayName("findLinkedUser()")
+    class FindLinkedUserTests {
+
+        @Test
+        @DisplayName("should load user by id without touching identities when cached profile is unchanged")
+        void findLinkedUser_CachedUnchanged_NoIdentityQuery() {
+            // Arrange: lần login trước ghi cache
+            when(identityRepository.findWithUser("google", "google-sub")).thenReturn(Optional.of(identity(profile)));
+            identityService.findLinkedUser(profile);
+            ArgumentCaptor<Object> cached = ArgumentCaptor.forClass(Object.class);
+            verify(valueOperations).set(eq(CACHE_KEY), cached.capture(), eq(Duration.ofHours(1)));
+            when(valueOperations.get(CACHE_KEY)).thenReturn(cached.getValue());
+            when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+            clearInvocations(identityRepository);
+
+            // Act
+            Optional<User> result = identityService.findLinkedUser(profile);
+
+            // Assert
+            assertThat(result).contains(user);
+            verifyNoInteractions(identityRepository);
+        }
+
+        @Test
+        @DisplayName("should resolve identity by provider subject even when email changed, writing once")
+        void findLinkedUser_EmailChanged_UpdatesIdentityOnly() {
+            // Arrange
+            when(identityRepository.findWithUser("google", "google-sub")).thenReturn(Optional.of(identity(profile)));
+            OAuthProfile changed = new OAuthProfile("google", "google-sub", "new@example.com", true, "User", "https://pic");
+
+            // Act
+            Optional<User> result = identityService.findLinkedUser(changed);
+
+            // Assert
+            assertThat(result).contains(user);
+            verify(identityRepository).updateProfile(any(UUID.class), eq("new@example.com"), eq("User"), eq("https://pic"));
+            verify(userRepository, never()).findByEmail(anyString());
+        }
+
+        @Test
+        @DisplayName("should not write when identity profile is unchanged")
+        void findLinkedUser_Unchanged_NoWrite() {
+            // Arrange
+            when(identityRepository.findWithUser("google", "google-sub")).thenReturn(Optional.of(identity(profile)));
+
+            // Act
+            identityService.findLinkedUser(profile);
+
+            // Assert
+            verify(identityRepository, never()).updateProfile(any(), any(), any(), any());
+            verify(identityRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("should fall back to database when Redis is unavailable")
+        void findLinkedUser_RedisDown_ReadsDatabase() {
+            // Arrange
+            when(valueOperations.get(CACHE_KEY)).thenThrow(new RedisConnectionFailureException("down"));
+            doThrow(new RedisConnectionFailureException("down")).when(valueOperations)
+                    .set(anyString(), any(), any(Duration.class));
+            when(identityRepository.findWithUser("google", "google-sub")).thenReturn(Optional.of(identity(profile)));
+
+            // Act & Assert
+            assertThat(identityService.findLinkedUser(profile)).contains(user);
+        }
+
+        @Test
+        @DisplayName("should return empty for a provider subject seen for the first time")
+        void findLinkedUser_NotLinked_ReturnsEmpty() {
+            // Arrange
+            when(identityRepository.findWithUser("google", "google-sub")).thenReturn(Optional.empty());
+
+            // Act & Assert
+            assertThat(identityService.findLinkedUser(profile)).isEmpty();
+            verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("link()")
+    class LinkTests {
+
+        @Test
+        @DisplayName("should save identity and cache the link")
+        void link_NewIdentity_SavedAndCached() {
+            // Act
+            identityService.link(user, profile);
+
+            // Assert
+            ArgumentCaptor<UserIdentity> saved = ArgumentCaptor.forClass(UserIdentity.class);
+            verify(identityRepository).save(saved.capture());
+            assertThat(saved.getValue().getUser()).isSameAs(user);
+            assertThat(saved.getValue().getProviderUserId()).isEqualTo("google-sub");
+            verify(valueOperations).set(eq(CACHE_KEY), any(), eq(Duration.ofHours(1)));
+        }
+
+        @Test
+        @DisplayName("should tolerate a concurrent callback linking the same identity")
+        void link_ConcurrentDuplicate_Ignored() {
+            // Arrange
+            when(identityRepository.save(any(UserIdentity.class)))
+                    .thenThrow(new DataIntegrityViolationException("uk_user_identities_provider_subject"));
+
+            // Act & Assert
+            assertThatCode(() -> identityService.link(user, profile)).doesNotThrowAnyException();
+            verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+        }
+    }
+
+    private UserIdentity identity(OAuthProfile source) {
+        return UserIdentity.builder()
+                .id(UUID.randomUUID())
+                .user(user)
+                .provider(source.provider())
+                .providerUserId(source.providerUserId())
+                .email(source.email())
+                .displayName(source.name())
+                .pictureUrl(source.picture())
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.baohoanhao.demo.service.oauth;
+
+import com.baohoanhao.demo.exception.BadRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OAuthProfileResolvers Tests")
+class OAuthProfileResolversTest {
+
+    @Mock
+    private OAuthProfileResolver facebookResolver;
+
+    @Mock
+    private OidcProfileResolver oidcResolver;
+
+    private OAuthProfileResolvers resolvers;
+
+    @BeforeEach
+    void setUp() {
+        when(facebookResolver.registrationId()).thenReturn("facebook");
+        resolvers = new OAuthProfileResolvers(List.of(facebookResolver), oidcResolver);
+    }
+
+    @Test
+    @DisplayName("should use resolver registered for the registration id")
+    void resolve_RegisteredProvider_UsesItsResolver() {
+        // Arrange
+        ClientRegistration registration = registration("facebook", "email", "public_profile");
+        Map<String, Object> tokenResponse = Map.of("access_token", "token");
+        OAuthProfile profile = new OAuthProfile("facebook", "fb-1", "user@example.com", true, "User", null);
+        when(facebookResolver.resolve(registration, tokenResponse)).thenReturn(profile);
+
+        // Act
+        OAuthProfile result = resolvers.resolve(registration, tokenResponse);
+
+        // Assert
+        assertThat(result).isSameAs(profile);
+        verifyNoInteractions(oidcResolver);
+    }
+
+    @Test
+    @DisplayName("should read any OIDC provider from id_token without a dedicated resolver")
+    void resolve_OidcProvider_UsesIdToken() {
+        // Arrange
+        ClientRegistration registration = registration("microsoft", "openid", "profile", "email");
+        Map<String, Object> tokenResponse = Map.of("access_token", "token", "id_token", "id-token");
+        OAuthProfile profile = new OAuthProfile("microsoft", "ms-1", "user@example.com", true, "User", null);
+        when(oidcResolver.resolve(registration, tokenResponse)).thenReturn(profile);
+
+        // Act
+        OAuthProfile result = resolvers.resolve(registration, tokenResponse);
+
+        // Assert
+        assertThat(result).isSameAs(profile);
+        verify(facebookResolver, never()).resolve(any(), any());
+    }
+
+    @Test
+    @DisplayName("should reject non-OIDC provider without a resolver")
+    void resolve_UnknownProvider_ThrowsBadRequestException() {
+        // Arrange
+        ClientRegistration registration = registration("gitlab", "read_user");
+
+        // Act & Assert
+        assertThatThrownBy(() -> resolvers.resolve(registration, Map.of("access_token", "token")))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Provider không được hỗ trợ");
+        verifyNoInteractions(oidcResolver);
+    }
+
+    private static ClientRegistration registration(String registrationId, String... scopes) {
+        return ClientRegistration.withRegistrationId(registrationId)
+                .clientId(registrationId + "-client-id")
+                .clientSecret(registrationId + "-client-secret")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("{baseUrl}/api/auth/oauth2/callback/{registrationId}")
+                .scope(scopes)
+                .authorizationUri("https://" + registrationId + ".example.com/authorize")
+                .tokenUri("https://" + registrationId + ".example.com/token")
+                .build();
+    }
+}
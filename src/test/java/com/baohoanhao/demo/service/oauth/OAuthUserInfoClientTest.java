@@ -0,0 +1,165 @@
+package com.baohoanhao.demo.service.oauth;
+
+import com.baohoanhao.demo.config.OAuthHttpClients;
+import com.baohoanhao.demo.config.OAuthProperties;
+import com.baohoanhao.demo.exception.UnauthorizedException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("OAuthUserInfoClient Tests")
+class OAuthUserInfoClientTest {
+
+    private static final Duration DELAY = Duration.ofMillis(300);
+
+    private HttpServer server;
+    private String baseUrl;
+    private final AtomicInteger userHits = new AtomicInteger();
+    private volatile String lastAuthorization;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OAuthHttpClients httpClients;
+    private OAuthUserInfoClient userInfoClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Stub GitHub API: /user và /user/emails, mỗi request trễ DELAY
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        server.createContext("/user", exchange -> {
+            if (exchange.getRequestURI().getPath().endsWith("/emails")) {
+                respond(exchange, """
+                        [{"email":"old@example.com","primary":false,"verified":true},
+                         {"email":"octo@example.com","primary":true,"verified":true}]""");
+                return;
+            }
+            userHits.incrementAndGet();
+            lastAuthorization = exchange.getRequestHeaders().getFirst("Authorization");
+            respond(exchange, """
+                    {"id":583231,"login":"octocat","name":null,"email":null,
+                     "avatar_url":"https://avatars.example.com/u/583231"}""");
+        });
+        server.start();
+
+        OAuthProperties properties = new OAuthProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        httpClients = new OAuthHttpClients(properties, meterRegistry, ObservationRegistry.NOOP);
+        userInfoClient = new OAuthUserInfoClient(httpClients, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userInfoClient.destroy();
+        httpClients.destroy();
+        server.stop(0);
+    }
+
+    @Nested
+    @DisplayName("fetch()")
+    class FetchTests {
+
+        @Test
+        @DisplayName("should cache response per access token and send it as bearer token")
+        void fetch_SameAccessToken_ServedFromCache() {
+            // Act
+            Map<?, ?> first = userInfoClient.fetch(registration(), baseUrl + "/user", "token-1", Map.class);
+            Map<?, ?> retried = userInfoClient.fetch(registration(), baseUrl + "/user", "token-1", Map.class);
+            userInfoClient.fetch(registration(), baseUrl + "/user", "token-2", Map.class);
+
+            // Assert
+            assertThat(retried).isEqualTo(first);
+            assertThat(userHits).hasValue(2);
+            assertThat(lastAuthorization).isEqualTo("Bearer token-2");
+            assertThat(meterRegistry.get("oauth.userinfo.cache").tags("provider", "github", "result", "hit")
+                    .counter().count()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("GitHubProfileResolver")
+    class GitHubTests {
+
+        @Test
+        @DisplayName("should fetch user and emails concurrently")
+        void resolve_PrivateEmail_FetchesEmailsInParallel() {
+            // Arrange
+            GitHubProfileResolver resolver = new GitHubProfileResolver(userInfoClient);
+
+            // Act
+            long start = System.nanoTime();
+            OAuthProfile profile = resolver.resolve(registration(), Map.of("access_token", "token-1"));
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            // Assert
+            assertThat(profile).isEqualTo(new OAuthProfile("github", "583231", "octo@example.com", true, "octocat",
+                    "https://avatars.example.com/u/583231"));
+            assertThat(elapsed).isLessThan(DELAY.multipliedBy(2));
+        }
+
+        @Test
+        @DisplayName("should reject account without verified email")
+        void resolve_NoVerifiedEmail_ThrowsUnauthorizedException() {
+            // Arrange
+            server.removeContext("/user");
+            server.createContext("/user", exchange -> respond(exchange,
+                    exchange.getRequestURI().getPath().endsWith("/emails")
+                            ? "[{\"email\":\"octo@example.com\",\"primary\":true,\"verified\":false}]"
+                            : "{\"id\":583231,\"login\":\"octocat\"}"));
+            GitHubProfileResolver resolver = new GitHubProfileResolver(userInfoClient);
+
+            // Act & Assert
+            assertThatThrownBy(() -> resolver.resolve(registration(), Map.of("access_token", "token-1")))
+                    .isInstanceOf(UnauthorizedException.class)
+                    .hasMessageContaining("email");
+        }
+    }
+
+    private ClientRegistration registration() {
+        return ClientRegistration.withRegistrationId("github")
+                .clientId("github-client-id")
+                .clientSecret("github-client-secret")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("{baseUrl}/api/auth/oauth2/callback/{registrationId}")
+                .scope(List.of("read:user", "user:email"))
+                .authorizationUri("https://github.com/login/oauth/authorize")
+                .tokenUri("https://github.com/login/oauth/access_token")
+                .userInfoUri(baseUrl + "/user")
+                .clientName("GitHub")
+                .build();
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        try {
+            Thread.sleep(DELAY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.baohoanhao.demo.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("RateLimitedLogger Tests")
+class RateLimitedLoggerTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(RateLimitedLoggerTest.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        logger.addAppender(appender);
+        logger.setLevel(Level.WARN);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+        logger.setLevel(null);
+    }
+
+    @Test
+    @DisplayName("should log at most the permitted lines per window and count the rest")
+    void warn_Burst_Limited() {
+        // Arrange
+        RateLimitedLogger rateLimited = new RateLimitedLogger(logger, Duration.ofHours(1), 3);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            rateLimited.warn("Invalid JWT token: {}", "expired");
+        }
+
+        // Assert
+        assertThat(appender.list).hasSize(3);
+        assertThat(appender.list.get(0).getFormattedMessage()).isEqualTo("Invalid JWT token: expired");
+        assertThat(rateLimited.suppressedCount()).isEqualTo(97);
+    }
+
+    @Test
+    @DisplayName("should report suppressed count with the first line of the next window")
+    void warn_NextWindow_ReportsSuppressed() throws Exception {
+        // Arrange
+        RateLimitedLogger rateLimited = new RateLimitedLogger(logger, Duration.ofMillis(500), 1);
+        rateLimited.warn("Invalid JWT token: {}", "a");
+        rateLimited.warn("Invalid JWT token: {}", "b");
+        rateLimited.warn("Invalid JWT token: {}", "c");
+
+        // Act
+        Thread.sleep(600);
+        rateLimited.warn("Invalid JWT token: {}", "d");
+
+        // Assert
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(
+                "Invalid JWT token: a",
+                "Invalid JWT token: d (2 similar messages suppressed)");
+        assertThat(rateLimited.suppressedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("should not count messages when WARN is disabled")
+    void warn_LevelDisabled_Ignored() {
+        // Arrange
+        logger.setLevel(Level.ERROR);
+        RateLimitedLogger rateLimited = new RateLimitedLogger(logger, Duration.ofHours(1), 1);
+
+        // Act
+        rateLimited.warn("Invalid JWT token: {}", "a");
+
+        // Assert
+        assertThat(appender.list).isEmpty();
+        assertThat(rateLimited.suppressedCount()).isZero();
+    }
+}
@@ -0,0 +1,60 @@
+package com.baohoanhao.demo.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("ScratchPool Tests")
+class ScratchPoolTest {
+
+    @Test
+    @DisplayName("should reuse released objects across virtual threads")
+    void acquire_AcrossVirtualThreads_ReusesInstance() throws Exception {
+        // Arrange
+        AtomicInteger created = new AtomicInteger();
+        ScratchPool<StringBuilder> pool = new ScratchPool<>(() -> {
+            created.incrementAndGet();
+            return new StringBuilder();
+        }, 4);
+
+        // Act: mỗi lần một virtual thread mới, như một request
+        for (int i = 0; i < 100; i++) {
+            FutureTask<Void> task = new FutureTask<>(() -> {
+                StringBuilder scratch = pool.acquire();
+                pool.release(scratch);
+                return null;
+            });
+            Thread.ofVirtual().start(task).join();
+            task.get();
+        }
+
+        // Assert
+        assertThat(created).hasValue(1);
+        assertThat(pool.idle()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should create extra objects when empty and drop them once full")
+    void release_PoolFull_DropsExtraObjects() {
+        // Arrange
+        ScratchPool<Object> pool = new ScratchPool<>(Object::new, 2);
+
+        // Act
+        Object first = pool.acquire();
+        Object second = pool.acquire();
+        Object third = pool.acquire();
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+
+        // Assert
+        assertThat(first).isNotSameAs(second).isNotSameAs(third);
+        assertThat(pool.idle()).isEqualTo(2);
+        assertThat(pool.acquire()).isIn(first, second);
+        assertThat(pool.acquire()).isIn(first, second);
+    }
+}
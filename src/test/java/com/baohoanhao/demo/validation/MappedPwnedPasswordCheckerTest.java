@@ -0,0 +1,158 @@
+package com.baohoanhao.demo.validation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ConstraintValidatorContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("MappedPwnedPasswordChecker Tests")
+class MappedPwnedPasswordCheckerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MappedPwnedPasswordChecker checker;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (checker != null) {
+            checker.close();
+        }
+    }
+
+    @Test
+    @DisplayName("should find passwords indexed from a range directory and skip rare ones")
+    void isBreached_RangeDirectory_HitsAndMisses() throws Exception {
+        // Arrange
+        Path ranges = Files.createDirectory(tempDir.resolve("ranges"));
+        writeRange(ranges, "P@ssw0rd!", 120);
+        writeRange(ranges, "Abcdef1!", 1);
+        writeRange(ranges, "Mật-Khẩu1!", 5);
+        Path index = tempDir.resolve("pwned.idx");
+
+        // Act
+        long written = PwnedPasswordIndex.build(ranges, index, 2);
+        checker = new MappedPwnedPasswordChecker(index, meterRegistry);
+
+        // Assert: mỗi file range có thêm 2 hash phụ
+        assertThat(written).isEqualTo(checker.size()).isEqualTo(8);
+        assertThat(checker.isBreached("P@ssw0rd!")).isTrue();
+        assertThat(checker.isBreached("Mật-Khẩu1!")).isTrue();
+        assertThat(checker.isBreached("Abcdef1!")).isFalse();
+        assertThat(checker.isBreached("Unlisted-Passw0rd!")).isFalse();
+        assertThat(meterRegistry.get("password.breached.lookup").timer().count()).isEqualTo(4);
+        assertThat(meterRegistry.get("password.breached.index.size").gauge().value()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("should build from a single ordered hash file")
+    void isBreached_OrderedHashFile_Hit() throws Exception {
+        // Arrange
+        List<String> lines = new ArrayList<>(List.of(
+                sha1("P@ssw0rd!") + ":10",
+                sha1("Str0ng&Unique") + ":3",
+                "0000000000000000000000000000000000000000:1",
+                "FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF:1"));
+        lines.sort(null);
+        Path corpus = Files.write(tempDir.resolve("pwned.txt"), lines, StandardCharsets.US_ASCII);
+        Path index = tempDir.resolve("pwned.idx");
+
+        // Act
+        PwnedPasswordIndex.build(corpus, index, 1);
+        checker = new MappedPwnedPasswordChecker(index, meterRegistry);
+
+        // Assert
+        assertThat(checker.size()).isEqualTo(4);
+        assertThat(checker.isBreached("Str0ng&Unique")).isTrue();
+        assertThat(checker.isBreached("Abcdef1!")).isFalse();
+    }
+
+    @Test
+    @DisplayName("should handle an empty index")
+    void isBreached_EmptyIndex_False() throws Exception {
+        // Arrange
+        Path corpus = Files.write(tempDir.resolve("empty.txt"), List.of(), StandardCharsets.US_ASCII);
+        Path index = tempDir.resolve("pwned.idx");
+        PwnedPasswordIndex.build(corpus, index, 1);
+
+        // Act
+        checker = new MappedPwnedPasswordChecker(index, meterRegistry);
+
+        // Assert
+        assertThat(checker.size()).isZero();
+        assertThat(checker.isBreached("P@ssw0rd!")).isFalse();
+    }
+
+    @Test
+    @DisplayName("should reject unsorted corpus instead of building a broken index")
+    void build_UnsortedInput_Rejected() throws Exception {
+        // Arrange
+        Path corpus = Files.write(tempDir.resolve("pwned.txt"), List.of(
+                "FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF:1",
+                "0000000000000000000000000000000000000000:1"), StandardCharsets.US_ASCII);
+
+        // Act & Assert
+        assertThatThrownBy(() -> PwnedPasswordIndex.build(corpus, tempDir.resolve("pwned.idx"), 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("sort");
+    }
+
+    @Test
+    @DisplayName("should refuse to map a file that is not an index")
+    void open_NotAnIndex_Rejected() throws Exception {
+        // Arrange
+        Path file = Files.write(tempDir.resolve("random.idx"), new byte[32]);
+
+        // Act & Assert
+        assertThatThrownBy(() -> new MappedPwnedPasswordChecker(file, meterRegistry))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    @DisplayName("should plug into StrongPasswordValidator")
+    void isValid_IndexedPassword_Rejected() throws Exception {
+        // Arrange
+        Path corpus = Files.write(tempDir.resolve("pwned.txt"), List.of(sha1("P@ssw0rd!") + ":10"),
+                StandardCharsets.US_ASCII);
+        Path index = tempDir.resolve("pwned.idx");
+        PwnedPasswordIndex.build(corpus, index, 1);
+        checker = new MappedPwnedPasswordChecker(index, meterRegistry);
+        StrongPasswordValidator validator = new StrongPasswordValidator(PasswordPolicy.defaults(), checker);
+        ConstraintValidatorContext context = mock(ConstraintValidatorContext.class, RETURNS_DEEP_STUBS);
+
+        // Act & Assert
+        assertThat(validator.isValid("P@ssw0rd!", context)).isFalse();
+        assertThat(validator.isValid("Str0ng&Unique", context)).isTrue();
+    }
+
+    private static void writeRange(Path directory, String password, int count) throws Exception {
+        String hash = sha1(password);
+        // Dòng của các hash khác cùng prefix, sort tăng dần như file gốc
+        List<String> lines = new ArrayList<>(List.of(
+                "00000000000000000000000000000000000:3",
+                hash.substring(5) + ":" + count,
+                "FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF:7"));
+        lines.sort(null);
+        Files.write(directory.resolve(hash.substring(0, 5) + ".txt"), lines, StandardCharsets.US_ASCII);
+    }
+
+    private static String sha1(String password) throws Exception {
+        return HexFormat.of().withUpperCase().formatHex(
+                MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8)));
+    }
+}
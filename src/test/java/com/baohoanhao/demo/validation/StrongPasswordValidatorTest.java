@@ -0,0 +1,145 @@
+package com.baohoanhao.demo.validation;
+
+import com.baohoanhao.demo.config.PasswordPolicyProperties;
+import jakarta.validation.ConstraintValidatorContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("StrongPasswordValidator Tests")
+class StrongPasswordValidatorTest {
+
+    private final PasswordPolicy policy = PasswordPolicy.defaults();
+
+    @Nested
+    @DisplayName("PasswordPolicy.check()")
+    class PolicyTests {
+
+        @ParameterizedTest
+        @ValueSource(strings = {"Abcdef1!", "P@ssw0rdLonger", "Mật-Khẩu1!"})
+        @DisplayName("should accept passwords containing all required character classes")
+        void check_AllClasses_Valid(String password) {
+            assertThat(policy.check(password)).isEqualTo(PasswordPolicy.Result.VALID);
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"abcdef1!", "ABCDEF1!", "Abcdefg!", "Abcdefg1", "Abcdef1("})
+        @DisplayName("should reject passwords missing a character class (same as the old regex)")
+        void check_MissingClass_Rejected(String password) {
+            assertThat(policy.check(password)).isEqualTo(PasswordPolicy.Result.MISSING_CHARACTER_CLASS);
+        }
+
+        @Test
+        @DisplayName("should reject short passwords")
+        void check_Short_Rejected() {
+            assertThat(policy.check("Ab1!")).isEqualTo(PasswordPolicy.Result.TOO_SHORT);
+        }
+
+        @Test
+        @DisplayName("should bound input by UTF-8 bytes (bcrypt limit)")
+        void check_OverMaxBytes_Rejected() {
+            // Arrange: 40 ký tự nhưng 80+ byte UTF-8
+            String multiByte = "Aa1!" + "ệ".repeat(36);
+
+            // Act & Assert
+            assertThat(policy.check("Aa1!" + "x".repeat(68))).isEqualTo(PasswordPolicy.Result.VALID);
+            assertThat(policy.check("Aa1!" + "x".repeat(69))).isEqualTo(PasswordPolicy.Result.TOO_LONG);
+            assertThat(policy.check(multiByte)).isEqualTo(PasswordPolicy.Result.TOO_LONG);
+            assertThat(policy.check("Aa1!" + "x".repeat(1_000_000))).isEqualTo(PasswordPolicy.Result.TOO_LONG);
+        }
+
+        @Test
+        @DisplayName("should apply configured policy")
+        void check_CustomPolicy_Applied() {
+            // Arrange
+            PasswordPolicyProperties properties = new PasswordPolicyProperties();
+            properties.setMinLength(12);
+            properties.setRequireSpecial(false);
+            PasswordPolicy custom = PasswordPolicy.from(properties);
+
+            // Act & Assert
+            assertThat(custom.check("Abcdefghijk1")).isEqualTo(PasswordPolicy.Result.VALID);
+            assertThat(custom.check("Abcdefgh1!")).isEqualTo(PasswordPolicy.Result.TOO_SHORT);
+        }
+    }
+
+    @Nested
+    @DisplayName("Breached password check")
+    class BreachedTests {
+
+        @TempDir
+        Path rangeDirectory;
+
+        private RangeFileBreachedPasswordChecker checker;
+
+        @BeforeEach
+        void setUp() throws Exception {
+            writeRange("P@ssw0rd!", 120);
+            writeRange("Abcdef1!", 1);
+            PasswordPolicyProperties properties = new PasswordPolicyProperties();
+            properties.getBreached().setRangeDirectory(rangeDirectory);
+            properties.getBreached().setMinOccurrences(2);
+            checker = new RangeFileBreachedPasswordChecker(properties);
+        }
+
+        @Test
+        @DisplayName("should detect password present in local range file")
+        void isBreached_KnownPassword_True() {
+            assertThat(checker.isBreached("P@ssw0rd!")).isTrue();
+        }
+
+        @Test
+        @DisplayName("should ignore passwords under the occurrence threshold or without a range file")
+        void isBreached_RareOrUnknown_False() {
+            assertThat(checker.isBreached("Abcdef1!")).isFalse();
+            assertThat(checker.isBreached("Unlisted-Passw0rd!")).isFalse();
+        }
+
+        @Test
+        @DisplayName("should reject breached password with a dedicated message")
+        void isValid_BreachedPassword_Rejected() {
+            // Arrange
+            StrongPasswordValidator validator = new StrongPasswordValidator(policy, checker);
+            ConstraintValidatorContext context = mock(ConstraintValidatorContext.class, RETURNS_DEEP_STUBS);
+
+            // Act & Assert
+            assertThat(validator.isValid("P@ssw0rd!", context)).isFalse();
+            verify(context).buildConstraintViolationWithTemplate(contains("rò rỉ"));
+            assertThat(validator.isValid("Str0ng&Unique", context)).isTrue();
+        }
+
+        private void writeRange(String password, int count) throws Exception {
+            String hash = HexFormat.of().withUpperCase().formatHex(
+                    MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8)));
+            Path file = rangeDirectory.resolve(hash.substring(0, 5) + ".txt");
+            // Dòng của các hash khác cùng prefix, sort tăng dần như file gốc
+            List<String> lines = new ArrayList<>(List.of(
+                    "00000000000000000000000000000000000:3",
+                    hash.substring(5) + ":" + count,
+                    "FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF:7"));
+            lines.sort(null);
+            Files.write(file, lines, StandardCharsets.US_ASCII);
+        }
+    }
+
+    @Test
+    @DisplayName("should reject null password")
+    void isValid_Null_False() {
+        assertThat(new StrongPasswordValidator().isValid(null, mock(ConstraintValidatorContext.class))).isFalse();
+    }
+}